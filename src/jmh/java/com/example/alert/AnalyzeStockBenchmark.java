@@ -0,0 +1,71 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.ta4j.core.BarSeries;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@link StockAlertService#analyzeStock} for one symbol, per engine mode and history length.
+ * In incremental mode the state is caught up during warmup, so this measures re-analysis without new bars.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalyzeStockBenchmark {
+
+    @Param({"250", "2500", "25000"})
+    private int barCount;
+
+    @Param({"batch", "incremental"})
+    private String mode;
+
+    @Param({"decimal", "primitive"})
+    private String numeric;
+
+    private ConfigurableApplicationContext context;
+    private StockAlertService stockAlertService;
+    private PrimaryConditionRepository primaryConditionRepository;
+    private BarSeries barSeries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("alert.engine.mode=" + mode, "alert.engine.numeric=" + numeric);
+        stockAlertService = context.getBean(StockAlertService.class);
+        primaryConditionRepository = context.getBean(PrimaryConditionRepository.class);
+        barSeries = SyntheticBarSeries.create("BENCH", barCount, 42);
+    }
+
+    // Crosses in the window are saved again on every call, keep the table from growing across iterations
+    @TearDown(Level.Iteration)
+    public void clearConditions() {
+        primaryConditionRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Alert> analyzeStock() {
+        return stockAlertService.analyzeStock(barSeries, "BENCH");
+    }
+}
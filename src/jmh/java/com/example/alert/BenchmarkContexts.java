@@ -0,0 +1,51 @@
+package com.example.alert;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Starts the application without the web server and with quiet logging, for benchmarks that need the
+ * repository and services wired against the in-memory H2 database. The daily bars the services store go to a
+ * temporary directory that is deleted with the context, unless the benchmark sets one itself.
+ * <p>
+ * The scheduled purge, checkpoint, session close and cache eviction are off, and so are the history and NDJSON
+ * alert sinks, so that no background work competes with the measured code or writes to the database behind its
+ * back. Only the in-memory {@link AlertFeed} still takes the alerts. A benchmark can turn any of them on again
+ * with its own properties.
+ */
+final class BenchmarkContexts {
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext start(String... properties) {
+        Path directory;
+        try {
+            directory = Files.createTempDirectory("bars");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SpringApplicationBuilder(AlertApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN",
+                        "alert.bar-store.directory=" + directory,
+                        "alert.purge.enabled=false", "alert.checkpoint.enabled=false",
+                        "alert.intraday.close-cron=-", "alert.cache.max-idle=P1D",
+                        "alert.sink.history.enabled=false", "alert.sink.ndjson.enabled=false")
+                .properties(properties)
+                .listeners(event -> {
+                    if (event instanceof ContextClosedEvent) {
+                        FileSystemUtils.deleteRecursively(directory.toFile());
+                    }
+                })
+                .run();
+    }
+}
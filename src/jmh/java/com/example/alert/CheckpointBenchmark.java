@@ -0,0 +1,73 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ta4j.core.BarSeries;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to write and to read back the checkpoint of a whole universe, the part of a warm restart that does
+ * not depend on how many bars arrived since.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CheckpointBenchmark {
+
+    @Param({"10000"})
+    private int symbolCount;
+
+    private final StrategyConfig config = new StrategyConfig();
+    private Map<String, PrimitiveSignalState> states;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        BarSeries barSeries = SyntheticBarSeries.create("BENCH", 500, 42);
+        states = new HashMap<>();
+        for (int i = 0; i < symbolCount; i++) {
+            PrimitiveSignalState state = new PrimitiveSignalState(config);
+            state.advance(barSeries);
+            states.put("SYM" + i, state);
+        }
+        file = Files.createTempDirectory("checkpoint").resolve("checkpoint.bin");
+        StateCheckpoint.write(file, config, states, List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(file.getParent());
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        StateCheckpoint.write(file, config, states, List.of());
+    }
+
+    @Benchmark
+    public StateCheckpoint read() throws IOException {
+        return StateCheckpoint.read(file, config);
+    }
+}
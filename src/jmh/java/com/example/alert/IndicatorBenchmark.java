@@ -0,0 +1,90 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsMiddleIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsUpperIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Separates the cost of building the ta4j indicator graph from the cost of evaluating it, and compares
+ * both with a full pass of the running indicator states.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndicatorBenchmark {
+
+    @Param({"250", "2500", "25000"})
+    private int barCount;
+
+    private final StrategyConfig config = new StrategyConfig();
+    private BarSeries barSeries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        barSeries = SyntheticBarSeries.create("BENCH", barCount, 42);
+    }
+
+    @Benchmark
+    public void buildIndicators(Blackhole blackhole) {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(barSeries);
+        blackhole.consume(new SMAIndicator(closePrice, config.getShortMaPeriod()));
+        blackhole.consume(new SMAIndicator(closePrice, config.getLongMaPeriod()));
+        blackhole.consume(new RSIIndicator(closePrice, config.getRsiPeriod()));
+        MACDIndicator macd = new MACDIndicator(closePrice, config.getMacdShortPeriod(), config.getMacdLongPeriod());
+        blackhole.consume(new EMAIndicator(macd, config.getMacdSignalPeriod()));
+        blackhole.consume(new BollingerBandsUpperIndicator(new BollingerBandsMiddleIndicator(closePrice), closePrice));
+    }
+
+    @Benchmark
+    public void buildAndEvaluateIndicators(Blackhole blackhole) {
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(barSeries);
+        SMAIndicator shortMA = new SMAIndicator(closePrice, config.getShortMaPeriod());
+        SMAIndicator longMA = new SMAIndicator(closePrice, config.getLongMaPeriod());
+        RSIIndicator rsi = new RSIIndicator(closePrice, config.getRsiPeriod());
+        MACDIndicator macd = new MACDIndicator(closePrice, config.getMacdShortPeriod(), config.getMacdLongPeriod());
+        EMAIndicator macdSignal = new EMAIndicator(macd, config.getMacdSignalPeriod());
+        BollingerBandsUpperIndicator upperBB = new BollingerBandsUpperIndicator(new BollingerBandsMiddleIndicator(closePrice), closePrice);
+
+        // Same access pattern as analyzeStock: the last bar pulls the recursive indicators through the history
+        int endIndex = barSeries.getEndIndex();
+        blackhole.consume(shortMA.getValue(endIndex));
+        blackhole.consume(longMA.getValue(endIndex));
+        blackhole.consume(rsi.getValue(endIndex));
+        blackhole.consume(macdSignal.getValue(endIndex));
+        blackhole.consume(upperBB.getValue(endIndex));
+    }
+
+    @Benchmark
+    public List<SignalSnapshot> decimalStatePass() {
+        return new SignalState(SignalEngine.numFunctionOf(barSeries), config).advance(barSeries);
+    }
+
+    @Benchmark
+    public List<SignalSnapshot> primitiveStatePass() {
+        return new PrimitiveSignalState(config).advance(barSeries);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minute bars per second {@link IntradayAggregator} takes over a universe of symbols, including the daily
+ * closes every 390 minutes and, unless disabled, the provisional evaluations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntradayBenchmark {
+
+    private static final int MINUTES_PER_SESSION = 390;
+
+    @Param({"1000"})
+    private int symbolCount;
+
+    @Param({"PT15M", "P1000D"})
+    private String provisionalInterval;
+
+    private ConfigurableApplicationContext context;
+    private IntradayAggregator intradayAggregator;
+    private PrimaryConditionRepository primaryConditionRepository;
+    private String[] symbols;
+    private double[] prices;
+    private long sessionStart;
+    private long update;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("alert.intraday.provisional-interval=" + provisionalInterval);
+        intradayAggregator = context.getBean(IntradayAggregator.class);
+        primaryConditionRepository = context.getBean(PrimaryConditionRepository.class);
+        symbols = new String[symbolCount];
+        prices = new double[symbolCount];
+        Random random = new Random(42);
+        for (int i = 0; i < symbolCount; i++) {
+            symbols[i] = "SYM" + i;
+            prices[i] = 50 + random.nextDouble() * 100;
+        }
+        sessionStart = LocalDate.of(2000, 1, 3).atTime(9, 30).atZone(ZoneId.of("America/New_York"))
+                .toEpochSecond();
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearConditions() {
+        primaryConditionRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void onMinuteBar() {
+        int symbol = (int) (update % symbolCount);
+        long minute = update / symbolCount;
+        long epochSecond = sessionStart + minute / MINUTES_PER_SESSION * 86_400 + minute % MINUTES_PER_SESSION * 60;
+        // A deterministic wiggle, so that the averages cross now and then
+        double price = prices[symbol] * (1 + 0.05 * Math.sin((minute + symbol) * 0.01));
+        intradayAggregator.onMinuteBar(symbols[symbol], epochSecond, price, price * 1.001, price * 0.999, price, 100);
+        update++;
+    }
+}
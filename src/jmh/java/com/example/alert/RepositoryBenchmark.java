@@ -0,0 +1,106 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@link PrimaryConditionRepository} queries and writes against the in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private static final int SYMBOL_COUNT = 1000;
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+
+    @Param({"10000", "100000"})
+    private int rowCount;
+
+    private ConfigurableApplicationContext context;
+    private PrimaryConditionRepository primaryConditionRepository;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start();
+        primaryConditionRepository = context.getBean(PrimaryConditionRepository.class);
+        random = new Random(42);
+        List<PrimaryCondition> conditions = new ArrayList<>(rowCount);
+        Set<String> keys = new HashSet<>();
+        while (conditions.size() < rowCount) {
+            // Symbol, type and date are unique together
+            String symbol = symbol(random.nextInt(SYMBOL_COUNT));
+            ConditionType conditionType = random.nextBoolean() ? ConditionType.GOLDEN_CROSS : ConditionType.DEATH_CROSS;
+            LocalDate date = FIRST_DATE.plusDays(random.nextInt(1500));
+            if (keys.add(symbol + conditionType + date)) {
+                conditions.add(condition(symbol, conditionType, date));
+            }
+        }
+        primaryConditionRepository.applyChanges(conditions, List.of());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<PrimaryCondition> findBySymbolAndType() {
+        return primaryConditionRepository.findPending(
+                symbol(random.nextInt(SYMBOL_COUNT)), ConditionType.GOLDEN_CROSS, FIRST_DATE.plusDays(random.nextInt(1500)));
+    }
+
+    @Benchmark
+    public List<PrimaryCondition> loadPendingConditions() {
+        return primaryConditionRepository.findByStockSymbolAndOccurrenceDateAfter(
+                symbol(random.nextInt(SYMBOL_COUNT)), FIRST_DATE.plusDays(random.nextInt(1500)));
+    }
+
+    @Benchmark
+    public void insertConfirmAndDeleteBatch() {
+        String symbol = "NEW" + random.nextInt(SYMBOL_COUNT);
+        List<PrimaryCondition> created = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            created.add(condition(symbol, ConditionType.GOLDEN_CROSS, FIRST_DATE.plusDays(i)));
+        }
+        primaryConditionRepository.applyChanges(created, List.of());
+        primaryConditionRepository.applyChanges(List.of(), created);
+        primaryConditionRepository.deleteAllInBatch(created);
+    }
+
+    private static String symbol(int index) {
+        return "SYM" + index;
+    }
+
+    private static PrimaryCondition condition(String symbol, ConditionType conditionType, LocalDate date) {
+        PrimaryCondition condition = new PrimaryCondition();
+        condition.setStockSymbol(symbol);
+        condition.setConditionType(conditionType);
+        condition.setOccurrenceDate(date);
+        return condition;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.ta4j.core.BarSeries;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of a multi-symbol {@link UniverseScanService#scanUniverse} run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ScanBenchmark {
+
+    private static final int BAR_COUNT = 750;
+
+    @Param({"100", "1000"})
+    private int symbolCount;
+
+    @Param({"decimal", "primitive"})
+    private String numeric;
+
+    private ConfigurableApplicationContext context;
+    private UniverseScanService universeScanService;
+    private PrimaryConditionRepository primaryConditionRepository;
+    private Map<String, BarSeries> universe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start("alert.engine.numeric=" + numeric);
+        universeScanService = context.getBean(UniverseScanService.class);
+        primaryConditionRepository = context.getBean(PrimaryConditionRepository.class);
+        universe = new HashMap<>();
+        for (int i = 0; i < symbolCount; i++) {
+            universe.put("SYM" + i, SyntheticBarSeries.create("SYM" + i, BAR_COUNT, i));
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearConditions() {
+        primaryConditionRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ScanResult scanUniverse() {
+        return universeScanService.scanUniverse(universe);
+    }
+}
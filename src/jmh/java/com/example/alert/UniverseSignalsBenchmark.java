@@ -0,0 +1,89 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.util.FileSystemUtils;
+import org.ta4j.core.BarSeries;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indicators of a whole stored universe on one thread: a running state per symbol, one symbol after the
+ * other, against {@link UniverseSignals} advancing all symbols together, with and without the copy into the
+ * time-step layout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UniverseSignalsBenchmark {
+
+    private static final int BAR_COUNT = 2500;
+
+    @Param({"100", "1000"})
+    private int symbolCount;
+
+    private final StrategyConfig config = new StrategyConfig();
+    private Path directory;
+    private ColumnarBarStore store;
+    private Map<String, BarColumns> universe;
+    private UniverseColumns columns;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bars");
+        AlertProperties properties = new AlertProperties();
+        properties.getBarStore().setDirectory(directory.toString());
+        store = new ColumnarBarStore(properties);
+        for (int i = 0; i < symbolCount; i++) {
+            // A few symbols with a short history, as after listings
+            BarSeries barSeries = SyntheticBarSeries.create("SYM" + i, i % 50 == 0 ? BAR_COUNT / 10 : BAR_COUNT, i);
+            for (int j = 0; j <= barSeries.getEndIndex(); j++) {
+                store.append("SYM" + i, barSeries.getBar(j));
+            }
+        }
+        universe = store.openAll();
+        columns = UniverseColumns.of(universe);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        store.destroy();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public void perSymbolStates(Blackhole blackhole) {
+        for (BarColumns barColumns : universe.values()) {
+            blackhole.consume(new PrimitiveSignalState(config).advance(barColumns));
+        }
+    }
+
+    @Benchmark
+    public UniverseSignals universeSignals() {
+        return UniverseSignals.compute(columns, config);
+    }
+
+    @Benchmark
+    public UniverseSignals layoutAndUniverseSignals() {
+        return UniverseSignals.compute(UniverseColumns.of(universe), config);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.alert;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import org.ta4j.core.BarSeries;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 10,000 concurrent symbol tasks, each {@link StockAlertService#analyzeStock(BarColumns, String)} with its
+ * repository reads and writes, on the platform worker pool against a virtual thread per task. An optional
+ * sleep before the analysis stands in for blocking I/O such as loading the bars from a remote source.
+ * <p>
+ * The score is the time of the whole run; the aux counters are the 50th and 99th percentile of the time from
+ * submitting a task to its completion, which includes the wait for a worker. Virtual threads need Java 21:
+ * run with {@code -PjmhJvm=/path/to/jdk-21/bin/java}, otherwise both modes use platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    private static final int SYMBOL_COUNT = 10_000;
+    private static final int BAR_COUNT = 500;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"0", "2"})
+    private int ioMillis;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private StockAlertService stockAlertService;
+    private PrimaryConditionRepository primaryConditionRepository;
+    private WorkerThreads workerThreads;
+    private int parallelism;
+    private Map<String, BarColumns> universe;
+    private List<String> symbols;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bars");
+        context = BenchmarkContexts.start("alert.bar-store.directory=" + directory,
+                "spring.threads.virtual.enabled=" + threads.equals("virtual"));
+        stockAlertService = context.getBean(StockAlertService.class);
+        primaryConditionRepository = context.getBean(PrimaryConditionRepository.class);
+        workerThreads = context.getBean(WorkerThreads.class);
+        parallelism = context.getBean(AlertProperties.class).getScan().getParallelism();
+        ColumnarBarStore store = context.getBean(ColumnarBarStore.class);
+        for (int i = 0; i < SYMBOL_COUNT; i++) {
+            BarSeries barSeries = SyntheticBarSeries.create("SYM" + i, BAR_COUNT, i);
+            for (int j = 0; j <= barSeries.getEndIndex(); j++) {
+                store.append("SYM" + i, barSeries.getBar(j));
+            }
+        }
+        universe = store.openAll();
+        symbols = new ArrayList<>(universe.keySet());
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearConditions() {
+        primaryConditionRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int symbolTasks(Latency latency) throws InterruptedException, ExecutionException {
+        ExecutorService executor = workerThreads.newExecutor("bench-", parallelism);
+        try {
+            long[] nanos = new long[symbols.size()];
+            List<Future<Integer>> futures = new ArrayList<>(symbols.size());
+            for (int i = 0; i < symbols.size(); i++) {
+                int index = i;
+                String symbol = symbols.get(i);
+                long submitted = System.nanoTime();
+                futures.add(executor.submit(() -> {
+                    if (ioMillis > 0) {
+                        Thread.sleep(ioMillis);
+                    }
+                    int alertCount = stockAlertService.analyzeStock(universe.get(symbol), symbol).size();
+                    nanos[index] = System.nanoTime() - submitted;
+                    return alertCount;
+                }));
+            }
+            int alertCount = 0;
+            for (Future<Integer> future : futures) {
+                alertCount += future.get();
+            }
+            latency.record(nanos);
+            return alertCount;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Completion latencies of the tasks of the last run, reported next to the run time.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Latency {
+
+        public double p50Millis;
+        public double p99Millis;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            p50Millis = 0;
+            p99Millis = 0;
+        }
+
+        void record(long[] nanos) {
+            long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+            p50Millis = percentile(sorted, 50) / 1e6;
+            p99Millis = percentile(sorted, 99) / 1e6;
+        }
+
+        // Nearest rank, like ScanStatistics
+        private static long percentile(long[] sorted, int percentile) {
+            int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
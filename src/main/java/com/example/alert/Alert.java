@@ -13,6 +13,7 @@ public class Alert {
     private double macdSignalValue;
     private double bollingerValue;
     private String reasoning;
+    private boolean provisional; // Raised on a daily bar that was still forming
 
     // Constructor
     public Alert(String signalType, String stockSymbol, LocalDate date, double shortMAValue, double longMAValue,
@@ -60,9 +61,32 @@ public class Alert {
     public String getReasoning() { return reasoning; }
     public void setReasoning(String reasoning) { this.reasoning = reasoning; }
 
+    public boolean isProvisional() { return provisional; }
+    public void setProvisional(boolean provisional) { this.provisional = provisional; }
+
     @Override
     public String toString() {
-        return String.format("%s SIGNAL on %s for %s: Short MA = %.2f, Long MA = %.2f, RSI = %.2f, MACD = %.2f, Bollinger = %.2f. Reasoning: %s",
-                signalType, date, stockSymbol, shortMAValue, longMAValue, rsiValue, macdValue, bollingerValue, reasoning);
+        StringBuilder builder = new StringBuilder(172)
+                .append(provisional ? "PROVISIONAL " : "").append(signalType).append(" SIGNAL on ").append(date).append(" for ").append(stockSymbol);
+        appendValue(builder.append(": Short MA = "), shortMAValue);
+        appendValue(builder.append(", Long MA = "), longMAValue);
+        appendValue(builder.append(", RSI = "), rsiValue);
+        appendValue(builder.append(", MACD = "), macdValue);
+        appendValue(builder.append(", Bollinger = "), bollingerValue);
+        return builder.append(". Reasoning: ").append(reasoning).toString();
+    }
+
+    // Two decimals like %.2f, without parsing a format string on every call
+    private static void appendValue(StringBuilder builder, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= 1e15) {
+            builder.append(value);
+            return;
+        }
+        long hundredths = Math.round(Math.abs(value) * 100);
+        if (value < 0 && hundredths != 0) {
+            builder.append('-');
+        }
+        long fraction = hundredths % 100;
+        builder.append(hundredths / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction);
     }
 }
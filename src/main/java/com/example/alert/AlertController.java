@@ -0,0 +1,99 @@
+package com.example.alert;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * HTTP endpoints for feeding daily and minute bars in and getting alerts out. On a cluster coordinator, the
+ * bars are routed to the members that own their symbols.
+ */
+@RestController
+public class AlertController {
+
+    private final BarIngestionService barIngestionService;
+    private final IntradayAggregator intradayAggregator;
+    private final AlertFeed alertFeed;
+    private final ClusterCoordinator clusterCoordinator;
+
+    public AlertController(BarIngestionService barIngestionService, IntradayAggregator intradayAggregator,
+                           AlertFeed alertFeed, ObjectProvider<ClusterCoordinator> clusterCoordinator) {
+        this.barIngestionService = barIngestionService;
+        this.intradayAggregator = intradayAggregator;
+        this.alertFeed = alertFeed;
+        this.clusterCoordinator = clusterCoordinator.getIfAvailable();
+    }
+
+    /**
+     * Ingest bars of any number of symbols, one JSON object per line.
+     */
+    @PostMapping(path = "/bars", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public IngestResult ingestNdjson(Reader body) throws IOException {
+        return ingest(body, BarIngestionService.Format.NDJSON);
+    }
+
+    /**
+     * Ingest bars of any number of symbols as CSV lines of symbol,date,open,high,low,close,volume.
+     */
+    @PostMapping(path = "/bars", consumes = "text/csv")
+    public IngestResult ingestCsv(Reader body) throws IOException {
+        return ingest(body, BarIngestionService.Format.CSV);
+    }
+
+    private IngestResult ingest(Reader body, BarIngestionService.Format format) throws IOException {
+        return clusterCoordinator != null ? clusterCoordinator.route(body, format)
+                : barIngestionService.ingest(body, format);
+    }
+
+    /**
+     * Ingest minute bars of any number of symbols, one JSON object per line with the start of the minute as
+     * an ISO-8601 date-time with offset in the field {@code time}.
+     */
+    @PostMapping(path = "/minute-bars", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public IngestResult ingestMinuteNdjson(Reader body) throws IOException {
+        return ingestMinutes(body, BarIngestionService.Format.NDJSON);
+    }
+
+    /**
+     * Ingest minute bars of any number of symbols as CSV lines of symbol,time,open,high,low,close,volume.
+     */
+    @PostMapping(path = "/minute-bars", consumes = "text/csv")
+    public IngestResult ingestMinuteCsv(Reader body) throws IOException {
+        return ingestMinutes(body, BarIngestionService.Format.CSV);
+    }
+
+    private IngestResult ingestMinutes(Reader body, BarIngestionService.Format format) throws IOException {
+        return clusterCoordinator != null ? clusterCoordinator.route(body, format, "/minute-bars")
+                : intradayAggregator.ingest(body, format);
+    }
+
+    /**
+     * Recent alerts, newest first.
+     */
+    @GetMapping("/alerts")
+    public List<Alert> findAlerts(@RequestParam(required = false) String symbol,
+                                  @RequestParam(required = false) String type,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                  @RequestParam(defaultValue = "100") int limit) {
+        return alertFeed.find(symbol, type, from, to, limit);
+    }
+
+    /**
+     * Server-Sent Events stream of new alerts, optionally of a single symbol.
+     */
+    @GetMapping(path = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAlerts(@RequestParam(required = false) String symbol) {
+        return alertFeed.subscribe(symbol);
+    }
+}
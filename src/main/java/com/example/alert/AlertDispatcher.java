@@ -0,0 +1,273 @@
+package com.example.alert;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands the alerts of {@link StockAlertService} to every {@link AlertSink} bean and to the sinks subscribed at
+ * runtime, without blocking the caller.
+ * <p>
+ * Each sink has a bounded lock-free queue of {@code alert.sink.queue-capacity} alerts and a thread that writes
+ * them in batches of up to {@code alert.sink.batch-size}, or whatever arrived within
+ * {@code alert.sink.max-delay} of the first alert of a batch. When the queue of a slow sink is full, its new
+ * alerts are dropped and counted; the other sinks and the analysis go on unaffected. An idle sink thread parks
+ * until alerts arrive, and one with a partial batch until the batch is due.
+ */
+@Component
+public class AlertDispatcher implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertDispatcher.class);
+
+    private static final long STOP_TIMEOUT_MILLIS = 5_000;
+
+    /**
+     * Handle of a sink subscribed at runtime; closing it writes the queued alerts and stops the sink.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final MeterRegistry registry;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final List<SinkWorker> workers = new CopyOnWriteArrayList<>();
+
+    public AlertDispatcher(Map<String, AlertSink> sinks, MeterRegistry registry, AlertProperties properties) {
+        this.registry = registry;
+        AlertProperties.Sink sink = properties.getSink();
+        this.queueCapacity = sink.getQueueCapacity();
+        this.batchSize = sink.getBatchSize();
+        this.maxDelayNanos = sink.getMaxDelay().toNanos();
+        sinks.forEach(this::subscribe);
+    }
+
+    /**
+     * Start handing alerts to a sink.
+     *
+     * @param name Name of the sink in the logs and in the {@code sink} tag of the {@code alert.sink.*} meters.
+     */
+    public Subscription subscribe(String name, AlertSink sink) {
+        SinkWorker worker = new SinkWorker(name, sink);
+        workers.add(worker);
+        worker.thread.start();
+        return () -> {
+            workers.remove(worker);
+            worker.stop();
+        };
+    }
+
+    /**
+     * Queue alerts for every sink. Never blocks; alerts that do not fit in the queue of a sink are dropped for
+     * that sink.
+     */
+    public void publish(List<Alert> alerts) {
+        if (alerts.isEmpty()) {
+            return;
+        }
+        for (SinkWorker worker : workers) {
+            worker.offer(alerts);
+        }
+    }
+
+    /**
+     * Wait until the sinks wrote, or failed to write, every alert queued before the call.
+     *
+     * @return Whether they did within the timeout.
+     */
+    public boolean flush(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (SinkWorker worker : workers) {
+            long queued = worker.queued.get();
+            // Partial batches are written right away while someone waits
+            worker.flushers.incrementAndGet();
+            LockSupport.unpark(worker.thread);
+            worker.flushLock.lock();
+            try {
+                while (worker.done.get() < queued) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    worker.flushed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                worker.flushLock.unlock();
+                worker.flushers.decrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void destroy() {
+        for (SinkWorker worker : workers) {
+            worker.stop();
+        }
+        workers.clear();
+    }
+
+    private class SinkWorker implements Runnable {
+        private final String name;
+        private final AlertSink sink;
+        private final Thread thread;
+        private final ConcurrentLinkedQueue<Alert> queue = new ConcurrentLinkedQueue<>();
+        // The queue itself does not know its size in constant time
+        private final AtomicInteger size = new AtomicInteger();
+        private final AtomicLong queued = new AtomicLong();
+        private final AtomicLong done = new AtomicLong();
+        private final AtomicInteger flushers = new AtomicInteger();
+        private final ReentrantLock flushLock = new ReentrantLock();
+        private final Condition flushed = flushLock.newCondition();
+        private final Counter dropped;
+        private final Counter written;
+        private final Counter failed;
+        private final Timer batchTimer;
+        private final Gauge queueGauge;
+        private volatile boolean stopping;
+        private volatile boolean parked;
+
+        SinkWorker(String name, AlertSink sink) {
+            this.name = name;
+            this.sink = sink;
+            this.thread = new Thread(this, "alert-sink-" + name);
+            this.thread.setDaemon(true);
+            this.dropped = Counter.builder("alert.sink.dropped")
+                    .description("Alerts dropped because the queue of the sink was full")
+                    .tag("sink", name).register(registry);
+            this.written = Counter.builder("alert.sink.written")
+                    .description("Alerts written by the sink")
+                    .tag("sink", name).register(registry);
+            this.failed = Counter.builder("alert.sink.failed")
+                    .description("Alerts of batches the sink failed to write")
+                    .tag("sink", name).register(registry);
+            this.batchTimer = Timer.builder("alert.sink.batch")
+                    .description("Time the sink took to write a batch")
+                    .tag("sink", name).register(registry);
+            this.queueGauge = Gauge.builder("alert.sink.queue", size, AtomicInteger::get)
+                    .description("Alerts waiting for the sink")
+                    .tag("sink", name).register(registry);
+        }
+
+        void offer(List<Alert> alerts) {
+            for (Alert alert : alerts) {
+                if (size.incrementAndGet() > queueCapacity) {
+                    size.decrementAndGet();
+                    dropped.increment();
+                } else {
+                    queued.incrementAndGet();
+                    queue.offer(alert);
+                }
+            }
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        @Override
+        public void run() {
+            List<Alert> batch = new ArrayList<>();
+            long deadline = 0;
+            while (true) {
+                Alert alert = queue.poll();
+                if (alert != null) {
+                    size.decrementAndGet();
+                    if (batch.isEmpty()) {
+                        deadline = System.nanoTime() + maxDelayNanos;
+                    }
+                    batch.add(alert);
+                    if (batch.size() < batchSize) {
+                        continue;
+                    }
+                } else if (batch.isEmpty()) {
+                    if (stopping) {
+                        return;
+                    }
+                    park(0);
+                    continue;
+                } else if (!stopping && flushers.get() == 0 && deadline - System.nanoTime() > 0) {
+                    park(deadline - System.nanoTime());
+                    continue;
+                }
+                write(batch);
+                batch = new ArrayList<>();
+            }
+        }
+
+        // Parks until offer, flush or stop unparks the thread, or for at most the given time if it is positive.
+        // The queue is checked again after the flag is set, since an offer before that does not unpark.
+        private void park(long nanos) {
+            parked = true;
+            if (queue.isEmpty() && !stopping) {
+                if (nanos > 0) {
+                    LockSupport.parkNanos(this, nanos);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            parked = false;
+        }
+
+        private void write(List<Alert> batch) {
+            long start = System.nanoTime();
+            try {
+                sink.write(batch);
+                written.increment(batch.size());
+            } catch (Exception e) {
+                failed.increment(batch.size());
+                logger.warn("Alert sink {} failed to write {} alerts", name, batch.size(), e);
+            }
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            done.addAndGet(batch.size());
+            if (flushers.get() > 0) {
+                flushLock.lock();
+                try {
+                    flushed.signalAll();
+                } finally {
+                    flushLock.unlock();
+                }
+            }
+        }
+
+        void stop() {
+            stopping = true;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(STOP_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (thread.isAlive()) {
+                logger.warn("Alert sink {} did not finish within {} ms, {} alerts are lost", name,
+                        STOP_TIMEOUT_MILLIS, size.get());
+            }
+            for (Meter meter : List.of(dropped, written, failed, batchTimer, queueGauge)) {
+                registry.remove(meter);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Recent alerts for the query endpoint, and the Server-Sent Events streams new alerts are pushed to. Fed by
+ * the {@link AlertDispatcher} like any other sink.
+ */
+@Component
+public class AlertFeed implements AlertSink {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlertFeed.class);
+
+    private final int capacity;
+    private final long streamTimeoutMillis;
+
+    // Oldest first, at most capacity alerts
+    private final Deque<Alert> recent = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public AlertFeed(AlertProperties properties) {
+        this.capacity = properties.getFeed().getCapacity();
+        this.streamTimeoutMillis = properties.getFeed().getStreamTimeout().toMillis();
+    }
+
+    /**
+     * Record new alerts and push them to the open streams. Provisional alerts are only pushed, as they may
+     * not hold once their bar is final.
+     */
+    @Override
+    public void write(List<Alert> alerts) {
+        synchronized (recent) {
+            for (Alert alert : alerts) {
+                if (alert.isProvisional()) {
+                    continue;
+                }
+                if (recent.size() == capacity) {
+                    recent.removeFirst();
+                }
+                recent.addLast(alert);
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.send(alerts);
+        }
+    }
+
+    /**
+     * Find recent alerts, newest first.
+     *
+     * @param stockSymbol Only alerts of this symbol, or null for all symbols.
+     * @param signalType Only alerts of this type ("ENTRY" or "EXIT"), or null for both.
+     * @param from Only alerts on or after this date, or null.
+     * @param to Only alerts on or before this date, or null.
+     * @param limit Maximum number of alerts returned.
+     */
+    public List<Alert> find(String stockSymbol, String signalType, LocalDate from, LocalDate to, int limit) {
+        List<Alert> result = new ArrayList<>();
+        synchronized (recent) {
+            Iterator<Alert> iterator = recent.descendingIterator();
+            while (iterator.hasNext() && result.size() < limit) {
+                Alert alert = iterator.next();
+                if ((stockSymbol == null || stockSymbol.equals(alert.getStockSymbol()))
+                        && (signalType == null || signalType.equals(alert.getSignalType()))
+                        && (from == null || !alert.getDate().isBefore(from))
+                        && (to == null || !alert.getDate().isAfter(to))) {
+                    result.add(alert);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Open a stream of the alerts published from now on.
+     *
+     * @param stockSymbol Only alerts of this symbol, or null for all symbols.
+     */
+    public SseEmitter subscribe(String stockSymbol) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, stockSymbol);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final String stockSymbol;
+
+        Subscriber(SseEmitter emitter, String stockSymbol) {
+            this.emitter = emitter;
+            this.stockSymbol = stockSymbol;
+        }
+
+        void send(List<Alert> alerts) {
+            try {
+                for (Alert alert : alerts) {
+                    if (stockSymbol == null || stockSymbol.equals(alert.getStockSymbol())) {
+                        emitter.send(SseEmitter.event().name("alert").data(alert));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the emitter callbacks may not run for a connection that is already closed
+                logger.debug("Dropping alert stream", e);
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.alert;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Saves alerts to the alert history table, one JDBC batch per batch of alerts.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alert.sink.history", name = "enabled", matchIfMissing = true)
+public class AlertHistorySink implements AlertSink {
+
+    private final AlertRecordRepository alertRecordRepository;
+
+    public AlertHistorySink(AlertRecordRepository alertRecordRepository) {
+        this.alertRecordRepository = alertRecordRepository;
+    }
+
+    @Override
+    public void write(List<Alert> alerts) {
+        List<AlertRecord> records = new ArrayList<>(alerts.size());
+        for (Alert alert : alerts) {
+            records.add(new AlertRecord(alert));
+        }
+        alertRecordRepository.saveAll(records);
+    }
+}
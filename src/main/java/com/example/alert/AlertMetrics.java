@@ -0,0 +1,124 @@
+package com.example.alert;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the {@link StockAlertService} hot path.
+ * <p>
+ * All meters but the per-symbol timers are registered up front, so recording costs a clock read and an
+ * atomic update, without allocation or tag lookups per bar.
+ */
+@Component
+public class AlertMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer indicatorTimer;
+    private final Timer evaluationTimer;
+    private final Timer queryTimer;
+    private final Timer writeTimer;
+    private final Timer symbolTimer;
+    private final DistributionSummary repositoryCalls;
+    private final DistributionSummary pendingConditions;
+    private final Counter goldenCrosses;
+    private final Counter deathCrosses;
+    private final Counter entryAlerts;
+    private final Counter exitAlerts;
+
+    private final long slowSymbolThresholdNanos;
+    private final int maxSlowSymbols;
+    private final Map<String, Timer> slowSymbolTimers = new ConcurrentHashMap<>();
+
+    public AlertMetrics(MeterRegistry registry, AlertProperties properties) {
+        this.registry = registry;
+        this.indicatorTimer = Timer.builder("alert.indicators")
+                .description("Time to build or advance the indicators of a symbol")
+                .register(registry);
+        this.evaluationTimer = Timer.builder("alert.evaluation")
+                .description("Time to apply the cross and confirmation rules to one bar")
+                .register(registry);
+        this.queryTimer = Timer.builder("alert.repository.query")
+                .description("Time to load the pending conditions of a symbol")
+                .register(registry);
+        this.writeTimer = Timer.builder("alert.repository.write")
+                .description("Time to write the created and removed conditions of a symbol")
+                .register(registry);
+        this.symbolTimer = Timer.builder("alert.symbol")
+                .description("Time to analyze one symbol")
+                .register(registry);
+        this.repositoryCalls = DistributionSummary.builder("alert.repository.calls")
+                .description("Repository round trips per analyzed symbol")
+                .register(registry);
+        this.pendingConditions = DistributionSummary.builder("alert.pending.conditions")
+                .description("Conditions left pending per symbol after an analysis")
+                .register(registry);
+        this.goldenCrosses = Counter.builder("alert.crosses").tag("type", "GOLDEN_CROSS").register(registry);
+        this.deathCrosses = Counter.builder("alert.crosses").tag("type", "DEATH_CROSS").register(registry);
+        this.entryAlerts = Counter.builder("alert.alerts").tag("type", "ENTRY").register(registry);
+        this.exitAlerts = Counter.builder("alert.alerts").tag("type", "EXIT").register(registry);
+        this.slowSymbolThresholdNanos = properties.getMetrics().getSlowSymbolThreshold().toNanos();
+        this.maxSlowSymbols = properties.getMetrics().getMaxSlowSymbols();
+    }
+
+    public void recordIndicators(long nanos) {
+        indicatorTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the evaluation of one bar.
+     *
+     * @param crosses The crosses of the bar, as returned by {@link StockAlertService#evaluate}.
+     * @param alerts The alerts of the current call.
+     * @param firstNewAlert Index of the first alert the bar produced.
+     * @param nanos Time the evaluation took.
+     */
+    public void recordEvaluation(int crosses, List<Alert> alerts, int firstNewAlert, long nanos) {
+        evaluationTimer.record(nanos, TimeUnit.NANOSECONDS);
+        if ((crosses & UniverseSignals.GOLDEN_CROSS) != 0) {
+            goldenCrosses.increment();
+        }
+        if ((crosses & UniverseSignals.DEATH_CROSS) != 0) {
+            deathCrosses.increment();
+        }
+        for (int i = firstNewAlert; i < alerts.size(); i++) {
+            (alerts.get(i).getSignalType().equals("ENTRY") ? entryAlerts : exitAlerts).increment();
+        }
+    }
+
+    public void recordQuery(long nanos) {
+        queryTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordWrite(long nanos) {
+        writeTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a whole analysis of one symbol. Symbols slower than {@code alert.metrics.slow-symbol-threshold}
+     * get a timer of their own, tagged with the symbol, up to {@code alert.metrics.max-slow-symbols} of them.
+     */
+    public void recordSymbol(String stockSymbol, int repositoryCallCount, int pendingConditionCount, long nanos) {
+        symbolTimer.record(nanos, TimeUnit.NANOSECONDS);
+        repositoryCalls.record(repositoryCallCount);
+        pendingConditions.record(pendingConditionCount);
+
+        Timer slowSymbolTimer = slowSymbolTimers.get(stockSymbol);
+        if (slowSymbolTimer == null && nanos >= slowSymbolThresholdNanos && slowSymbolTimers.size() < maxSlowSymbols) {
+            slowSymbolTimer = slowSymbolTimers.computeIfAbsent(stockSymbol, symbol -> Timer.builder("alert.symbol.slow")
+                    .description("Time to analyze a symbol that was once slower than the threshold")
+                    .tag("symbol", symbol)
+                    .register(registry));
+        }
+        if (slowSymbolTimer != null) {
+            slowSymbolTimer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,652 @@
+package com.example.alert;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.ZoneId;
+
+/**
+ * Configuration of the alert service, bound from the {@code alert.*} properties.
+ */
+@ConfigurationProperties(prefix = "alert")
+public class AlertProperties {
+
+    private final StrategyConfig strategy = new StrategyConfig();
+    private final Engine engine = new Engine();
+    private final Scan scan = new Scan();
+    private final BarStore barStore = new BarStore();
+    private final Backtest backtest = new Backtest();
+    private final Ingest ingest = new Ingest();
+    private final Feed feed = new Feed();
+    private final Metrics metrics = new Metrics();
+    private final Checkpoint checkpoint = new Checkpoint();
+    private final Cache cache = new Cache();
+    private final Intraday intraday = new Intraday();
+    private final Sink sink = new Sink();
+    private final Cluster cluster = new Cluster();
+
+    public StrategyConfig getStrategy() {
+        return strategy;
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Scan getScan() {
+        return scan;
+    }
+
+    public BarStore getBarStore() {
+        return barStore;
+    }
+
+    public Backtest getBacktest() {
+        return backtest;
+    }
+
+    public Ingest getIngest() {
+        return ingest;
+    }
+
+    public Feed getFeed() {
+        return feed;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Checkpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Intraday getIntraday() {
+        return intraday;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public static class Engine {
+
+        /**
+         * How {@link StockAlertService#analyzeStock} computes indicator values.
+         */
+        public enum Mode {
+            /** Build the ta4j indicator graph over the whole series on every call. */
+            BATCH,
+            /** Carry running indicator state per symbol and only process bars not seen before. */
+            INCREMENTAL
+        }
+
+        /**
+         * Arithmetic used for indicator values and signal scoring.
+         */
+        public enum Numeric {
+            /** ta4j {@link org.ta4j.core.num.Num} values of the bar series, exact for DecimalNum series. */
+            DECIMAL,
+            /** Primitive double accumulators, without allocation per bar. */
+            PRIMITIVE
+        }
+
+        private Mode mode = Mode.BATCH;
+        private Numeric numeric = Numeric.DECIMAL;
+
+        public Mode getMode() {
+            return mode;
+        }
+
+        public void setMode(Mode mode) {
+            this.mode = mode;
+        }
+
+        public Numeric getNumeric() {
+            return numeric;
+        }
+
+        public void setNumeric(Numeric numeric) {
+            this.numeric = numeric;
+        }
+    }
+
+    public static class Scan {
+
+        /**
+         * Number of worker threads analyzing symbols in a universe scan.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Number of slowest symbols reported in the scan statistics.
+         */
+        private int slowestSymbols = 10;
+
+        /**
+         * Largest number of symbols whose bars {@link UniverseScanService#scanColumns} lays out and processes
+         * together; smaller blocks are used when there are fewer symbols than workers times this.
+         */
+        private int blockSize = 512;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getSlowestSymbols() {
+            return slowestSymbols;
+        }
+
+        public void setSlowestSymbols(int slowestSymbols) {
+            this.slowestSymbols = slowestSymbols;
+        }
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(int blockSize) {
+            this.blockSize = blockSize;
+        }
+    }
+
+    public static class BarStore {
+
+        /**
+         * Directory holding one memory-mapped file of daily bars per symbol.
+         */
+        private String directory = "data/bars";
+
+        /**
+         * Number of bars a new symbol file is preallocated for; files double when full.
+         */
+        private int initialCapacity = 8192;
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public int getInitialCapacity() {
+            return initialCapacity;
+        }
+
+        public void setInitialCapacity(int initialCapacity) {
+            this.initialCapacity = initialCapacity;
+        }
+    }
+
+    public static class Backtest {
+
+        /**
+         * Numbers of bars after an alert at which forward returns are measured.
+         */
+        private int[] horizons = {5, 20, 60};
+
+        public int[] getHorizons() {
+            return horizons;
+        }
+
+        public void setHorizons(int[] horizons) {
+            this.horizons = horizons;
+        }
+    }
+
+    public static class Ingest {
+
+        /**
+         * Number of worker threads processing ingested bars.
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Number of bars of one symbol processed as a unit, loading and writing pending conditions once.
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * Number of chunks queued or in progress before readers of request bodies wait for the workers.
+         */
+        private int maxPendingChunks = 64;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        public int getMaxPendingChunks() {
+            return maxPendingChunks;
+        }
+
+        public void setMaxPendingChunks(int maxPendingChunks) {
+            this.maxPendingChunks = maxPendingChunks;
+        }
+    }
+
+    public static class Feed {
+
+        /**
+         * Number of recent alerts kept for the query endpoint.
+         */
+        private int capacity = 10000;
+
+        /**
+         * How long an alert stream stays open before the client has to reconnect.
+         */
+        private Duration streamTimeout = Duration.ofMinutes(30);
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public Duration getStreamTimeout() {
+            return streamTimeout;
+        }
+
+        public void setStreamTimeout(Duration streamTimeout) {
+            this.streamTimeout = streamTimeout;
+        }
+    }
+
+    public static class Metrics {
+
+        /**
+         * Analysis time above which a symbol gets a timer tagged with its name.
+         */
+        private Duration slowSymbolThreshold = Duration.ofMillis(50);
+
+        /**
+         * Maximum number of symbols with a tagged timer, which bounds the number of meters.
+         */
+        private int maxSlowSymbols = 50;
+
+        public Duration getSlowSymbolThreshold() {
+            return slowSymbolThreshold;
+        }
+
+        public void setSlowSymbolThreshold(Duration slowSymbolThreshold) {
+            this.slowSymbolThreshold = slowSymbolThreshold;
+        }
+
+        public int getMaxSlowSymbols() {
+            return maxSlowSymbols;
+        }
+
+        public void setMaxSlowSymbols(int maxSlowSymbols) {
+            this.maxSlowSymbols = maxSlowSymbols;
+        }
+    }
+
+    public static class Checkpoint {
+
+        /**
+         * Whether indicator states and primary conditions are checkpointed and restored on startup.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The checkpoint file, replaced atomically on every checkpoint.
+         */
+        private String file = "data/checkpoint.bin";
+
+        /**
+         * Time between periodic checkpoints; a checkpoint is also written on shutdown.
+         */
+        private Duration interval = Duration.ofMinutes(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Maximum number of symbols whose bar series and indicators are kept between analyses.
+         */
+        private int maxSymbols = 500;
+
+        /**
+         * Time after its last analysis at which a symbol is dropped from the cache.
+         */
+        private Duration maxIdle = Duration.ofMinutes(30);
+
+        /**
+         * Estimated heap the cached series and indicator values may take; lowers max-symbols when the longest
+         * lookback of the strategy makes the entries large.
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(256);
+
+        public int getMaxSymbols() {
+            return maxSymbols;
+        }
+
+        public void setMaxSymbols(int maxSymbols) {
+            this.maxSymbols = maxSymbols;
+        }
+
+        public Duration getMaxIdle() {
+            return maxIdle;
+        }
+
+        public void setMaxIdle(Duration maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        public DataSize getMemoryBudget() {
+            return memoryBudget;
+        }
+
+        public void setMemoryBudget(DataSize memoryBudget) {
+            this.memoryBudget = memoryBudget;
+        }
+    }
+
+    public static class Intraday {
+
+        /**
+         * Time zone of the trading sessions, which decides the day a minute bar belongs to.
+         */
+        private ZoneId zone = ZoneId.of("America/New_York");
+
+        /**
+         * Whether minute bars are also rolled into hourly bars for the hourly listeners.
+         */
+        private boolean hourly = false;
+
+        /**
+         * Market time between provisional evaluations of the forming daily bar of a symbol; zero evaluates
+         * on every minute bar.
+         */
+        private Duration provisionalInterval = Duration.ofMinutes(15);
+
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        public void setZone(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        public boolean isHourly() {
+            return hourly;
+        }
+
+        public void setHourly(boolean hourly) {
+            this.hourly = hourly;
+        }
+
+        public Duration getProvisionalInterval() {
+            return provisionalInterval;
+        }
+
+        public void setProvisionalInterval(Duration provisionalInterval) {
+            this.provisionalInterval = provisionalInterval;
+        }
+    }
+
+    public static class Sink {
+
+        /**
+         * Alerts queued per sink; further alerts are dropped for a sink whose queue is full.
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * Maximum number of alerts a sink writes at once.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Longest time an alert waits for its batch to fill up.
+         */
+        private Duration maxDelay = Duration.ofSeconds(1);
+
+        private final History history = new History();
+        private final Ndjson ndjson = new Ndjson();
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public History getHistory() {
+            return history;
+        }
+
+        public Ndjson getNdjson() {
+            return ndjson;
+        }
+
+        public static class History {
+
+            /**
+             * Whether alerts are saved to the alert_history table.
+             */
+            private boolean enabled = true;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+        }
+
+        public static class Ndjson {
+
+            /**
+             * Whether alerts are appended to NDJSON files, one file per day.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Directory of the alert files.
+             */
+            private String directory = "data/alerts";
+
+            /**
+             * Size at which a new file of the same day is started.
+             */
+            private DataSize maxFileSize = DataSize.ofMegabytes(64);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getDirectory() {
+                return directory;
+            }
+
+            public void setDirectory(String directory) {
+                this.directory = directory;
+            }
+
+            public DataSize getMaxFileSize() {
+                return maxFileSize;
+            }
+
+            public void setMaxFileSize(DataSize maxFileSize) {
+                this.maxFileSize = maxFileSize;
+            }
+        }
+    }
+
+    public static class Cluster {
+
+        /**
+         * Part an instance plays in a cluster that partitions the symbols between instances.
+         */
+        public enum Role {
+            /** Not part of a cluster; processes every symbol itself. */
+            STANDALONE,
+            /** Routes ingested bars to the members and moves symbols when members join or leave. */
+            COORDINATOR,
+            /** Processes the bars of the symbols it owns and registers with the coordinator. */
+            MEMBER
+        }
+
+        private Role role = Role.STANDALONE;
+
+        /**
+         * Base URL of the coordinator, which members register with.
+         */
+        private String coordinatorUrl = "http://localhost:8080";
+
+        /**
+         * Base URL under which the coordinator and the other members reach this member.
+         */
+        private String advertisedUrl;
+
+        /**
+         * Points per member on the hash ring; must be the same on every instance.
+         */
+        private int virtualNodes = 256;
+
+        /**
+         * Number of lines the coordinator forwards to a member in one request.
+         */
+        private int forwardBatchSize = 5000;
+
+        /**
+         * Timeout of the requests between instances; a handover moves the state of many symbols at once.
+         */
+        private Duration requestTimeout = Duration.ofMinutes(5);
+
+        /**
+         * Time between registrations of a member, so that a restarted coordinator learns the members again.
+         */
+        private Duration registrationInterval = Duration.ofSeconds(30);
+
+        public Role getRole() {
+            return role;
+        }
+
+        public void setRole(Role role) {
+            this.role = role;
+        }
+
+        public String getCoordinatorUrl() {
+            return coordinatorUrl;
+        }
+
+        public void setCoordinatorUrl(String coordinatorUrl) {
+            this.coordinatorUrl = coordinatorUrl;
+        }
+
+        public String getAdvertisedUrl() {
+            return advertisedUrl;
+        }
+
+        public void setAdvertisedUrl(String advertisedUrl) {
+            this.advertisedUrl = advertisedUrl;
+        }
+
+        public int getVirtualNodes() {
+            return virtualNodes;
+        }
+
+        public void setVirtualNodes(int virtualNodes) {
+            this.virtualNodes = virtualNodes;
+        }
+
+        public int getForwardBatchSize() {
+            return forwardBatchSize;
+        }
+
+        public void setForwardBatchSize(int forwardBatchSize) {
+            this.forwardBatchSize = forwardBatchSize;
+        }
+
+        public Duration getRequestTimeout() {
+            return requestTimeout;
+        }
+
+        public void setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+        }
+
+        public Duration getRegistrationInterval() {
+            return registrationInterval;
+        }
+
+        public void setRegistrationInterval(Duration registrationInterval) {
+            this.registrationInterval = registrationInterval;
+        }
+    }
+}
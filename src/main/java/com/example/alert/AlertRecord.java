@@ -0,0 +1,79 @@
+package com.example.alert;
+
+import jakarta.persistence.*;
+import java.time.LocalDate;
+
+/**
+ * An alert as kept in the alert history, written by the {@link AlertHistorySink}.
+ */
+@Entity
+@Table(name = "alert_history",
+        indexes = @Index(name = "ix_alert_history_symbol_date", columnList = "stock_symbol, alert_date"))
+public class AlertRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "signal_type", nullable = false, length = 8)
+    private String signalType;
+
+    @Column(name = "stock_symbol", nullable = false, length = 32)
+    private String stockSymbol;
+
+    @Column(name = "alert_date", nullable = false)
+    private LocalDate alertDate;
+
+    private double shortMAValue;
+    private double longMAValue;
+    private double rsiValue;
+    private double macdValue;
+    private double macdSignalValue;
+    private double bollingerValue;
+    private String reasoning;
+
+    @Column(nullable = false)
+    private boolean provisional;
+
+    protected AlertRecord() {
+    }
+
+    public AlertRecord(Alert alert) {
+        this.signalType = alert.getSignalType();
+        this.stockSymbol = alert.getStockSymbol();
+        this.alertDate = alert.getDate();
+        this.shortMAValue = alert.getShortMAValue();
+        this.longMAValue = alert.getLongMAValue();
+        this.rsiValue = alert.getRsiValue();
+        this.macdValue = alert.getMacdValue();
+        this.macdSignalValue = alert.getMacdSignalValue();
+        this.bollingerValue = alert.getBollingerValue();
+        this.reasoning = alert.getReasoning();
+        this.provisional = alert.isProvisional();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+
+    public String getSignalType() { return signalType; }
+
+    public String getStockSymbol() { return stockSymbol; }
+
+    public LocalDate getAlertDate() { return alertDate; }
+
+    public double getShortMAValue() { return shortMAValue; }
+
+    public double getLongMAValue() { return longMAValue; }
+
+    public double getRsiValue() { return rsiValue; }
+
+    public double getMacdValue() { return macdValue; }
+
+    public double getMacdSignalValue() { return macdSignalValue; }
+
+    public double getBollingerValue() { return bollingerValue; }
+
+    public String getReasoning() { return reasoning; }
+
+    public boolean isProvisional() { return provisional; }
+}
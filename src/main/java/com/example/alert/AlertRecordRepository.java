@@ -0,0 +1,12 @@
+package com.example.alert;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AlertRecordRepository extends JpaRepository<AlertRecord, Long> {
+
+    List<AlertRecord> findByStockSymbolOrderByAlertDate(String stockSymbol);
+}
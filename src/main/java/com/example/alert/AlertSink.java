@@ -0,0 +1,18 @@
+package com.example.alert;
+
+import java.util.List;
+
+/**
+ * Destination of the alerts the {@link AlertDispatcher} hands out in batches.
+ * <p>
+ * Every sink is called from a thread of its own, one batch at a time, so it may block without holding up
+ * the analysis or the other sinks. A batch that throws is counted as failed and not retried.
+ */
+@FunctionalInterface
+public interface AlertSink {
+
+    /**
+     * Write a batch of alerts, oldest first. The list is not used by the dispatcher afterwards.
+     */
+    void write(List<Alert> alerts) throws Exception;
+}
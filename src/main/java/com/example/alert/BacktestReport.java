@@ -0,0 +1,41 @@
+package com.example.alert;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a universe backtest: per-symbol results, failed symbols and forward-return summaries.
+ */
+public class BacktestReport {
+
+    private final List<BacktestResult> results;
+    private final Map<String, String> failures;
+    private final List<ForwardReturnSummary> summaries;
+    private final Duration elapsed;
+
+    public BacktestReport(List<BacktestResult> results, Map<String, String> failures,
+                          List<ForwardReturnSummary> summaries, Duration elapsed) {
+        this.results = results;
+        this.failures = failures;
+        this.summaries = summaries;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Results ordered by stock symbol.
+     */
+    public List<BacktestResult> getResults() { return results; }
+
+    /**
+     * Error message per failed stock symbol, ordered by stock symbol.
+     */
+    public Map<String, String> getFailures() { return failures; }
+
+    /**
+     * Summaries per signal type and horizon.
+     */
+    public List<ForwardReturnSummary> getSummaries() { return summaries; }
+
+    public Duration getElapsed() { return elapsed; }
+}
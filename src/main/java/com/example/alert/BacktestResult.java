@@ -0,0 +1,28 @@
+package com.example.alert;
+
+import java.util.List;
+
+/**
+ * Every alert a symbol's history produces when replayed bar by bar.
+ */
+public class BacktestResult {
+
+    private final String stockSymbol;
+    private final int barCount;
+    private final List<BacktestSignal> signals;
+
+    public BacktestResult(String stockSymbol, int barCount, List<BacktestSignal> signals) {
+        this.stockSymbol = stockSymbol;
+        this.barCount = barCount;
+        this.signals = signals;
+    }
+
+    public String getStockSymbol() { return stockSymbol; }
+
+    public int getBarCount() { return barCount; }
+
+    /**
+     * Signals in bar order.
+     */
+    public List<BacktestSignal> getSignals() { return signals; }
+}
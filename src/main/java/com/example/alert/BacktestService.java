@@ -0,0 +1,158 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.ta4j.core.BarSeries;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Replays full histories through the cross and confirmation rules, one pass per symbol.
+ * <p>
+ * Unlike {@link StockAlertService#analyzeStock}, every bar is evaluated exactly once, like a live
+ * {@link StockAlertService#onBar} feed would, and pending conditions are kept in memory only, so a
+ * backtest never reads or writes the database. Indicators run on primitive doubles.
+ */
+@Service
+public class BacktestService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BacktestService.class);
+
+    private final ForkJoinPool pool;
+    private final StrategyConfig config;
+    private final int[] horizons;
+
+    public BacktestService(AlertProperties properties) {
+        this.pool = new ForkJoinPool(properties.getScan().getParallelism());
+        this.config = properties.getStrategy();
+        this.horizons = properties.getBacktest().getHorizons().clone();
+    }
+
+    /**
+     * Replay the stored history of a symbol.
+     */
+    public BacktestResult backtest(BarColumns barColumns, String stockSymbol) {
+        return replay(stockSymbol, barColumns.size(), barColumns::epochDay, barColumns::close);
+    }
+
+    /**
+     * Replay the history of a symbol held in a bar series.
+     */
+    public BacktestResult backtest(BarSeries barSeries, String stockSymbol) {
+        int barCount = barSeries.getBarCount();
+        long[] epochDays = new long[barCount];
+        double[] closes = new double[barCount];
+        for (int i = 0; i < barCount; i++) {
+            epochDays[i] = barSeries.getBar(barSeries.getBeginIndex() + i).getEndTime().toLocalDate().toEpochDay();
+            closes[i] = barSeries.getBar(barSeries.getBeginIndex() + i).getClosePrice().doubleValue();
+        }
+        return replay(stockSymbol, barCount, i -> epochDays[i], i -> closes[i]);
+    }
+
+    /**
+     * Replay the histories of a whole universe on all cores. A failing symbol is reported in the report
+     * and does not affect the other symbols.
+     *
+     * @param universe Stored histories keyed by stock symbol.
+     * @return The results ordered by stock symbol, the failed symbols and the forward-return summaries.
+     */
+    public BacktestReport backtestUniverse(Map<String, BarColumns> universe) {
+        long start = System.nanoTime();
+        List<String> symbols = universe.keySet().stream().sorted().toList();
+        List<Outcome> outcomes = pool.submit(() -> symbols.parallelStream()
+                .map(symbol -> run(symbol, universe.get(symbol)))
+                .toList()).join();
+
+        List<BacktestResult> results = new ArrayList<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (Outcome outcome : outcomes) {
+            if (outcome.error != null) {
+                failures.put(outcome.symbol, outcome.error);
+            } else {
+                results.add(outcome.result);
+            }
+        }
+
+        List<ForwardReturnSummary> summaries = new ArrayList<>();
+        for (String signalType : List.of("ENTRY", "EXIT")) {
+            for (int h = 0; h < horizons.length; h++) {
+                summaries.add(ForwardReturnSummary.of(signalType, horizons[h], h, results));
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("Backtest of {} symbols finished in {} ms", symbols.size(), elapsed.toMillis());
+        return new BacktestReport(results, failures, summaries, elapsed);
+    }
+
+    private Outcome run(String symbol, BarColumns barColumns) {
+        try {
+            return new Outcome(symbol, backtest(barColumns, symbol), null);
+        } catch (RuntimeException e) {
+            logger.warn("Backtest of {} failed", symbol, e);
+            return new Outcome(symbol, null, String.valueOf(e));
+        }
+    }
+
+    private BacktestResult replay(String stockSymbol, int barCount, IntToLongFunction epochDay,
+                                  IntToDoubleFunction close) {
+        PrimitiveSignalState state = new PrimitiveSignalState(config);
+        PendingConditions pending = new PendingConditions(stockSymbol, List.of());
+        List<Alert> alerts = new ArrayList<>();
+        List<BacktestSignal> signals = new ArrayList<>();
+
+        for (int i = 0; i < barCount; i++) {
+            long day = epochDay.applyAsLong(i);
+            state.step(day, close.applyAsDouble(i));
+            if (!pending.isEmpty()) {
+                pending.forgetUntil(LocalDate.ofEpochDay(day).minusDays(config.getTimeWindow()));
+            }
+            // Most bars neither cross nor have anything left to confirm
+            if (pending.isEmpty() && !state.isGoldenCross() && !state.isDeathCross()) {
+                continue;
+            }
+            StockAlertService.evaluate(state.snapshot(), stockSymbol, pending, config, alerts);
+            for (Alert alert : alerts) {
+                signals.add(new BacktestSignal(alert, i, forwardReturns(i, barCount, close)));
+            }
+            alerts.clear();
+        }
+        return new BacktestResult(stockSymbol, barCount, signals);
+    }
+
+    private double[] forwardReturns(int index, int barCount, IntToDoubleFunction close) {
+        double[] returns = new double[horizons.length];
+        double base = close.applyAsDouble(index);
+        for (int h = 0; h < horizons.length; h++) {
+            int target = index + horizons[h];
+            returns[h] = target < barCount ? close.applyAsDouble(target) / base - 1 : Double.NaN;
+        }
+        return returns;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private static class Outcome {
+        private final String symbol;
+        private final BacktestResult result;
+        private final String error;
+
+        Outcome(String symbol, BacktestResult result, String error) {
+            this.symbol = symbol;
+            this.result = result;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.alert;
+
+/**
+ * An alert produced during a backtest, with the returns that followed it.
+ */
+public class BacktestSignal {
+
+    private final Alert alert;
+    private final int barIndex;
+    private final double[] forwardReturns;
+
+    public BacktestSignal(Alert alert, int barIndex, double[] forwardReturns) {
+        this.alert = alert;
+        this.barIndex = barIndex;
+        this.forwardReturns = forwardReturns;
+    }
+
+    public Alert getAlert() { return alert; }
+
+    /**
+     * Index of the bar that confirmed the alert.
+     */
+    public int getBarIndex() { return barIndex; }
+
+    /**
+     * Close-to-close return after the given number of bars, or {@code NaN} when the history ends earlier.
+     *
+     * @param horizonIndex Index into the configured {@code alert.backtest.horizons}.
+     */
+    public double getForwardReturn(int horizonIndex) { return forwardReturns[horizonIndex]; }
+}
@@ -0,0 +1,130 @@
+package com.example.alert;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Read-only, primitive view of the daily bars of one symbol stored by {@link ColumnarBarStore}.
+ * <p>
+ * Values are read straight from the memory-mapped columns, so a view costs a few objects on the heap
+ * regardless of the length of the history. The view covers the bars that were stored when it was opened.
+ */
+public class BarColumns {
+
+    private final String stockSymbol;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int dayOffset;
+    private final int openOffset;
+    private final int highOffset;
+    private final int lowOffset;
+    private final int closeOffset;
+    private final int volumeOffset;
+
+    BarColumns(String stockSymbol, ByteBuffer buffer, int size, int capacity) {
+        this.stockSymbol = stockSymbol;
+        this.buffer = buffer;
+        this.size = size;
+        this.dayOffset = ColumnarBarStore.dayOffset();
+        this.openOffset = ColumnarBarStore.columnOffset(capacity, 0);
+        this.highOffset = ColumnarBarStore.columnOffset(capacity, 1);
+        this.lowOffset = ColumnarBarStore.columnOffset(capacity, 2);
+        this.closeOffset = ColumnarBarStore.columnOffset(capacity, 3);
+        this.volumeOffset = ColumnarBarStore.columnOffset(capacity, 4);
+    }
+
+    public String getStockSymbol() {
+        return stockSymbol;
+    }
+
+    /**
+     * Number of bars in the view.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Trading day of a bar, as days since 1970-01-01.
+     */
+    public long epochDay(int index) {
+        return buffer.getInt(dayOffset + checkIndex(index) * Integer.BYTES);
+    }
+
+    /**
+     * Index of the first bar of a later day than the given one, or {@link #size()} if there is none.
+     *
+     * @param epochDay A trading day, as days since 1970-01-01.
+     */
+    public int indexAfter(long epochDay) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochDay(middle) <= epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    public double open(int index) {
+        return buffer.getDouble(openOffset + checkIndex(index) * Double.BYTES);
+    }
+
+    public double high(int index) {
+        return buffer.getDouble(highOffset + checkIndex(index) * Double.BYTES);
+    }
+
+    public double low(int index) {
+        return buffer.getDouble(lowOffset + checkIndex(index) * Double.BYTES);
+    }
+
+    public double close(int index) {
+        return buffer.getDouble(closeOffset + checkIndex(index) * Double.BYTES);
+    }
+
+    public double volume(int index) {
+        return buffer.getDouble(volumeOffset + checkIndex(index) * Double.BYTES);
+    }
+
+    /**
+     * Writes the bars day by day, for a {@link StateCheckpoint}.
+     */
+    void writeTo(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt((int) epochDay(i));
+            out.writeDouble(open(i));
+            out.writeDouble(high(i));
+            out.writeDouble(low(i));
+            out.writeDouble(close(i));
+            out.writeDouble(volume(i));
+        }
+    }
+
+    /**
+     * Reads bars written by {@link #writeTo} into columns on the heap.
+     */
+    static BarColumns readFrom(String stockSymbol, ByteBuffer in) {
+        int size = in.getInt();
+        ByteBuffer buffer = ByteBuffer.allocate(ColumnarBarStore.columnOffset(size, ColumnarBarStore.DOUBLE_COLUMNS));
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(ColumnarBarStore.dayOffset() + i * Integer.BYTES, in.getInt());
+            for (int column = 0; column < ColumnarBarStore.DOUBLE_COLUMNS; column++) {
+                buffer.putDouble(ColumnarBarStore.columnOffset(size, column) + i * Double.BYTES, in.getDouble());
+            }
+        }
+        return new BarColumns(stockSymbol, buffer, size, size);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Bar " + index + " out of " + size + " for " + stockSymbol);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.alert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Feeds daily bars read from a request body through {@link StockAlertService#onBars}, which hands the alerts
+ * to the {@link AlertDispatcher}.
+ * <p>
+ * The body is read line by line. Bars are grouped per symbol into chunks that a bounded worker pool processes,
+ * the chunks of one symbol one after the other and in the order they were read, also across concurrent requests.
+ * When a chunk fails, the later chunks of its symbol in the same request are skipped, and resending the bars
+ * continues at the bar that failed. Once
+ * {@code alert.ingest.max-pending-chunks} chunks are waiting, reading stops until a worker finishes one, so a
+ * large burst is held back by the client connection instead of piling up on the heap. With virtual threads
+ * (see {@link WorkerThreads}) every chunk runs on a thread of its own, and that limit is the only one.
+ */
+@Service
+public class BarIngestionService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarIngestionService.class);
+
+    private static final int MAX_REJECTED_LINES = 100;
+
+    /**
+     * Line formats of a request body, both with one bar per line.
+     */
+    public enum Format {
+        /** JSON objects with the fields symbol, date, open, high, low, close and volume. */
+        NDJSON,
+        /** symbol,date,open,high,low,close,volume with an optional header line. */
+        CSV
+    }
+
+    private final StockAlertService stockAlertService;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final Semaphore pendingChunks;
+    private final int chunkSize;
+    private final int maxBufferedBars;
+
+    // Last chunk submitted per symbol by any request, which the next chunk of the symbol waits for
+    private final Map<String, CompletableFuture<Integer>> tails = new ConcurrentHashMap<>();
+
+    public BarIngestionService(StockAlertService stockAlertService, ObjectMapper objectMapper,
+                               AlertProperties properties, WorkerThreads workerThreads) {
+        this.stockAlertService = stockAlertService;
+        this.objectMapper = objectMapper;
+        AlertProperties.Ingest ingest = properties.getIngest();
+        this.chunkSize = ingest.getChunkSize();
+        this.pendingChunks = new Semaphore(ingest.getMaxPendingChunks());
+        this.maxBufferedBars = ingest.getChunkSize() * ingest.getMaxPendingChunks();
+        this.executor = workerThreads.newExecutor("alert-ingest-", ingest.getParallelism());
+    }
+
+    /**
+     * Process the bars of a request body and wait until all of them went through the rules.
+     *
+     * @param reader The request body, one bar per line.
+     * @param format The line format.
+     * @return The counts of bars and alerts, the rejected lines and the symbols that failed.
+     */
+    public IngestResult ingest(Reader reader, Format format) throws IOException {
+        long start = System.nanoTime();
+        Map<String, List<Bar>> buffers = new HashMap<>();
+        List<Chunk> chunks = new ArrayList<>();
+        Set<String> failedSymbols = ConcurrentHashMap.newKeySet();
+        List<String> rejectedLines = new ArrayList<>();
+        int rejectedCount = 0;
+        int barCount = 0;
+        int bufferedBars = 0;
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == Format.CSV && lineNumber == 1 && line.startsWith("symbol"))) {
+                continue;
+            }
+            ParsedBar parsed;
+            try {
+                parsed = format == Format.CSV ? parseCsv(line) : parseNdjson(line);
+            } catch (IllegalArgumentException e) {
+                if (rejectedCount++ < MAX_REJECTED_LINES) {
+                    rejectedLines.add(lineNumber + ": " + e.getMessage());
+                }
+                continue;
+            }
+            barCount++;
+
+            List<Bar> buffer = buffers.computeIfAbsent(parsed.symbol, symbol -> new ArrayList<>());
+            buffer.add(parsed.bar);
+            bufferedBars++;
+            if (buffer.size() == chunkSize) {
+                chunks.add(submit(parsed.symbol, buffer, failedSymbols));
+                buffers.put(parsed.symbol, new ArrayList<>());
+                bufferedBars -= chunkSize;
+            } else if (bufferedBars >= maxBufferedBars) {
+                // Many symbols with few bars each: hand over what has been read so far
+                submitAll(buffers, chunks, failedSymbols);
+                bufferedBars = 0;
+            }
+        }
+        submitAll(buffers, chunks, failedSymbols);
+
+        int alertCount = 0;
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (Chunk chunk : chunks) {
+            try {
+                alertCount += chunk.future.join();
+            } catch (CompletionException e) {
+                // The first failure of a symbol is the one that stopped its later chunks
+                failures.putIfAbsent(chunk.symbol, String.valueOf(e.getCause()));
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("Ingested {} bars of {} symbols in {} ms: {} alerts, {} rejected lines, {} failed symbols",
+                barCount, buffers.size(), elapsed.toMillis(), alertCount, rejectedCount, failures.size());
+        return new IngestResult(barCount, buffers.size(), alertCount, rejectedCount, rejectedLines, failures,
+                elapsed);
+    }
+
+    private void submitAll(Map<String, List<Bar>> buffers, List<Chunk> chunks, Set<String> failedSymbols)
+            throws InterruptedIOException {
+        for (Map.Entry<String, List<Bar>> entry : buffers.entrySet()) {
+            if (!entry.getValue().isEmpty()) {
+                chunks.add(submit(entry.getKey(), entry.getValue(), failedSymbols));
+                entry.setValue(new ArrayList<>());
+            }
+        }
+    }
+
+    // A chunk after a failed one of the same request would leave a gap in the bars of the symbol, while a chunk
+    // of another request may well start again at the bar that failed
+    private Chunk submit(String symbol, List<Bar> bars, Set<String> failedSymbols) throws InterruptedIOException {
+        try {
+            pendingChunks.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for ingest workers");
+        }
+        CompletableFuture<Integer> chunk = tails.compute(symbol, (key, tail) -> tail == null
+                ? CompletableFuture.supplyAsync(() -> process(symbol, bars, failedSymbols), executor)
+                : tail.handleAsync((alertCount, failure) -> process(symbol, bars, failedSymbols), executor));
+        chunk.whenComplete((alertCount, failure) -> {
+            tails.remove(symbol, chunk);
+            pendingChunks.release();
+        });
+        return new Chunk(symbol, chunk);
+    }
+
+    private int process(String symbol, List<Bar> bars, Set<String> failedSymbols) {
+        if (failedSymbols.contains(symbol)) {
+            throw new IllegalStateException("Skipped after an earlier chunk of " + symbol + " failed");
+        }
+        try {
+            return stockAlertService.onBars(symbol, bars).size();
+        } catch (RuntimeException e) {
+            failedSymbols.add(symbol);
+            logger.warn("Ingest of {} bars of {} failed", bars.size(), symbol, e);
+            throw e;
+        }
+    }
+
+    static ParsedBar parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("expected 7 fields but found " + fields.length);
+        }
+        try {
+            return new ParsedBar(fields[0].trim(), LocalDate.parse(fields[1].trim()),
+                    Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()),
+                    Double.parseDouble(fields[4].trim()), Double.parseDouble(fields[5].trim()),
+                    Double.parseDouble(fields[6].trim()));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    ParsedBar parseNdjson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed JSON", e);
+        }
+        try {
+            return new ParsedBar(field(node, "symbol").asText(), LocalDate.parse(field(node, "date").asText()),
+                    field(node, "open").asDouble(), field(node, "high").asDouble(), field(node, "low").asDouble(),
+                    field(node, "close").asDouble(), field(node, "volume").asDouble());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    private static JsonNode field(JsonNode node, String name) {
+        JsonNode field = node.get(name);
+        if (field == null || field.isNull()) {
+            throw new IllegalArgumentException("missing field " + name);
+        }
+        return field;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    static class ParsedBar {
+        final String symbol;
+        final Bar bar;
+
+        ParsedBar(String symbol, LocalDate date, double open, double high, double low, double close,
+                  double volume) {
+            if (symbol.isEmpty()) {
+                throw new IllegalArgumentException("missing symbol");
+            }
+            this.symbol = symbol;
+            this.bar = new BaseBar(Duration.ofDays(1), date.atStartOfDay(ZoneOffset.UTC), open, high, low, close,
+                    volume);
+        }
+    }
+
+    private static class Chunk {
+        private final String symbol;
+        private final CompletableFuture<Integer> future;
+
+        Chunk(String symbol, CompletableFuture<Integer> future) {
+            this.symbol = symbol;
+            this.future = future;
+        }
+    }
+}
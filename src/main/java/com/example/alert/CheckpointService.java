@@ -0,0 +1,120 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpoints the indicator states of the {@link SignalEngine} and the primary conditions periodically and on
+ * shutdown, and restores them on startup before the application takes requests.
+ * <p>
+ * After a restore, the bars the {@link ColumnarBarStore} received after the checkpoint are evaluated against
+ * the restored states and conditions, so that the crosses and confirmations of those bars are recorded again
+ * when the database did not outlive the restart; their alerts are not published again. States of the other
+ * {@code alert.engine.numeric} mode than the checkpoint was written with are not restored; those symbols are
+ * rebuilt from their stored bars when they are next analyzed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alert.checkpoint", name = "enabled")
+public class CheckpointService implements SmartInitializingSingleton, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckpointService.class);
+
+    private final SignalEngine signalEngine;
+    private final StockAlertService stockAlertService;
+    private final PrimaryConditionRepository primaryConditionRepository;
+    private final AlertProperties properties;
+    private final Path file;
+
+    public CheckpointService(SignalEngine signalEngine, StockAlertService stockAlertService,
+                             PrimaryConditionRepository primaryConditionRepository, AlertProperties properties) {
+        this.signalEngine = signalEngine;
+        this.stockAlertService = stockAlertService;
+        this.primaryConditionRepository = primaryConditionRepository;
+        this.properties = properties;
+        this.file = Path.of(properties.getCheckpoint().getFile());
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        restore();
+    }
+
+    /**
+     * Restore the last checkpoint, if there is one for the current strategy configuration.
+     *
+     * @return The number of restored symbols.
+     */
+    public int restore() {
+        long start = System.nanoTime();
+        StateCheckpoint checkpoint;
+        try {
+            checkpoint = StateCheckpoint.read(file, properties.getStrategy());
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot read checkpoint {}, starting cold", file, e);
+            return 0;
+        }
+        if (checkpoint == null) {
+            logger.info("No checkpoint for the current strategy in {}, starting cold", file);
+            return 0;
+        }
+
+        // Conditions that are still in the database, when it outlived the restart, are left as they are
+        primaryConditionRepository.insertMissing(checkpoint.getConditions());
+        List<String> symbols = new ArrayList<>();
+        checkpoint.getStates().forEach((stockSymbol, state) -> {
+            if (signalEngine.restore(stockSymbol, state)) {
+                symbols.add(stockSymbol);
+            }
+        });
+        if (symbols.size() < checkpoint.getStates().size()) {
+            logger.info("Skipped {} states of the other numeric mode, they are rebuilt from the stored bars",
+                    checkpoint.getStates().size() - symbols.size());
+        }
+        long restored = System.nanoTime();
+
+        // Evaluate the bars stored since the checkpoint, whose conditions the database may have lost
+        int replayedBars = 0;
+        for (String stockSymbol : symbols) {
+            replayedBars += stockAlertService.replayStored(stockSymbol);
+        }
+        logger.info("Restored {} symbols and {} conditions from the checkpoint of {} in {} ms, replaying {} bars "
+                        + "took {} ms", symbols.size(), checkpoint.getConditions().size(), checkpoint.getCreatedAt(),
+                (restored - start) / 1_000_000, replayedBars, (System.nanoTime() - restored) / 1_000_000);
+        return symbols.size();
+    }
+
+    /**
+     * Write a checkpoint of the current states and conditions.
+     */
+    @Scheduled(initialDelayString = "${alert.checkpoint.interval:PT5M}",
+            fixedDelayString = "${alert.checkpoint.interval:PT5M}")
+    public void checkpoint() {
+        long start = System.nanoTime();
+        Map<String, IndicatorState> states = signalEngine.states();
+        List<PrimaryCondition> conditions = primaryConditionRepository.findAll();
+        try {
+            StateCheckpoint.write(file, properties.getStrategy(), states, conditions);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write checkpoint " + file, e);
+        }
+        logger.info("Checkpointed {} symbols and {} conditions in {} ms", states.size(), conditions.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void destroy() {
+        checkpoint();
+    }
+}
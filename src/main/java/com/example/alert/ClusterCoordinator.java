@@ -0,0 +1,338 @@
+package com.example.alert;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Routes ingested bars to the cluster members that own their symbols, and moves symbols between members when
+ * one joins or leaves.
+ * <p>
+ * The coordinator only reads the symbol of each line and forwards the lines in batches of
+ * {@code alert.cluster.forward-batch-size} to the {@code POST /bars} endpoint of the owner, the batches of one
+ * member one after the other so that the bars of a symbol arrive in order. The members process their batches
+ * in parallel. Membership changes wait for the requests being routed, then ask the members to hand the state of
+ * the symbols that change owner to their new owner with {@link ClusterMember#handover}, and only then route by
+ * the new ring.
+ */
+@Service
+@ConditionalOnProperty(prefix = "alert.cluster", name = "role", havingValue = "coordinator")
+public class ClusterCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    private static final int MAX_REJECTED_LINES = 100;
+
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int forwardBatchSize;
+    private final Semaphore pendingForwards;
+
+    // Routing holds the read lock, so that membership changes wait for the requests in flight
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile ConsistentHashRing ring;
+
+    public ClusterCoordinator(ObjectMapper objectMapper, AlertProperties properties) {
+        this.objectMapper = objectMapper;
+        AlertProperties.Cluster cluster = properties.getCluster();
+        this.requestTimeout = cluster.getRequestTimeout();
+        this.forwardBatchSize = cluster.getForwardBatchSize();
+        this.pendingForwards = new Semaphore(properties.getIngest().getMaxPendingChunks());
+        this.ring = new ConsistentHashRing(List.of(), cluster.getVirtualNodes());
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    /**
+     * The current members, sorted by URL.
+     */
+    public List<String> getMembers() {
+        return ring.getMembers();
+    }
+
+    /**
+     * Add a member. The other members first hand over the symbols it takes over. Joining again is a no-op.
+     *
+     * @param member Base URL of the member.
+     * @return The members after the change.
+     */
+    public List<String> join(String member) {
+        lock.writeLock().lock();
+        try {
+            if (ring.getMembers().contains(member)) {
+                return ring.getMembers();
+            }
+            ConsistentHashRing changed = ring.with(member);
+            for (String current : ring.getMembers()) {
+                handover(current, changed);
+            }
+            ring = changed;
+            logger.info("{} joined, members are {}", member, changed.getMembers());
+            return changed.getMembers();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a member after it handed over all of its symbols. A member that cannot be reached is removed
+     * anyway, and the state of its symbols is lost.
+     *
+     * @param member Base URL of the member.
+     * @return The members after the change.
+     */
+    public List<String> leave(String member) {
+        lock.writeLock().lock();
+        try {
+            if (!ring.getMembers().contains(member)) {
+                return ring.getMembers();
+            }
+            ConsistentHashRing changed = ring.without(member);
+            handover(member, changed);
+            ring = changed;
+            logger.info("{} left, members are {}", member, changed.getMembers());
+            return changed.getMembers();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // A member that fails to hand over keeps its state, and the new owners start those symbols cold
+    private void handover(String member, ConsistentHashRing changed) {
+        try {
+            byte[] members = objectMapper.writeValueAsBytes(changed.getMembers());
+            HttpRequest request = HttpRequest.newBuilder(URI.create(member + "/cluster/handover?virtualNodes="
+                            + changed.getVirtualNodes()))
+                    .timeout(requestTimeout)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(members))
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("status " + response.statusCode() + ": " + response.body());
+            }
+            logger.info("{} handed over {} symbols", member, response.body());
+        } catch (IOException e) {
+            logger.warn("{} could not hand over its symbols", member, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while {} was handing over its symbols", member);
+        }
+    }
+
+    /**
+     * Forward the bars of a request body to the members that own their symbols and wait for their results.
+     *
+     * @param reader The request body, one bar per line.
+     * @param format The line format.
+     * @return The results of the members added up. Lines rejected by a member and members that failed are
+     * reported with the member URL in front.
+     */
+    public IngestResult route(Reader reader, BarIngestionService.Format format) throws IOException {
+        return route(reader, format, "/bars");
+    }
+
+    /**
+     * Forward the bars of a request body to an ingest endpoint of the members that own their symbols, like
+     * {@link #route(Reader, BarIngestionService.Format)}.
+     *
+     * @param path The endpoint of the members, {@code /bars} or {@code /minute-bars}.
+     */
+    public IngestResult route(Reader reader, BarIngestionService.Format format, String path) throws IOException {
+        long start = System.nanoTime();
+        lock.readLock().lock();
+        try {
+            ConsistentHashRing ring = this.ring;
+            if (ring.getMembers().isEmpty()) {
+                throw new IllegalStateException("No cluster member has joined yet");
+            }
+            Map<String, StringBuilder> buffers = new HashMap<>();
+            Map<String, Integer> bufferedLines = new HashMap<>();
+            Map<String, CompletableFuture<IngestResult>> tails = new HashMap<>();
+            List<Forward> forwards = new ArrayList<>();
+            Set<String> symbols = new HashSet<>();
+            List<String> rejectedLines = new ArrayList<>();
+            int rejectedCount = 0;
+
+            BufferedReader lines = new BufferedReader(reader);
+            String line;
+            int lineNumber = 0;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (format == BarIngestionService.Format.CSV && lineNumber == 1
+                        && line.startsWith("symbol"))) {
+                    continue;
+                }
+                String symbol;
+                try {
+                    symbol = format == BarIngestionService.Format.CSV ? csvSymbol(line) : ndjsonSymbol(line);
+                } catch (IllegalArgumentException e) {
+                    if (rejectedCount++ < MAX_REJECTED_LINES) {
+                        rejectedLines.add(lineNumber + ": " + e.getMessage());
+                    }
+                    continue;
+                }
+                symbols.add(symbol);
+                String member = ring.ownerOf(symbol);
+                buffers.computeIfAbsent(member, key -> new StringBuilder()).append(line).append('\n');
+                if (bufferedLines.merge(member, 1, Integer::sum) == forwardBatchSize) {
+                    forwards.add(forward(member, path, buffers.remove(member), format, tails));
+                    bufferedLines.remove(member);
+                }
+            }
+            for (Map.Entry<String, StringBuilder> entry : buffers.entrySet()) {
+                forwards.add(forward(entry.getKey(), path, entry.getValue(), format, tails));
+            }
+
+            int barCount = 0;
+            int alertCount = 0;
+            Map<String, String> failures = new LinkedHashMap<>();
+            for (Forward forward : forwards) {
+                IngestResult result;
+                try {
+                    result = forward.result.join();
+                } catch (CompletionException e) {
+                    failures.putIfAbsent(forward.member, String.valueOf(e.getCause()));
+                    continue;
+                }
+                barCount += result.getBarCount();
+                alertCount += result.getAlertCount();
+                rejectedCount += result.getRejectedCount();
+                for (String rejectedLine : result.getRejectedLines()) {
+                    if (rejectedLines.size() < MAX_REJECTED_LINES) {
+                        rejectedLines.add(forward.member + " " + rejectedLine);
+                    }
+                }
+                result.getFailures().forEach((symbol, failure) -> failures.putIfAbsent(symbol,
+                        forward.member + " " + failure));
+            }
+
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            logger.info("Routed {} bars of {} symbols to {} members in {} ms: {} alerts, {} rejected lines, "
+                            + "{} failures", barCount, symbols.size(), ring.getMembers().size(), elapsed.toMillis(),
+                    alertCount, rejectedCount, failures.size());
+            return new IngestResult(barCount, symbols.size(), alertCount, rejectedCount, rejectedLines, failures,
+                    elapsed);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Forward forward(String member, String path, StringBuilder lines, BarIngestionService.Format format,
+                            Map<String, CompletableFuture<IngestResult>> tails) throws InterruptedIOException {
+        try {
+            pendingForwards.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for cluster members");
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create(member + path))
+                .timeout(requestTimeout)
+                .header("Content-Type", format == BarIngestionService.Format.CSV ? "text/csv"
+                        : "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(lines.toString()))
+                .build();
+        CompletableFuture<IngestResult> tail = tails.get(member);
+        CompletableFuture<IngestResult> result = (tail != null ? tail
+                : CompletableFuture.<IngestResult>completedFuture(null))
+                .handle((previous, failure) -> null)
+                .thenCompose(ignored -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()))
+                .thenApply(response -> parseResult(member, response));
+        result.whenComplete((ingestResult, failure) -> pendingForwards.release());
+        tails.put(member, result);
+        return new Forward(member, result);
+    }
+
+    private IngestResult parseResult(String member, HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(member + " answered with status " + response.statusCode());
+        }
+        try {
+            JsonNode node = objectMapper.readTree(response.body());
+            List<String> rejectedLines = new ArrayList<>();
+            node.path("rejectedLines").forEach(rejectedLine -> rejectedLines.add(rejectedLine.asText()));
+            Map<String, String> failures = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonNode> failure : node.path("failures").properties()) {
+                failures.put(failure.getKey(), failure.getValue().asText());
+            }
+            return new IngestResult(node.path("barCount").asInt(), node.path("symbolCount").asInt(),
+                    node.path("alertCount").asInt(), node.path("rejectedCount").asInt(), rejectedLines, failures,
+                    Duration.ZERO);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    static String csvSymbol(String line) {
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("expected 7 fields but found 1");
+        }
+        String symbol = line.substring(0, comma).trim();
+        if (symbol.isEmpty()) {
+            throw new IllegalArgumentException("missing symbol");
+        }
+        return symbol;
+    }
+
+    // Streams over the fields until the symbol instead of building the whole tree
+    String ndjsonSymbol(String line) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("malformed JSON");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                parser.nextToken();
+                if ("symbol".equals(name)) {
+                    String symbol = parser.getValueAsString();
+                    if (symbol == null || symbol.isEmpty()) {
+                        throw new IllegalArgumentException("missing symbol");
+                    }
+                    return symbol;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed JSON", e);
+        }
+        throw new IllegalArgumentException("missing field symbol");
+    }
+
+    private static class Forward {
+        final String member;
+        final CompletableFuture<IngestResult> result;
+
+        Forward(String member, CompletableFuture<IngestResult> result) {
+            this.member = member;
+            this.result = result;
+        }
+    }
+}
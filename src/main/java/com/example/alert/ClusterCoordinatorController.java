@@ -0,0 +1,39 @@
+package com.example.alert;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * HTTP endpoints through which cluster members join and leave the {@link ClusterCoordinator}.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "alert.cluster", name = "role", havingValue = "coordinator")
+public class ClusterCoordinatorController {
+
+    private final ClusterCoordinator clusterCoordinator;
+
+    public ClusterCoordinatorController(ClusterCoordinator clusterCoordinator) {
+        this.clusterCoordinator = clusterCoordinator;
+    }
+
+    @GetMapping("/cluster/members")
+    public List<String> getMembers() {
+        return clusterCoordinator.getMembers();
+    }
+
+    @PostMapping("/cluster/members")
+    public List<String> join(@RequestParam String url) {
+        return clusterCoordinator.join(url);
+    }
+
+    @DeleteMapping("/cluster/members")
+    public List<String> leave(@RequestParam String url) {
+        return clusterCoordinator.leave(url);
+    }
+}
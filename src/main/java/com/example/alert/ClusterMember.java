@@ -0,0 +1,249 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Makes this instance a member of a cluster that partitions the symbols between instances by
+ * {@link ConsistentHashRing}. The member keeps the indicator states, primary conditions and stored bars of the
+ * symbols it owns, and gets their bars from the {@link ClusterCoordinator}.
+ * <p>
+ * It registers with the coordinator once the web server is up, and again every
+ * {@code alert.cluster.registration-interval} in case the coordinator restarted, and deregisters on shutdown
+ * before the web server stops. On every membership change the coordinator calls {@link #handover}, which sends
+ * the symbols this member no longer owns to their new owners in the {@link StateCheckpoint} format, with their
+ * indicator states and stored bars. All members must run with the same {@code alert.engine.numeric}; a member
+ * that gets states of the other mode rebuilds them from the handed over bars.
+ */
+@Service
+@ConditionalOnProperty(prefix = "alert.cluster", name = "role", havingValue = "member")
+public class ClusterMember implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterMember.class);
+
+    private final SignalEngine signalEngine;
+    private final PrimaryConditionRepository primaryConditionRepository;
+    private final ColumnarBarStore columnarBarStore;
+    private final AlertProperties properties;
+    private final String coordinatorUrl;
+    private final String advertisedUrl;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+    // Serializes handovers, which wait for other members, without pinning a virtual request thread
+    private final ReentrantLock handoverLock = new ReentrantLock();
+    private volatile boolean running;
+
+    public ClusterMember(SignalEngine signalEngine, PrimaryConditionRepository primaryConditionRepository,
+                         ColumnarBarStore columnarBarStore, AlertProperties properties) {
+        this.signalEngine = signalEngine;
+        this.primaryConditionRepository = primaryConditionRepository;
+        this.columnarBarStore = columnarBarStore;
+        this.properties = properties;
+        AlertProperties.Cluster cluster = properties.getCluster();
+        if (cluster.getAdvertisedUrl() == null) {
+            throw new IllegalStateException("alert.cluster.advertised-url must be set on cluster members");
+        }
+        this.coordinatorUrl = cluster.getCoordinatorUrl();
+        this.advertisedUrl = cluster.getAdvertisedUrl();
+        this.requestTimeout = cluster.getRequestTimeout();
+        this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    public String getAdvertisedUrl() {
+        return advertisedUrl;
+    }
+
+    /**
+     * Send the state of the symbols this member does not own on the given ring to their owners, and drop it
+     * here once the owner accepted it.
+     *
+     * @param members The members after the change.
+     * @param virtualNodes The points per member of the ring.
+     * @return The number of symbols handed over.
+     */
+    public int handover(List<String> members, int virtualNodes) {
+        handoverLock.lock();
+        try {
+            ConsistentHashRing ring = new ConsistentHashRing(members, virtualNodes);
+            Set<String> symbols = signalEngine.symbols();
+            symbols.addAll(primaryConditionRepository.findSymbols());
+            symbols.addAll(columnarBarStore.openAll().keySet());
+            Map<String, List<String>> moving = new HashMap<>();
+            for (String symbol : symbols) {
+                String owner = ring.ownerOf(symbol);
+                if (owner != null && !owner.equals(advertisedUrl)) {
+                    moving.computeIfAbsent(owner, key -> new ArrayList<>()).add(symbol);
+                }
+            }
+
+            int handedOver = 0;
+            Map<String, IndicatorState> states = signalEngine.states();
+            for (Map.Entry<String, List<String>> entry : moving.entrySet()) {
+                String owner = entry.getKey();
+                List<String> ownerSymbols = entry.getValue();
+                Map<String, IndicatorState> ownerStates = new HashMap<>();
+                Map<String, BarColumns> ownerBars = new HashMap<>();
+                for (String symbol : ownerSymbols) {
+                    IndicatorState state = states.get(symbol);
+                    if (state != null) {
+                        ownerStates.put(symbol, state);
+                    }
+                    BarColumns barColumns = columnarBarStore.open(symbol);
+                    if (barColumns != null) {
+                        ownerBars.put(symbol, barColumns);
+                    }
+                }
+                List<PrimaryCondition> conditions = primaryConditionRepository.findByStockSymbolIn(ownerSymbols);
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    StateCheckpoint.write(out, properties.getStrategy(), ownerStates, conditions, ownerBars);
+                    send(owner + "/cluster/state", "application/octet-stream", out.toByteArray());
+                } catch (IOException e) {
+                    logger.warn("Cannot hand over {} symbols to {}, they stay here", ownerSymbols.size(), owner, e);
+                    continue;
+                }
+                primaryConditionRepository.deleteByStockSymbolIn(ownerSymbols);
+                ownerSymbols.forEach(signalEngine::reset);
+                ownerBars.keySet().forEach(columnarBarStore::delete);
+                handedOver += ownerSymbols.size();
+                logger.info("Handed over {} symbols with {} states, {} conditions and the bars of {} to {}",
+                        ownerSymbols.size(), ownerStates.size(), conditions.size(), ownerBars.size(), owner);
+            }
+            return handedOver;
+        } finally {
+            handoverLock.unlock();
+        }
+    }
+
+    /**
+     * Take over the symbols another member handed over.
+     *
+     * @param checkpoint The symbols in the {@link StateCheckpoint} format.
+     * @return The number of restored indicator states.
+     */
+    public int accept(byte[] checkpoint) throws IOException {
+        handoverLock.lock();
+        try {
+            StateCheckpoint state = StateCheckpoint.read(ByteBuffer.wrap(checkpoint), properties.getStrategy());
+            if (state == null) {
+                throw new IllegalStateException("The handed over symbols use another strategy configuration");
+            }
+            int inserted = primaryConditionRepository.insertMissing(state.getConditions());
+            int appended = 0;
+            for (Map.Entry<String, BarColumns> entry : state.getBars().entrySet()) {
+                appended += columnarBarStore.appendAfterLast(entry.getKey(), entry.getValue());
+            }
+            int restored = 0;
+            for (Map.Entry<String, IndicatorState> entry : state.getStates().entrySet()) {
+                if (signalEngine.restore(entry.getKey(), entry.getValue())) {
+                    restored++;
+                }
+            }
+            if (restored < state.getStates().size()) {
+                logger.warn("Skipped {} states of the other numeric mode, they are rebuilt from the stored bars",
+                        state.getStates().size() - restored);
+            }
+            logger.info("Took over {} states, {} conditions and {} bars", restored, inserted, appended);
+            return restored;
+        } finally {
+            handoverLock.unlock();
+        }
+    }
+
+    /**
+     * Register with the coordinator. Registering again is harmless.
+     */
+    @Scheduled(initialDelayString = "${alert.cluster.registration-interval:PT30S}",
+            fixedDelayString = "${alert.cluster.registration-interval:PT30S}")
+    public void register() {
+        if (!running) {
+            return;
+        }
+        try {
+            send(membersUrl(), "application/json", new byte[0]);
+        } catch (IOException e) {
+            logger.warn("Cannot register with coordinator {}: {}", coordinatorUrl, e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        register();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(membersUrl())).timeout(requestTimeout)
+                    .DELETE().build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IOException("status " + response.statusCode() + ": " + response.body());
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot deregister from coordinator {}, the state of this member is lost", coordinatorUrl,
+                    e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts after the web server, which has to serve the handovers to this member while it joins, and stops
+     * before it, for the handover from this member while it leaves.
+     */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    private String membersUrl() {
+        return coordinatorUrl + "/cluster/members?url=" + URLEncoder.encode(advertisedUrl, StandardCharsets.UTF_8);
+    }
+
+    private void send(String url, String contentType, byte[] body) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while calling " + url, e);
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException(url + " answered with status " + response.statusCode() + ": " + response.body());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.alert;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * HTTP endpoints through which the coordinator and the other members move symbols to and from this
+ * {@link ClusterMember}.
+ */
+@RestController
+@ConditionalOnProperty(prefix = "alert.cluster", name = "role", havingValue = "member")
+public class ClusterMemberController {
+
+    private final ClusterMember clusterMember;
+
+    public ClusterMemberController(ClusterMember clusterMember) {
+        this.clusterMember = clusterMember;
+    }
+
+    /**
+     * Hand over the symbols this member does not own with the given members.
+     *
+     * @return The number of symbols handed over.
+     */
+    @PostMapping(path = "/cluster/handover", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public int handover(@RequestBody List<String> members, @RequestParam int virtualNodes) {
+        return clusterMember.handover(members, virtualNodes);
+    }
+
+    /**
+     * Take over symbols handed over by another member.
+     */
+    @PostMapping(path = "/cluster/state", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public int accept(@RequestBody byte[] checkpoint) throws IOException {
+        return clusterMember.accept(checkpoint);
+    }
+}
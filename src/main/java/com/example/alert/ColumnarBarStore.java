@@ -0,0 +1,274 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.ta4j.core.Bar;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only, memory-mapped store of daily bars, one file per symbol.
+ * <p>
+ * Each file starts with a 16 byte header (magic, version, capacity, bar count) followed by one column per
+ * field: the trading day as an {@code int} epoch day, then open, high, low, close and volume as
+ * {@code double}. Every column is preallocated for {@code capacity} bars; when a symbol outgrows it, the
+ * file is rewritten with twice the capacity. The bar count is written after the bar itself, so views opened
+ * concurrently never see a partial bar. Files are only mapped, not kept open, so the number of symbols is not
+ * limited by the open file limit.
+ */
+@Component
+public class ColumnarBarStore implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarBarStore.class);
+
+    private static final String EXTENSION = ".bars";
+    private static final int MAGIC = 0x42415253; // "BARS"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int COUNT_OFFSET = 12;
+    static final int DOUBLE_COLUMNS = 5;
+
+    private final Path directory;
+    private final int initialCapacity;
+    private final Map<String, SymbolFile> files = new ConcurrentHashMap<>();
+
+    public ColumnarBarStore(AlertProperties properties) {
+        this.directory = Path.of(properties.getBarStore().getDirectory());
+        // Keep the capacity even so that the double columns stay 8 byte aligned
+        this.initialCapacity = Math.max(2, properties.getBarStore().getInitialCapacity() + 1) & ~1;
+    }
+
+    static int dayOffset() {
+        return HEADER_BYTES;
+    }
+
+    static int columnOffset(int capacity, int column) {
+        return HEADER_BYTES + capacity * Integer.BYTES + column * capacity * Double.BYTES;
+    }
+
+    private static long fileSize(int capacity) {
+        return columnOffset(capacity, DOUBLE_COLUMNS);
+    }
+
+    /**
+     * Append a daily bar to a symbol. Bars must be appended in strictly increasing day order.
+     */
+    public void append(String stockSymbol, long epochDay, double open, double high, double low, double close,
+                       double volume) {
+        files.computeIfAbsent(stockSymbol, this::openForWrite).append(epochDay, open, high, low, close, volume);
+    }
+
+    public void append(String stockSymbol, Bar bar) {
+        append(stockSymbol, bar.getEndTime().toLocalDate().toEpochDay(), bar.getOpenPrice().doubleValue(),
+                bar.getHighPrice().doubleValue(), bar.getLowPrice().doubleValue(), bar.getClosePrice().doubleValue(),
+                bar.getVolume().doubleValue());
+    }
+
+    /**
+     * Append the bars of later days than the last stored bar of a symbol, as when taking over a symbol from
+     * another instance.
+     *
+     * @return The number of appended bars.
+     */
+    public int appendAfterLast(String stockSymbol, BarColumns bars) {
+        BarColumns stored = open(stockSymbol);
+        int from = stored == null || stored.size() == 0 ? 0 : bars.indexAfter(stored.epochDay(stored.size() - 1));
+        for (int i = from; i < bars.size(); i++) {
+            append(stockSymbol, bars.epochDay(i), bars.open(i), bars.high(i), bars.low(i), bars.close(i),
+                    bars.volume(i));
+        }
+        return bars.size() - from;
+    }
+
+    /**
+     * Delete the bars of a symbol. Views opened before keep their mapping.
+     */
+    public void delete(String stockSymbol) {
+        Path path = pathOf(stockSymbol);
+        files.remove(stockSymbol);
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete bars of " + stockSymbol, e);
+        }
+    }
+
+    /**
+     * Open a read-only view of the bars currently stored for a symbol.
+     *
+     * @return The view, or {@code null} if nothing is stored for the symbol.
+     */
+    public BarColumns open(String stockSymbol) {
+        SymbolFile file = files.get(stockSymbol);
+        if (file != null) {
+            return file.view();
+        }
+        Path path = pathOf(stockSymbol);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            checkHeader(buffer, path);
+            return new BarColumns(stockSymbol, buffer, buffer.getInt(COUNT_OFFSET), buffer.getInt(CAPACITY_OFFSET));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open bars of " + stockSymbol, e);
+        }
+    }
+
+    /**
+     * Open read-only views of every stored symbol, ordered by symbol. Mapping a file does not read it, so
+     * this is cheap even for a large universe.
+     */
+    public Map<String, BarColumns> openAll() {
+        Map<String, BarColumns> universe = new TreeMap<>();
+        if (!Files.isDirectory(directory)) {
+            return universe;
+        }
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path path : paths) {
+                String fileName = path.getFileName().toString();
+                String stockSymbol = fileName.substring(0, fileName.length() - EXTENSION.length());
+                universe.put(stockSymbol, open(stockSymbol));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list bar store " + directory, e);
+        }
+        return universe;
+    }
+
+    @Override
+    public void destroy() {
+        files.values().forEach(SymbolFile::force);
+        files.clear();
+    }
+
+    private Path pathOf(String stockSymbol) {
+        if (stockSymbol.isEmpty() || stockSymbol.indexOf('/') >= 0 || stockSymbol.indexOf('\\') >= 0
+                || stockSymbol.startsWith(".")) {
+            throw new IllegalArgumentException("Invalid stock symbol: " + stockSymbol);
+        }
+        return directory.resolve(stockSymbol + EXTENSION);
+    }
+
+    private SymbolFile openForWrite(String stockSymbol) {
+        Path path = pathOf(stockSymbol);
+        try {
+            Files.createDirectories(directory);
+            if (!Files.exists(path)) {
+                create(path, initialCapacity, null, 0);
+            }
+            return new SymbolFile(stockSymbol, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open bars of " + stockSymbol + " for writing", e);
+        }
+    }
+
+    // Write a new file with the given capacity, copying the first count bars of the source columns
+    private static void create(Path path, int capacity, MappedByteBuffer source, int count) throws IOException {
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(CAPACITY_OFFSET, capacity);
+            buffer.putInt(COUNT_OFFSET, count);
+            if (source != null) {
+                int sourceCapacity = source.getInt(CAPACITY_OFFSET);
+                buffer.put(dayOffset(), source, dayOffset(), count * Integer.BYTES);
+                for (int column = 0; column < DOUBLE_COLUMNS; column++) {
+                    buffer.put(columnOffset(capacity, column), source, columnOffset(sourceCapacity, column),
+                            count * Double.BYTES);
+                }
+            }
+            buffer.force();
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void checkHeader(MappedByteBuffer buffer, Path path) {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not a bar store file: " + path);
+        }
+    }
+
+    /**
+     * Writable mapping of one symbol's file.
+     */
+    private static class SymbolFile {
+        private final String stockSymbol;
+        private final Path path;
+        private MappedByteBuffer buffer;
+        private int capacity;
+        private int count;
+
+        SymbolFile(String stockSymbol, Path path) throws IOException {
+            this.stockSymbol = stockSymbol;
+            this.path = path;
+            map();
+        }
+
+        // The mapping stays valid after the channel is closed, so no file descriptor is held per symbol
+        private void map() throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            checkHeader(buffer, path);
+            capacity = buffer.getInt(CAPACITY_OFFSET);
+            count = buffer.getInt(COUNT_OFFSET);
+        }
+
+        synchronized void append(long epochDay, double open, double high, double low, double close, double volume) {
+            if (count > 0 && epochDay <= buffer.getInt(dayOffset() + (count - 1) * Integer.BYTES)) {
+                throw new IllegalArgumentException("Bars of " + stockSymbol + " must be appended in day order, got "
+                        + epochDay + " after " + buffer.getInt(dayOffset() + (count - 1) * Integer.BYTES));
+            }
+            try {
+                if (count == capacity) {
+                    grow();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot grow bars of " + stockSymbol, e);
+            }
+            buffer.putInt(dayOffset() + count * Integer.BYTES, Math.toIntExact(epochDay));
+            buffer.putDouble(columnOffset(capacity, 0) + count * Double.BYTES, open);
+            buffer.putDouble(columnOffset(capacity, 1) + count * Double.BYTES, high);
+            buffer.putDouble(columnOffset(capacity, 2) + count * Double.BYTES, low);
+            buffer.putDouble(columnOffset(capacity, 3) + count * Double.BYTES, close);
+            buffer.putDouble(columnOffset(capacity, 4) + count * Double.BYTES, volume);
+            count++;
+            buffer.putInt(COUNT_OFFSET, count);
+        }
+
+        synchronized BarColumns view() {
+            return new BarColumns(stockSymbol, buffer.asReadOnlyBuffer(), count, capacity);
+        }
+
+        private void grow() throws IOException {
+            logger.debug("Growing bars of {} beyond {} bars", stockSymbol, capacity);
+            create(path, capacity * 2, buffer, count);
+            // Views opened before keep the old mapping alive until they are collected
+            buffer = null;
+            map();
+        }
+
+        synchronized void force() {
+            buffer.force();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.alert;
+
+/**
+ * Primary conditions that open a confirmation window. Stored by ordinal, so new types go at the end.
+ */
+public enum ConditionType {
+    GOLDEN_CROSS,
+    DEATH_CROSS
+}
@@ -0,0 +1,99 @@
+package com.example.alert;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Assigns symbols to cluster members by consistent hashing.
+ * <p>
+ * Every member is placed on a 64 bit ring at {@code virtualNodes} points, and a symbol belongs to the member of
+ * the first point at or after the hash of the symbol. When a member joins, it only takes over symbols from the
+ * others, and when it leaves only its own symbols move, about {@code 1 / members} of them either way. The
+ * assignment only depends on the member names and the number of virtual nodes, so every instance that knows
+ * the same members computes the same owners.
+ */
+public class ConsistentHashRing {
+
+    private final TreeMap<Long, String> points = new TreeMap<>();
+    private final List<String> members;
+    private final int virtualNodes;
+
+    public ConsistentHashRing(Collection<String> members, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be positive but was " + virtualNodes);
+        }
+        this.members = List.copyOf(new TreeSet<>(members));
+        this.virtualNodes = virtualNodes;
+        for (String member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // On the rare collision, the smaller member name wins on every instance
+                points.merge(hash(member + '#' + i), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+    }
+
+    /**
+     * The member that owns a symbol.
+     *
+     * @return The member, or null if the ring has no members.
+     */
+    public String ownerOf(String stockSymbol) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(stockSymbol));
+        return (point != null ? point : points.firstEntry()).getValue();
+    }
+
+    /**
+     * A ring with one more member.
+     */
+    public ConsistentHashRing with(String member) {
+        List<String> changed = new ArrayList<>(members);
+        changed.add(member);
+        return new ConsistentHashRing(changed, virtualNodes);
+    }
+
+    /**
+     * A ring without a member.
+     */
+    public ConsistentHashRing without(String member) {
+        List<String> changed = new ArrayList<>(members);
+        changed.remove(member);
+        return new ConsistentHashRing(changed, virtualNodes);
+    }
+
+    /**
+     * The members, sorted by name.
+     */
+    public List<String> getMembers() {
+        return members;
+    }
+
+    public int getVirtualNodes() {
+        return virtualNodes;
+    }
+
+    /**
+     * 64 bit FNV-1a of the UTF-8 bytes, followed by the MurmurHash3 finalizer so that names differing only in
+     * their last characters still land far apart.
+     */
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb3fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.alert;
+
+/**
+ * Aggregated forward returns of one signal type at one horizon.
+ */
+public class ForwardReturnSummary {
+
+    private final String signalType;
+    private final int horizon;
+    private final int count;
+    private final double meanReturn;
+    private final double hitRate;
+
+    public ForwardReturnSummary(String signalType, int horizon, int count, double meanReturn, double hitRate) {
+        this.signalType = signalType;
+        this.horizon = horizon;
+        this.count = count;
+        this.meanReturn = meanReturn;
+        this.hitRate = hitRate;
+    }
+
+    /**
+     * Summarize the signals of one type. An ENTRY is a hit when the price rose over the horizon, an EXIT
+     * when it fell. Signals too close to the end of the history for the horizon are left out.
+     */
+    public static ForwardReturnSummary of(String signalType, int horizon, int horizonIndex,
+                                          Iterable<BacktestResult> results) {
+        int count = 0;
+        int hits = 0;
+        double sum = 0;
+        for (BacktestResult result : results) {
+            for (BacktestSignal signal : result.getSignals()) {
+                double forwardReturn = signal.getForwardReturn(horizonIndex);
+                if (!signal.getAlert().getSignalType().equals(signalType) || Double.isNaN(forwardReturn)) {
+                    continue;
+                }
+                count++;
+                sum += forwardReturn;
+                if ("ENTRY".equals(signalType) ? forwardReturn > 0 : forwardReturn < 0) {
+                    hits++;
+                }
+            }
+        }
+        return new ForwardReturnSummary(signalType, horizon, count,
+                count == 0 ? Double.NaN : sum / count, count == 0 ? Double.NaN : (double) hits / count);
+    }
+
+    public String getSignalType() { return signalType; }
+
+    public int getHorizon() { return horizon; }
+
+    public int getCount() { return count; }
+
+    public double getMeanReturn() { return meanReturn; }
+
+    public double getHitRate() { return hitRate; }
+
+    @Override
+    public String toString() {
+        return signalType + " +" + horizon + " bars: " + count + " signals, mean return " + meanReturn
+                + ", hit rate " + hitRate;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.alert;
+
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsLowerIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsMiddleIndicator;
+import org.ta4j.core.indicators.bollinger.BollingerBandsUpperIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The ta4j indicators of a strategy, built once on a bar series.
+ * <p>
+ * The indicators cache the values they computed, so a graph that is kept while bars are added to its
+ * series only computes the values of the new bars.
+ */
+public class IndicatorGraph {
+
+    private final BarSeries barSeries;
+    private final ClosePriceIndicator closePrice;
+    private final SMAIndicator shortMA;
+    private final SMAIndicator longMA;
+    private final RSIIndicator rsi;
+    private final MACDIndicator macd;
+    private final EMAIndicator macdSignal;
+    private final BollingerBandsUpperIndicator upperBB;
+    private final BollingerBandsLowerIndicator lowerBB;
+
+    public IndicatorGraph(BarSeries barSeries, StrategyConfig config) {
+        this.barSeries = barSeries;
+        this.closePrice = new ClosePriceIndicator(barSeries);
+        this.shortMA = new SMAIndicator(closePrice, config.getShortMaPeriod());
+        this.longMA = new SMAIndicator(closePrice, config.getLongMaPeriod());
+        this.rsi = new RSIIndicator(closePrice, config.getRsiPeriod());
+        this.macd = new MACDIndicator(closePrice, config.getMacdShortPeriod(), config.getMacdLongPeriod());
+        this.macdSignal = new EMAIndicator(macd, config.getMacdSignalPeriod());
+        BollingerBandsMiddleIndicator middleBB = new BollingerBandsMiddleIndicator(closePrice);
+        this.upperBB = new BollingerBandsUpperIndicator(middleBB, closePrice);
+        this.lowerBB = new BollingerBandsLowerIndicator(middleBB, closePrice);
+    }
+
+    public BarSeries getBarSeries() {
+        return barSeries;
+    }
+
+    /**
+     * The snapshots of the last {@code timeWindow + 1} bars of the series, oldest first.
+     */
+    public List<SignalSnapshot> window(int timeWindow) {
+        int endIndex = barSeries.getEndIndex();
+        int startIndex = Math.max(0, endIndex - timeWindow);
+
+        List<SignalSnapshot> snapshots = new ArrayList<>();
+        for (int i = startIndex; i <= endIndex; i++) {
+            snapshots.add(snapshot(i));
+        }
+        return snapshots;
+    }
+
+    public SignalSnapshot snapshot(int index) {
+        return new SignalSnapshot(
+                barSeries.getBar(index).getEndTime().toLocalDate(),
+                closePrice.getValue(index),
+                shortMA.getValue(index),
+                longMA.getValue(index),
+                rsi.getValue(index),
+                macd.getValue(index),
+                macdSignal.getValue(index),
+                upperBB.getValue(index),
+                lowerBB.getValue(index),
+                shortMA.getValue(index - 1),
+                longMA.getValue(index - 1),
+                macd.getValue(index - 1),
+                macdSignal.getValue(index - 1),
+                barSeries::numOf
+        );
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.alert;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Running indicator state of a single symbol, advanced one bar at a time.
+ */
+public interface IndicatorState {
+
+    /**
+     * Advances the state by one bar.
+     *
+     * @param bar The next bar of the symbol.
+     * @return The indicator values at this bar.
+     */
+    SignalSnapshot update(Bar bar);
+
+    /**
+     * The date of the last bar the state advanced by, or {@code null} before the first bar.
+     */
+    LocalDate getLastDate();
+
+    /**
+     * The indicator values the state would have after a bar, without advancing it. Used for a bar that is
+     * still forming, which is replaced by its final version later.
+     *
+     * @param bar The bar that would follow the last bar of the symbol.
+     * @return The indicator values at this bar.
+     */
+    SignalSnapshot preview(Bar bar);
+
+    /**
+     * Catches the state up with a bar series and returns the snapshots of the bars {@code analyzeStock}
+     * evaluates. Only bars that were not seen before are processed; if the series does not continue the
+     * bars already consumed, the state is rebuilt from the first bar.
+     *
+     * @param barSeries A BarSeries object without removed bars.
+     * @return The snapshots of the last {@code timeWindow + 1} bars, oldest first.
+     */
+    List<SignalSnapshot> advance(BarSeries barSeries);
+
+    /**
+     * Same as {@link #advance(BarSeries)} for bars read from the {@link ColumnarBarStore}.
+     */
+    List<SignalSnapshot> advance(BarColumns barColumns);
+
+    /**
+     * Advances the state by the stored bars of later days than its last bar, such as the bars that arrived
+     * after the state was checkpointed. Unlike {@link #advance(BarColumns)}, the state does not need to have
+     * started at the first stored bar.
+     *
+     * @param barColumns The stored bars of the symbol.
+     */
+    void catchUp(BarColumns barColumns);
+
+    /**
+     * Same as {@link #catchUp(BarColumns)}, but returns the snapshots of all bars the state advanced by, for
+     * bars whose conditions still have to be evaluated.
+     *
+     * @param barColumns The stored bars of the symbol.
+     * @return The snapshots of the stored bars after the last bar of the state, oldest first.
+     */
+    List<SignalSnapshot> replay(BarColumns barColumns);
+
+    /**
+     * Writes everything needed to continue with the next bar, for a {@link StateCheckpoint}.
+     */
+    void writeTo(DataOutput out) throws IOException;
+}
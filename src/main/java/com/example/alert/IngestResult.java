@@ -0,0 +1,60 @@
+package com.example.alert;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one bar ingestion request.
+ */
+public class IngestResult {
+
+    private final int barCount;
+    private final int symbolCount;
+    private final int alertCount;
+    private final int rejectedCount;
+    private final List<String> rejectedLines;
+    private final Map<String, String> failures;
+    private final Duration elapsed;
+
+    public IngestResult(int barCount, int symbolCount, int alertCount, int rejectedCount,
+                        List<String> rejectedLines, Map<String, String> failures, Duration elapsed) {
+        this.barCount = barCount;
+        this.symbolCount = symbolCount;
+        this.alertCount = alertCount;
+        this.rejectedCount = rejectedCount;
+        this.rejectedLines = rejectedLines;
+        this.failures = failures;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * Number of bars read from the request.
+     */
+    public int getBarCount() { return barCount; }
+
+    public int getSymbolCount() { return symbolCount; }
+
+    /**
+     * Number of alerts the bars produced, all of which were handed to the {@link AlertDispatcher}.
+     */
+    public int getAlertCount() { return alertCount; }
+
+    /**
+     * Number of lines that could not be parsed.
+     */
+    public int getRejectedCount() { return rejectedCount; }
+
+    /**
+     * Lines that could not be parsed, with their line number and the reason. Only the first few are kept.
+     */
+    public List<String> getRejectedLines() { return rejectedLines; }
+
+    /**
+     * Error message per symbol whose bars could not be processed. On a cluster coordinator, also per member URL
+     * that could not take its bars.
+     */
+    public Map<String, String> getFailures() { return failures; }
+
+    public Duration getElapsed() { return elapsed; }
+}
@@ -0,0 +1,402 @@
+package com.example.alert;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BaseBar;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Rolls minute bars into daily bars, and optionally hourly bars, per symbol.
+ * <p>
+ * Each symbol has mutable accumulators that a minute bar updates in place, so the stream of minute bars
+ * creates no objects apart from the bars that are emitted. Every {@code alert.intraday.provisional-interval}
+ * of market time the forming daily bar goes through {@link StockAlertService#previewBar}, and the
+ * provisional alerts that were not raised yet that day are handed to the {@link AlertDispatcher}. The daily
+ * bar is final when the first minute bar of a later day arrives or the session is closed; it then goes
+ * through {@link StockAlertService#onBar} and its alerts are published like those of ingested daily bars.
+ * <p>
+ * Minute bars come in through {@code POST /minute-bars}, see {@link #ingest}.
+ */
+@Service
+public class IntradayAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(IntradayAggregator.class);
+
+    private static final long SECONDS_PER_HOUR = 3600;
+    private static final int MAX_REJECTED_LINES = 100;
+    private static final int ENTRY_RAISED = 1;
+    private static final int EXIT_RAISED = 2;
+
+    private final StockAlertService stockAlertService;
+    private final AlertDispatcher alertDispatcher;
+    private final ObjectMapper objectMapper;
+    private final ZoneId zone;
+    private final boolean hourly;
+    private final long provisionalIntervalSeconds;
+
+    private final Map<String, SymbolBars> symbols = new ConcurrentHashMap<>();
+    private final List<BiConsumer<String, Bar>> hourlyListeners = new CopyOnWriteArrayList<>();
+
+    public IntradayAggregator(StockAlertService stockAlertService, AlertDispatcher alertDispatcher,
+                              ObjectMapper objectMapper, AlertProperties properties) {
+        this.stockAlertService = stockAlertService;
+        this.alertDispatcher = alertDispatcher;
+        this.objectMapper = objectMapper;
+        AlertProperties.Intraday intraday = properties.getIntraday();
+        this.zone = intraday.getZone();
+        this.hourly = intraday.isHourly();
+        this.provisionalIntervalSeconds = intraday.getProvisionalInterval().toSeconds();
+    }
+
+    /**
+     * Register a consumer of the hourly bars of all symbols, called with the symbol and the bar once the
+     * hour is complete. Only used with {@code alert.intraday.hourly=true}.
+     */
+    public void addHourlyListener(BiConsumer<String, Bar> listener) {
+        hourlyListeners.add(listener);
+    }
+
+    /**
+     * Add the minute bars of a request body in the order they are read, and wait until they went through the
+     * rules.
+     * <p>
+     * A line that cannot be parsed, or a bar that is not accepted, such as one of a day that was already closed,
+     * is rejected. When a bar fails otherwise, the later bars of its symbol in the body are skipped.
+     *
+     * @param reader The request body, one minute bar per line.
+     * @param format The line format, with the start of the minute as an ISO-8601 date-time with offset in
+     *               place of the date.
+     * @return The counts of bars and of the provisional and final alerts they pushed, the rejected lines and
+     * the symbols that failed.
+     */
+    public IngestResult ingest(Reader reader, BarIngestionService.Format format) throws IOException {
+        long start = System.nanoTime();
+        Set<String> stockSymbols = new HashSet<>();
+        List<String> rejectedLines = new ArrayList<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+        int rejectedCount = 0;
+        int barCount = 0;
+        int alertCount = 0;
+
+        BufferedReader lines = new BufferedReader(reader);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (format == BarIngestionService.Format.CSV && lineNumber == 1
+                    && line.startsWith("symbol"))) {
+                continue;
+            }
+            MinuteBar bar;
+            try {
+                bar = format == BarIngestionService.Format.CSV ? parseCsv(line) : parseNdjson(line);
+            } catch (IllegalArgumentException e) {
+                if (rejectedCount++ < MAX_REJECTED_LINES) {
+                    rejectedLines.add(lineNumber + ": " + e.getMessage());
+                }
+                continue;
+            }
+            barCount++;
+            stockSymbols.add(bar.symbol);
+            if (failures.containsKey(bar.symbol)) {
+                continue;
+            }
+            try {
+                alertCount += onMinuteBar(bar.symbol, bar.epochSecond, bar.open, bar.high, bar.low, bar.close,
+                        bar.volume);
+            } catch (IllegalArgumentException e) {
+                // A bar of a closed day, or a daily bar StockAlertService does not accept
+                if (rejectedCount++ < MAX_REJECTED_LINES) {
+                    rejectedLines.add(lineNumber + ": " + e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Minute bar of {} failed, skipping its later bars", bar.symbol, e);
+                failures.put(bar.symbol, String.valueOf(e));
+            }
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        logger.info("Ingested {} minute bars of {} symbols in {} ms: {} alerts, {} rejected lines, "
+                + "{} failed symbols", barCount, stockSymbols.size(), elapsed.toMillis(), alertCount, rejectedCount,
+                failures.size());
+        return new IngestResult(barCount, stockSymbols.size(), alertCount, rejectedCount, rejectedLines, failures,
+                elapsed);
+    }
+
+    /**
+     * Add a minute bar. The bars of a symbol must arrive in time order; a bar of a day that was already
+     * closed is rejected.
+     *
+     * @param stockSymbol The stock symbol the bar belongs to.
+     * @param epochSecond Start of the minute, as seconds since 1970-01-01T00:00Z.
+     * @return The number of alerts the bar pushed: the final alerts of the previous day if the bar starts a
+     * new day, and the provisional alerts of the forming day.
+     */
+    public int onMinuteBar(String stockSymbol, long epochSecond, double open, double high, double low, double close,
+                           double volume) {
+        SymbolBars bars = symbols.get(stockSymbol);
+        if (bars == null) {
+            bars = symbols.computeIfAbsent(stockSymbol, symbol -> new SymbolBars());
+        }
+        bars.lock.lock();
+        try {
+            if (epochSecond < bars.dayStart) {
+                throw new IllegalArgumentException("Minute bar of " + stockSymbol + " at "
+                        + Instant.ofEpochSecond(epochSecond) + " belongs to a closed day");
+            }
+            int alertCount = 0;
+            if (epochSecond >= bars.dayEnd) {
+                alertCount += close(stockSymbol, bars).size();
+                startDay(bars, epochSecond);
+            }
+
+            if (hourly) {
+                long hourStart = epochSecond - Math.floorMod(epochSecond + bars.offsetSeconds, SECONDS_PER_HOUR);
+                if (bars.hour.count > 0 && hourStart != bars.hour.start) {
+                    emitHour(stockSymbol, bars.hour);
+                }
+                bars.hour.start = hourStart;
+                bars.hour.add(open, high, low, close, volume);
+            }
+            bars.day.add(open, high, low, close, volume);
+
+            if (epochSecond >= bars.nextProvisional) {
+                bars.nextProvisional = epochSecond + provisionalIntervalSeconds;
+                alertCount += evaluateProvisional(stockSymbol, bars);
+            }
+            return alertCount;
+        } finally {
+            bars.lock.unlock();
+        }
+    }
+
+    /**
+     * Close the forming daily bar of a symbol and generate its final alerts. Later minute bars of the same
+     * day are rejected. If the daily bar fails, the day stays open.
+     *
+     * @return The alerts of the daily bar.
+     */
+    public List<Alert> close(String stockSymbol) {
+        SymbolBars bars = symbols.get(stockSymbol);
+        if (bars == null) {
+            return List.of();
+        }
+        bars.lock.lock();
+        try {
+            return close(stockSymbol, bars);
+        } finally {
+            bars.lock.unlock();
+        }
+    }
+
+    /**
+     * Close the forming daily bars of all symbols at the end of the session, on the schedule of
+     * {@code alert.intraday.close-cron} in {@code alert.intraday.zone}.
+     *
+     * @return The number of symbols that had a forming daily bar.
+     */
+    @Scheduled(cron = "${alert.intraday.close-cron:-}", zone = "${alert.intraday.zone:America/New_York}")
+    public int closeAll() {
+        int closed = 0;
+        int alertCount = 0;
+        for (Map.Entry<String, SymbolBars> entry : symbols.entrySet()) {
+            SymbolBars bars = entry.getValue();
+            bars.lock.lock();
+            try {
+                if (bars.day.count > 0) {
+                    alertCount += close(entry.getKey(), bars).size();
+                    closed++;
+                }
+            } finally {
+                bars.lock.unlock();
+            }
+        }
+        logger.info("Closed the daily bars of {} symbols: {} alerts", closed, alertCount);
+        return closed;
+    }
+
+    private List<Alert> close(String stockSymbol, SymbolBars bars) {
+        if (hourly && bars.hour.count > 0) {
+            emitHour(stockSymbol, bars.hour);
+        }
+        if (bars.day.count == 0) {
+            return List.of();
+        }
+        Bar bar = bars.day.toBar(Duration.ofDays(1), bars.date.atStartOfDay(ZoneOffset.UTC));
+        List<Alert> alerts = stockAlertService.onBar(stockSymbol, bar);
+        // Only once the bar went through, so that a failed bar stays open and is closed again on the next try
+        bars.day.count = 0;
+        bars.dayStart = bars.dayEnd;
+        return alerts;
+    }
+
+    // Only runs when a minute bar starts a new day
+    private void startDay(SymbolBars bars, long epochSecond) {
+        Instant instant = Instant.ofEpochSecond(epochSecond);
+        LocalDate date = LocalDate.ofInstant(instant, zone);
+        bars.date = date;
+        bars.dayStart = date.atStartOfDay(zone).toEpochSecond();
+        bars.dayEnd = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+        bars.offsetSeconds = zone.getRules().getOffset(instant).getTotalSeconds();
+        bars.nextProvisional = epochSecond + provisionalIntervalSeconds;
+        bars.raisedSignals = 0;
+    }
+
+    private void emitHour(String stockSymbol, BarAccumulator hour) {
+        Bar bar = hour.toBar(Duration.ofHours(1), Instant.ofEpochSecond(hour.start + SECONDS_PER_HOUR).atZone(zone));
+        hour.count = 0;
+        for (BiConsumer<String, Bar> listener : hourlyListeners) {
+            listener.accept(stockSymbol, bar);
+        }
+    }
+
+    private int evaluateProvisional(String stockSymbol, SymbolBars bars) {
+        Bar partial = bars.day.toBar(Duration.ofDays(1), bars.date.atStartOfDay(ZoneOffset.UTC));
+        List<Alert> raised = new ArrayList<>();
+        int raisedSignals = 0;
+        for (Alert alert : stockAlertService.previewBar(stockSymbol, partial)) {
+            int signal = alert.getSignalType().equals("ENTRY") ? ENTRY_RAISED : EXIT_RAISED;
+            if ((bars.raisedSignals & signal) == 0) {
+                raised.add(alert);
+                raisedSignals |= signal;
+            }
+        }
+        bars.raisedSignals |= raisedSignals;
+        alertDispatcher.publish(raised);
+        return raised.size();
+    }
+
+    static MinuteBar parseCsv(String line) {
+        String[] fields = line.split(",", -1);
+        if (fields.length != 7) {
+            throw new IllegalArgumentException("expected 7 fields but found " + fields.length);
+        }
+        try {
+            return new MinuteBar(fields[0].trim(), OffsetDateTime.parse(fields[1].trim()).toEpochSecond(),
+                    Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()),
+                    Double.parseDouble(fields[4].trim()), Double.parseDouble(fields[5].trim()),
+                    Double.parseDouble(fields[6].trim()));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    MinuteBar parseNdjson(String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed JSON", e);
+        }
+        try {
+            return new MinuteBar(field(node, "symbol").asText(),
+                    OffsetDateTime.parse(field(node, "time").asText()).toEpochSecond(), field(node, "open").asDouble(),
+                    field(node, "high").asDouble(), field(node, "low").asDouble(), field(node, "close").asDouble(),
+                    field(node, "volume").asDouble());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(String.valueOf(e.getMessage()), e);
+        }
+    }
+
+    private static JsonNode field(JsonNode node, String name) {
+        JsonNode field = node.get(name);
+        if (field == null || field.isNull()) {
+            throw new IllegalArgumentException("missing field " + name);
+        }
+        return field;
+    }
+
+    static class MinuteBar {
+        final String symbol;
+        final long epochSecond;
+        final double open;
+        final double high;
+        final double low;
+        final double close;
+        final double volume;
+
+        MinuteBar(String symbol, long epochSecond, double open, double high, double low, double close,
+                  double volume) {
+            if (symbol.isEmpty()) {
+                throw new IllegalArgumentException("missing symbol");
+            }
+            this.symbol = symbol;
+            this.epochSecond = epochSecond;
+            this.open = open;
+            this.high = high;
+            this.low = low;
+            this.close = close;
+            this.volume = volume;
+        }
+    }
+
+    private static class SymbolBars {
+        // Held while the bars go through StockAlertService, which waits for the repository; a monitor would pin
+        // a virtual thread to its carrier meanwhile
+        final ReentrantLock lock = new ReentrantLock();
+        final BarAccumulator day = new BarAccumulator();
+        final BarAccumulator hour = new BarAccumulator();
+        LocalDate date;
+        // Epoch seconds of the trading day, the start moves to the end once the day is closed
+        long dayStart = Long.MIN_VALUE;
+        long dayEnd = Long.MIN_VALUE;
+        long nextProvisional;
+        int offsetSeconds;
+        // The provisional signals already pushed for the day
+        int raisedSignals;
+    }
+
+    private static class BarAccumulator {
+        long start;
+        double open;
+        double high;
+        double low;
+        double close;
+        double volume;
+        int count;
+
+        void add(double open, double high, double low, double close, double volume) {
+            if (count == 0) {
+                this.open = open;
+                this.high = high;
+                this.low = low;
+                this.volume = 0;
+            } else {
+                this.high = Math.max(this.high, high);
+                this.low = Math.min(this.low, low);
+            }
+            this.close = close;
+            this.volume += volume;
+            count++;
+        }
+
+        Bar toBar(Duration period, ZonedDateTime endTime) {
+            return new BaseBar(period, endTime, open, high, low, close, volume);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Appends alerts to NDJSON files named {@code alerts-<date>.ndjson} after the day they were written on, one
+ * JSON object per line. A file that reaches {@code alert.sink.ndjson.max-file-size} is continued in
+ * {@code alerts-<date>.1.ndjson} and so on.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alert.sink.ndjson", name = "enabled")
+public class NdjsonAlertSink implements AlertSink, DisposableBean {
+
+    private static final byte NEWLINE = '\n';
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxFileSize;
+    private final Clock clock;
+
+    private OutputStream out;
+    private LocalDate fileDate;
+    private int fileIndex;
+    private long fileSize;
+
+    public NdjsonAlertSink(ObjectMapper objectMapper, AlertProperties properties) {
+        this(objectMapper, properties, Clock.systemUTC());
+    }
+
+    NdjsonAlertSink(ObjectMapper objectMapper, AlertProperties properties, Clock clock) {
+        this.objectMapper = objectMapper;
+        AlertProperties.Sink.Ndjson ndjson = properties.getSink().getNdjson();
+        this.directory = Path.of(ndjson.getDirectory());
+        this.maxFileSize = ndjson.getMaxFileSize().toBytes();
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized void write(List<Alert> alerts) throws IOException {
+        LocalDate today = LocalDate.now(clock);
+        if (out == null || !today.equals(fileDate)) {
+            open(today, 0);
+        }
+        for (Alert alert : alerts) {
+            if (fileSize >= maxFileSize) {
+                open(today, fileIndex + 1);
+            }
+            byte[] line = objectMapper.writeValueAsBytes(alert);
+            out.write(line);
+            out.write(NEWLINE);
+            fileSize += line.length + 1;
+        }
+        out.flush();
+    }
+
+    // Continues the first file of the day that is not full yet
+    private void open(LocalDate date, int index) throws IOException {
+        close();
+        Files.createDirectories(directory);
+        Path file = pathOf(date, index);
+        while (Files.exists(file) && Files.size(file) >= maxFileSize) {
+            file = pathOf(date, ++index);
+        }
+        fileSize = Files.exists(file) ? Files.size(file) : 0;
+        out = new BufferedOutputStream(Files.newOutputStream(file, StandardOpenOption.CREATE,
+                StandardOpenOption.APPEND), 1 << 16);
+        fileDate = date;
+        fileIndex = index;
+    }
+
+    private Path pathOf(LocalDate date, int index) {
+        return directory.resolve("alerts-" + date + (index == 0 ? "" : "." + index) + ".ndjson");
+    }
+
+    private void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        close();
+    }
+}
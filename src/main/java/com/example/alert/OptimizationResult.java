@@ -0,0 +1,41 @@
+package com.example.alert;
+
+/**
+ * Performance of one strategy configuration over a historical data set.
+ */
+public class OptimizationResult {
+
+    private final StrategyConfig config;
+    private final int signalCount;
+    private final double hitRate;
+    private final double meanReturn;
+
+    public OptimizationResult(StrategyConfig config, int signalCount, double hitRate, double meanReturn) {
+        this.config = config;
+        this.signalCount = signalCount;
+        this.hitRate = hitRate;
+        this.meanReturn = meanReturn;
+    }
+
+    public StrategyConfig getConfig() { return config; }
+
+    /**
+     * Number of ENTRY and EXIT alerts with a complete forward-return horizon.
+     */
+    public int getSignalCount() { return signalCount; }
+
+    /**
+     * Share of signals the price confirmed: up after an ENTRY, down after an EXIT.
+     */
+    public double getHitRate() { return hitRate; }
+
+    /**
+     * Mean forward return in the direction of the signal: the return after an ENTRY, its negation after an EXIT.
+     */
+    public double getMeanReturn() { return meanReturn; }
+
+    @Override
+    public String toString() {
+        return "[" + config + "]: " + signalCount + " signals, hit rate " + hitRate + ", mean return " + meanReturn;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.alert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Candidate values per strategy parameter, from which {@link StrategyOptimizer} configurations are drawn.
+ * Every parameter starts with the single default value of {@link StrategyConfig}.
+ * <p>
+ * The Bollinger weight is not swept and keeps its default: the bands of the strategy use the close price as
+ * their deviation, so a close never breaks out of them and the weight never counts.
+ */
+public class ParameterSpace {
+
+    private static final StrategyConfig DEFAULTS = new StrategyConfig();
+
+    private int[] timeWindows = {DEFAULTS.getTimeWindow()};
+    private int[] shortMaPeriods = {DEFAULTS.getShortMaPeriod()};
+    private int[] longMaPeriods = {DEFAULTS.getLongMaPeriod()};
+    private int[] rsiPeriods = {DEFAULTS.getRsiPeriod()};
+    private int[] macdShortPeriods = {DEFAULTS.getMacdShortPeriod()};
+    private int[] macdLongPeriods = {DEFAULTS.getMacdLongPeriod()};
+    private int[] macdSignalPeriods = {DEFAULTS.getMacdSignalPeriod()};
+    private double[] rsiWeights = {DEFAULTS.getRsiWeight()};
+    private double[] macdWeights = {DEFAULTS.getMacdWeight()};
+    private double[] thresholds = {DEFAULTS.getThreshold()};
+
+    public ParameterSpace timeWindows(int... values) { this.timeWindows = values; return this; }
+
+    public ParameterSpace shortMaPeriods(int... values) { this.shortMaPeriods = values; return this; }
+
+    public ParameterSpace longMaPeriods(int... values) { this.longMaPeriods = values; return this; }
+
+    public ParameterSpace rsiPeriods(int... values) { this.rsiPeriods = values; return this; }
+
+    public ParameterSpace macdShortPeriods(int... values) { this.macdShortPeriods = values; return this; }
+
+    public ParameterSpace macdLongPeriods(int... values) { this.macdLongPeriods = values; return this; }
+
+    public ParameterSpace macdSignalPeriods(int... values) { this.macdSignalPeriods = values; return this; }
+
+    public ParameterSpace rsiWeights(double... values) { this.rsiWeights = values; return this; }
+
+    public ParameterSpace macdWeights(double... values) { this.macdWeights = values; return this; }
+
+    public ParameterSpace thresholds(double... values) { this.thresholds = values; return this; }
+
+    /**
+     * Every combination of the candidate values, without those whose short period is not below the long one.
+     */
+    public List<StrategyConfig> grid() {
+        List<StrategyConfig> configs = List.of(new StrategyConfig());
+        configs = expand(configs, timeWindows, StrategyConfig::setTimeWindow);
+        configs = expand(configs, shortMaPeriods, StrategyConfig::setShortMaPeriod);
+        configs = expand(configs, longMaPeriods, StrategyConfig::setLongMaPeriod);
+        configs = expand(configs, rsiPeriods, StrategyConfig::setRsiPeriod);
+        configs = expand(configs, macdShortPeriods, StrategyConfig::setMacdShortPeriod);
+        configs = expand(configs, macdLongPeriods, StrategyConfig::setMacdLongPeriod);
+        configs = expand(configs, macdSignalPeriods, StrategyConfig::setMacdSignalPeriod);
+        configs = expand(configs, rsiWeights, StrategyConfig::setRsiWeight);
+        configs = expand(configs, macdWeights, StrategyConfig::setMacdWeight);
+        configs = expand(configs, thresholds, StrategyConfig::setThreshold);
+        List<StrategyConfig> valid = new ArrayList<>(configs);
+        valid.removeIf(config -> !isValid(config));
+        return valid;
+    }
+
+    /**
+     * A reproducible random sample of valid configurations.
+     */
+    public List<StrategyConfig> sample(int count, long seed) {
+        Random random = new Random(seed);
+        List<StrategyConfig> configs = new ArrayList<>(count);
+        int attempts = 0;
+        while (configs.size() < count && attempts++ < count * 100) {
+            StrategyConfig config = new StrategyConfig(pick(random, timeWindows), pick(random, shortMaPeriods),
+                    pick(random, longMaPeriods), pick(random, rsiPeriods), pick(random, macdShortPeriods),
+                    pick(random, macdLongPeriods), pick(random, macdSignalPeriods), pick(random, rsiWeights),
+                    pick(random, macdWeights), DEFAULTS.getBollingerWeight(), pick(random, thresholds));
+            if (isValid(config)) {
+                configs.add(config);
+            }
+        }
+        return configs;
+    }
+
+    private static boolean isValid(StrategyConfig config) {
+        return config.getShortMaPeriod() < config.getLongMaPeriod()
+                && config.getMacdShortPeriod() < config.getMacdLongPeriod();
+    }
+
+    private static List<StrategyConfig> expand(List<StrategyConfig> configs, int[] values,
+                                               ObjIntConsumer<StrategyConfig> setter) {
+        List<StrategyConfig> expanded = new ArrayList<>(configs.size() * values.length);
+        for (StrategyConfig config : configs) {
+            for (int value : values) {
+                StrategyConfig copy = config.copy();
+                setter.accept(copy, value);
+                expanded.add(copy);
+            }
+        }
+        return expanded;
+    }
+
+    private static List<StrategyConfig> expand(List<StrategyConfig> configs, double[] values,
+                                               ObjDoubleConsumer<StrategyConfig> setter) {
+        List<StrategyConfig> expanded = new ArrayList<>(configs.size() * values.length);
+        for (StrategyConfig config : configs) {
+            for (double value : values) {
+                StrategyConfig copy = config.copy();
+                setter.accept(copy, value);
+                expanded.add(copy);
+            }
+        }
+        return expanded;
+    }
+
+    private static int pick(Random random, int[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static double pick(Random random, double[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.alert;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory working set of the primary conditions of one symbol for the duration of an analysis run.
+ * <p>
+ * Conditions are loaded with a single query, and the conditions created and confirmed during the run are
+ * collected and written back in one batch by {@link #flush(PrimaryConditionRepository)}. Confirmed conditions
+ * stay in the working set, so that evaluating the same bar again changes nothing.
+ */
+public class PendingConditions {
+
+    private final String stockSymbol;
+    private final List<PrimaryCondition> conditions;
+    private final List<PrimaryCondition> created = new ArrayList<>();
+    private final List<PrimaryCondition> confirmed = new ArrayList<>();
+    private int repositoryCallCount;
+
+    public PendingConditions(String stockSymbol, List<PrimaryCondition> conditions) {
+        this.stockSymbol = stockSymbol;
+        this.conditions = new ArrayList<>(conditions);
+    }
+
+    /**
+     * Load the conditions of a symbol that can still be confirmed on or after the given date.
+     *
+     * @param repository The repository holding the persisted conditions.
+     * @param stockSymbol The stock symbol being analyzed.
+     * @param firstDate The date of the first bar that will be evaluated.
+     * @param timeWindow Maximum days for signal confirmation.
+     * @return The working set of the symbol.
+     */
+    public static PendingConditions load(PrimaryConditionRepository repository, String stockSymbol,
+                                         LocalDate firstDate, int timeWindow) {
+        PendingConditions pending = new PendingConditions(stockSymbol,
+                repository.findByStockSymbolAndOccurrenceDateAfter(stockSymbol, firstDate.minusDays(timeWindow)));
+        pending.repositoryCallCount++;
+        return pending;
+    }
+
+    /**
+     * Record a condition, unless the symbol already has one of the same type on the same date.
+     */
+    public void add(ConditionType conditionType, LocalDate date) {
+        for (PrimaryCondition existing : conditions) {
+            if (existing.getConditionType() == conditionType && existing.getOccurrenceDate().equals(date)) {
+                return;
+            }
+        }
+        PrimaryCondition condition = new PrimaryCondition();
+        condition.setStockSymbol(stockSymbol);
+        condition.setConditionType(conditionType);
+        condition.setOccurrenceDate(date);
+        conditions.add(condition);
+        created.add(condition);
+    }
+
+    /**
+     * Same result as {@link PrimaryConditionRepository#findPending} against the current state of the working set,
+     * without the conditions after the bar being evaluated: a window that is evaluated again once later bars
+     * were analyzed must not confirm the crosses of those bars.
+     *
+     * @param date Conditions on or before this date are outside the window.
+     * @param until The date of the bar being evaluated.
+     */
+    public List<PrimaryCondition> findAfter(ConditionType conditionType, LocalDate date, LocalDate until) {
+        List<PrimaryCondition> result = new ArrayList<>();
+        for (PrimaryCondition condition : conditions) {
+            if (!condition.isConfirmed() && condition.getConditionType() == conditionType
+                    && condition.getOccurrenceDate().isAfter(date) && !condition.getOccurrenceDate().isAfter(until)) {
+                result.add(condition);
+            }
+        }
+        return result;
+    }
+
+    public void confirm(PrimaryCondition condition) {
+        condition.setConfirmed(true);
+        // Conditions without an id were created during this run and are inserted as confirmed
+        if (condition.getId() != null) {
+            confirmed.add(condition);
+        }
+    }
+
+    /**
+     * Whether the working set is empty, confirmed conditions included.
+     */
+    public boolean isEmpty() {
+        return conditions.isEmpty();
+    }
+
+    /**
+     * Number of conditions waiting for confirmation.
+     */
+    public int pendingCount() {
+        int count = 0;
+        for (PrimaryCondition condition : conditions) {
+            if (!condition.isConfirmed()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Forget the conditions that occurred on or before the given date, without deleting them. For runs that
+     * are never flushed and process bars in date order, where such conditions can no longer be confirmed.
+     */
+    public void forgetUntil(LocalDate date) {
+        conditions.removeIf(condition -> !condition.getOccurrenceDate().isAfter(date));
+    }
+
+    /**
+     * Number of conditions in the working set.
+     */
+    public int size() {
+        return conditions.size();
+    }
+
+    /**
+     * Number of repository calls made to load and flush the working set.
+     */
+    public int repositoryCallCount() {
+        return repositoryCallCount;
+    }
+
+    /**
+     * Write the conditions created and removed since loading.
+     *
+     * @return Whether there was anything to write.
+     */
+    public boolean flush(PrimaryConditionRepository repository) {
+        boolean changed = !created.isEmpty() || !confirmed.isEmpty();
+        if (changed) {
+            repository.applyChanges(created, confirmed);
+            repositoryCallCount++;
+        }
+        created.clear();
+        confirmed.clear();
+        return changed;
+    }
+}
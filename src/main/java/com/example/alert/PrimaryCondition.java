@@ -4,16 +4,31 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 
 @Entity
+@Table(
+        // Every lookup filters on the symbol and a date range, with or without the condition type
+        uniqueConstraints = @UniqueConstraint(name = "uk_primary_condition",
+                columnNames = {"stock_symbol", "condition_type", "occurrence_date"}),
+        indexes = @Index(name = "ix_primary_condition_symbol_date", columnList = "stock_symbol, occurrence_date"))
 public class PrimaryCondition {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE) // IDENTITY would disable JDBC insert batching
     private Long id;
 
+    @Column(name = "stock_symbol", nullable = false, length = 32)
     private String stockSymbol;
-    private String conditionType; // "GOLDEN_CROSS" or "DEATH_CROSS"
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "condition_type", nullable = false)
+    private ConditionType conditionType;
+
+    @Column(name = "occurrence_date", nullable = false)
     private LocalDate occurrenceDate;
 
+    // Kept after confirmation, so that re-running a window neither records nor confirms the cross again
+    @Column(nullable = false)
+    private boolean confirmed;
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -31,11 +46,11 @@ public class PrimaryCondition {
         this.stockSymbol = stockSymbol;
     }
 
-    public String getConditionType() {
+    public ConditionType getConditionType() {
         return conditionType;
     }
 
-    public void setConditionType(String conditionType) {
+    public void setConditionType(ConditionType conditionType) {
         this.conditionType = conditionType;
     }
 
@@ -46,4 +61,12 @@ public class PrimaryCondition {
     public void setOccurrenceDate(LocalDate occurrenceDate) {
         this.occurrenceDate = occurrenceDate;
     }
-}
\ No newline at end of file
+
+    public boolean isConfirmed() {
+        return confirmed;
+    }
+
+    public void setConfirmed(boolean confirmed) {
+        this.confirmed = confirmed;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Periodically deletes the primary conditions that fell out of the confirmation window, confirmed or not, so
+ * that the table only holds the conditions of the last {@code timeWindow} days of each symbol.
+ * <p>
+ * The window ends at the latest bar seen of the symbol, not at today's date, so that the conditions of a symbol
+ * whose bars arrive late, or of a backfill of past bars, are kept until later bars can no longer confirm them.
+ * The latest bar is the latest of the last bar of the {@link SignalEngine} state, the last bar in the
+ * {@link ColumnarBarStore} and the latest condition, which is on a bar too.
+ * <p>
+ * {@link StockAlertService#analyzeStock} evaluates the last {@code timeWindow + 1} bars again on every call, so
+ * the conditions are kept for {@code timeWindow} days before the first of those bars: a cross that a rerun of
+ * the window detects again is then still stored, and confirmed if it was. The first bar of the window is read
+ * from the store; without enough stored bars it is taken as {@code 2 * timeWindow} days before the latest bar,
+ * which covers {@code timeWindow} trading days with weekends and holidays.
+ */
+@Component
+@ConditionalOnProperty(prefix = "alert.purge", name = "enabled", matchIfMissing = true)
+public class PrimaryConditionPurger {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrimaryConditionPurger.class);
+
+    private final PrimaryConditionRepository primaryConditionRepository;
+    private final SignalEngine signalEngine;
+    private final ColumnarBarStore columnarBarStore;
+    private final AlertProperties properties;
+
+    public PrimaryConditionPurger(PrimaryConditionRepository primaryConditionRepository, SignalEngine signalEngine,
+                                  ColumnarBarStore columnarBarStore, AlertProperties properties) {
+        this.primaryConditionRepository = primaryConditionRepository;
+        this.signalEngine = signalEngine;
+        this.columnarBarStore = columnarBarStore;
+        this.properties = properties;
+    }
+
+    @Scheduled(initialDelayString = "${alert.purge.interval:PT1H}", fixedDelayString = "${alert.purge.interval:PT1H}")
+    public int purge() {
+        // Symbols with the same cutoff are purged with one statement; most share their last trading day
+        Map<LocalDate, List<String>> symbolsByCutoff = new TreeMap<>();
+        int timeWindow = properties.getStrategy().getTimeWindow();
+        List<Object[]> latestOccurrences = primaryConditionRepository.findLatestOccurrences();
+        for (Object[] row : latestOccurrences) {
+            String stockSymbol = (String) row[0];
+            // A condition on or before this date can no longer be confirmed by the bars a rerun evaluates
+            LocalDate cutoff = windowStart(stockSymbol, (LocalDate) row[1], timeWindow).minusDays(timeWindow);
+            symbolsByCutoff.computeIfAbsent(cutoff, date -> new ArrayList<>()).add(stockSymbol);
+        }
+        int deleted = 0;
+        for (Map.Entry<LocalDate, List<String>> entry : symbolsByCutoff.entrySet()) {
+            deleted += primaryConditionRepository.deleteOccurredUntil(entry.getValue(), entry.getKey());
+        }
+        logger.info("Purged {} primary conditions of {} symbols", deleted, latestOccurrences.size());
+        return deleted;
+    }
+
+    // The date of the first of the last timeWindow + 1 bars of the symbol
+    private LocalDate windowStart(String stockSymbol, LocalDate latestCondition, int timeWindow) {
+        LocalDate latest = latestCondition;
+        LocalDate stateDate = signalEngine.lastDate(stockSymbol);
+        if (stateDate != null && stateDate.isAfter(latest)) {
+            latest = stateDate;
+        }
+        BarColumns barColumns;
+        try {
+            barColumns = columnarBarStore.open(stockSymbol);
+        } catch (IllegalArgumentException e) {
+            // Symbols analyzed from bar series can have names the store does not accept
+            barColumns = null;
+        }
+        if (barColumns != null && barColumns.size() > timeWindow) {
+            int last = barColumns.size() - 1;
+            // The store holds every bar up to the latest one, unless the latest bar is not stored yet
+            if (!LocalDate.ofEpochDay(barColumns.epochDay(last)).isBefore(latest)) {
+                return LocalDate.ofEpochDay(barColumns.epochDay(last - timeWindow));
+            }
+        }
+        return latest.minusDays(2L * timeWindow);
+    }
+}
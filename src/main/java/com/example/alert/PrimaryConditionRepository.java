@@ -1,14 +1,145 @@
 package com.example.alert;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 public interface PrimaryConditionRepository extends JpaRepository<PrimaryCondition, Long> {
 
-    List<PrimaryCondition> findByStockSymbolAndConditionTypeAndOccurrenceDateAfter(
-            String stockSymbol, String conditionType, LocalDate date);
-}
\ No newline at end of file
+    /**
+     * Conditions of one type that occurred after the given date and were not confirmed yet.
+     */
+    @Query("select c from PrimaryCondition c where c.stockSymbol = :stockSymbol and c.conditionType = :conditionType"
+            + " and c.occurrenceDate > :date and c.confirmed = false")
+    List<PrimaryCondition> findPending(@Param("stockSymbol") String stockSymbol,
+                                       @Param("conditionType") ConditionType conditionType,
+                                       @Param("date") LocalDate date);
+
+    /**
+     * All conditions of a symbol after the given date, confirmed ones included.
+     */
+    List<PrimaryCondition> findByStockSymbolAndOccurrenceDateAfter(String stockSymbol, LocalDate date);
+
+    List<PrimaryCondition> findByStockSymbolIn(Collection<String> stockSymbols);
+
+    /**
+     * Symbols that have at least one condition.
+     */
+    @Query("select distinct c.stockSymbol from PrimaryCondition c")
+    List<String> findSymbols();
+
+    @Modifying
+    @Transactional
+    @Query("delete from PrimaryCondition c where c.stockSymbol in :stockSymbols")
+    int deleteByStockSymbolIn(@Param("stockSymbols") Collection<String> stockSymbols);
+
+    @Modifying
+    @Query("update PrimaryCondition c set c.confirmed = true where c.id in :ids")
+    int markConfirmed(@Param("ids") List<Long> ids);
+
+    /**
+     * The date of the latest condition of each symbol, as rows of symbol and date.
+     */
+    @Query("select c.stockSymbol, max(c.occurrenceDate) from PrimaryCondition c group by c.stockSymbol")
+    List<Object[]> findLatestOccurrences();
+
+    /**
+     * Delete the conditions of the given symbols that occurred on or before the given date with a single
+     * statement.
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from PrimaryCondition c where c.stockSymbol in :stockSymbols and c.occurrenceDate <= :date")
+    int deleteOccurredUntil(@Param("stockSymbols") Collection<String> stockSymbols, @Param("date") LocalDate date);
+
+    /**
+     * Insert new conditions and mark persisted ones as confirmed in one transaction, so that the inserts go out
+     * as a JDBC batch and the confirmations as a single statement.
+     */
+    @Transactional
+    default void applyChanges(List<PrimaryCondition> created, List<PrimaryCondition> confirmed) {
+        saveAll(created);
+        if (!confirmed.isEmpty()) {
+            List<Long> ids = new ArrayList<>(confirmed.size());
+            for (PrimaryCondition condition : confirmed) {
+                ids.add(condition.getId());
+            }
+            markConfirmed(ids);
+        }
+    }
+
+    /**
+     * Store conditions that may already be stored, comparing symbol, type and occurrence date: missing
+     * conditions are inserted and stored pending ones are marked confirmed when the given one is. A condition
+     * inserted by another transaction after the lookup violates the unique constraint, so the lookup and the
+     * inserts are then repeated in a new transaction.
+     *
+     * @return The number of inserted conditions.
+     */
+    default int insertMissing(List<PrimaryCondition> conditions) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return upsert(conditions);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * One attempt of {@link #insertMissing(List)}. The given conditions are copied, so that the ids assigned in
+     * a rolled back attempt do not reach the next one.
+     */
+    @Transactional
+    default int upsert(List<PrimaryCondition> conditions) {
+        Set<String> stockSymbols = new HashSet<>();
+        for (PrimaryCondition condition : conditions) {
+            stockSymbols.add(condition.getStockSymbol());
+        }
+        Map<String, PrimaryCondition> existing = new HashMap<>();
+        for (PrimaryCondition condition : findByStockSymbolIn(stockSymbols)) {
+            existing.put(key(condition), condition);
+        }
+        List<PrimaryCondition> missing = new ArrayList<>();
+        List<Long> confirmedIds = new ArrayList<>();
+        for (PrimaryCondition condition : conditions) {
+            PrimaryCondition stored = existing.get(key(condition));
+            if (stored == null) {
+                PrimaryCondition copy = new PrimaryCondition();
+                copy.setStockSymbol(condition.getStockSymbol());
+                copy.setConditionType(condition.getConditionType());
+                copy.setOccurrenceDate(condition.getOccurrenceDate());
+                copy.setConfirmed(condition.isConfirmed());
+                existing.put(key(copy), copy);
+                missing.add(copy);
+            } else if (condition.isConfirmed() && !stored.isConfirmed()) {
+                confirmedIds.add(stored.getId());
+            }
+        }
+        saveAllAndFlush(missing);
+        if (!confirmedIds.isEmpty()) {
+            markConfirmed(confirmedIds);
+        }
+        return missing.size();
+    }
+
+    private static String key(PrimaryCondition condition) {
+        return condition.getStockSymbol() + '|' + condition.getConditionType() + '|' + condition.getOccurrenceDate();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.alert;
+
+/**
+ * Whole-series indicator kernels on primitive arrays, with the same warmup and recurrences as the ta4j
+ * indicators used by {@link StockAlertService} and as {@link PrimitiveSignalState}.
+ */
+public final class PrimitiveIndicators {
+
+    private PrimitiveIndicators() {
+    }
+
+    /**
+     * Simple moving average; the first {@code period - 1} values average the bars available so far.
+     */
+    public static double[] sma(double[] values, int period) {
+        double[] result = new double[values.length];
+        double sum = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (i >= period) {
+                sum -= values[i - period];
+            }
+            sum += values[i];
+            result[i] = sum / Math.min(period, i + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Exponential moving average seeded with the first value.
+     */
+    public static double[] ema(double[] values, int period) {
+        return smoothed(values, 2.0 / (period + 1));
+    }
+
+    /**
+     * MACD line: short EMA minus long EMA.
+     */
+    public static double[] macd(double[] shortEma, double[] longEma) {
+        double[] result = new double[shortEma.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = shortEma[i] - longEma[i];
+        }
+        return result;
+    }
+
+    /**
+     * Relative strength index with Wilder smoothing of gains and losses.
+     */
+    public static double[] rsi(double[] closes, int period) {
+        double[] result = new double[closes.length];
+        double multiplier = 1.0 / period;
+        double averageGain = 0;
+        double averageLoss = 0;
+        for (int i = 1; i < closes.length; i++) {
+            double change = closes[i] - closes[i - 1];
+            averageGain = (Math.max(change, 0) - averageGain) * multiplier + averageGain;
+            averageLoss = (Math.max(-change, 0) - averageLoss) * multiplier + averageLoss;
+            if (averageLoss == 0) {
+                result[i] = averageGain == 0 ? 0 : 100;
+            } else {
+                result[i] = 100 - 100 / (1 + averageGain / averageLoss);
+            }
+        }
+        return result;
+    }
+
+    private static double[] smoothed(double[] values, double multiplier) {
+        double[] result = new double[values.length];
+        if (values.length == 0) {
+            return result;
+        }
+        result[0] = values[0];
+        for (int i = 1; i < values.length; i++) {
+            result[i] = (values[i] - result[i - 1]) * multiplier + result[i - 1];
+        }
+        return result;
+    }
+}
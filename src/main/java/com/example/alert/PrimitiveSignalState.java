@@ -0,0 +1,391 @@
+package com.example.alert;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static com.example.alert.StockAlertService.BBANDS_K;
+
+/**
+ * Running indicator state of a single symbol on primitive {@code double} values.
+ * <p>
+ * Follows the same recurrences as {@link SignalState} without allocating per bar. {@link Num} values are
+ * only created for the snapshots of the bars that are actually evaluated, as {@link DoubleNum}.
+ */
+public class PrimitiveSignalState implements IndicatorState {
+
+    private final int shortMaPeriod;
+    private final int longMaPeriod;
+    private final int timeWindow;
+    private final double macdShortMultiplier;
+    private final double macdLongMultiplier;
+    private final double macdSignalMultiplier;
+    private final double rsiMultiplier;
+
+    // Last closes, enough for the longest moving average
+    private final double[] closes;
+    // Compensated rolling sums, as plain running sums drift over long histories and flip near-ties of the
+    // moving averages that the decimal state resolves exactly
+    private double shortSum;
+    private double shortSumError;
+    private double longSum;
+    private double longSumError;
+    private double macdShortEma;
+    private double macdLongEma;
+    private double macdSignalEma;
+    private double averageGain;
+    private double averageLoss;
+    private double close;
+    private double shortMA;
+    private double longMA;
+    private double rsi;
+    private double macd;
+    private double previousShortMA;
+    private double previousLongMA;
+    private double previousMacd;
+    private double previousMacdSignal;
+    private long lastEpochDay;
+    private int count;
+
+    // Snapshots of the bars analyzeStock re-evaluates on each call
+    private final Deque<SignalSnapshot> recent;
+
+    public PrimitiveSignalState(StrategyConfig config) {
+        this.shortMaPeriod = config.getShortMaPeriod();
+        this.longMaPeriod = config.getLongMaPeriod();
+        this.timeWindow = config.getTimeWindow();
+        this.macdShortMultiplier = 2.0 / (config.getMacdShortPeriod() + 1);
+        this.macdLongMultiplier = 2.0 / (config.getMacdLongPeriod() + 1);
+        this.macdSignalMultiplier = 2.0 / (config.getMacdSignalPeriod() + 1);
+        this.rsiMultiplier = 1.0 / config.getRsiPeriod();
+        this.closes = new double[Math.max(shortMaPeriod, longMaPeriod)];
+        this.recent = new ArrayDeque<>(timeWindow + 1);
+    }
+
+    // Copies the running values, without the recent snapshots
+    private PrimitiveSignalState(PrimitiveSignalState state) {
+        this.shortMaPeriod = state.shortMaPeriod;
+        this.longMaPeriod = state.longMaPeriod;
+        this.timeWindow = state.timeWindow;
+        this.macdShortMultiplier = state.macdShortMultiplier;
+        this.macdLongMultiplier = state.macdLongMultiplier;
+        this.macdSignalMultiplier = state.macdSignalMultiplier;
+        this.rsiMultiplier = state.rsiMultiplier;
+        this.closes = state.closes.clone();
+        this.shortSum = state.shortSum;
+        this.shortSumError = state.shortSumError;
+        this.longSum = state.longSum;
+        this.longSumError = state.longSumError;
+        this.macdShortEma = state.macdShortEma;
+        this.macdLongEma = state.macdLongEma;
+        this.macdSignalEma = state.macdSignalEma;
+        this.averageGain = state.averageGain;
+        this.averageLoss = state.averageLoss;
+        this.close = state.close;
+        this.shortMA = state.shortMA;
+        this.longMA = state.longMA;
+        this.rsi = state.rsi;
+        this.macd = state.macd;
+        this.previousShortMA = state.previousShortMA;
+        this.previousLongMA = state.previousLongMA;
+        this.previousMacd = state.previousMacd;
+        this.previousMacdSignal = state.previousMacdSignal;
+        this.lastEpochDay = state.lastEpochDay;
+        this.count = state.count;
+        this.recent = new ArrayDeque<>(0);
+    }
+
+    @Override
+    public synchronized SignalSnapshot update(Bar bar) {
+        return update(bar.getEndTime().toLocalDate().toEpochDay(), bar.getClosePrice().doubleValue());
+    }
+
+    @Override
+    public synchronized LocalDate getLastDate() {
+        return count == 0 ? null : LocalDate.ofEpochDay(lastEpochDay);
+    }
+
+    @Override
+    public synchronized SignalSnapshot preview(Bar bar) {
+        PrimitiveSignalState next = new PrimitiveSignalState(this);
+        next.step(bar.getEndTime().toLocalDate().toEpochDay(), bar.getClosePrice().doubleValue());
+        return next.snapshot();
+    }
+
+    private SignalSnapshot update(long epochDay, double value) {
+        step(epochDay, value);
+        SignalSnapshot snapshot = snapshot();
+        if (recent.size() == timeWindow + 1) {
+            recent.removeFirst();
+        }
+        recent.addLast(snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public synchronized List<SignalSnapshot> advance(BarSeries barSeries) {
+        if (!continues(barSeries)) {
+            reset();
+        }
+        // Only the bars of the confirmation window need snapshots
+        int endIndex = barSeries.getEndIndex();
+        int firstSnapshotIndex = endIndex - timeWindow;
+        for (int i = count; i <= endIndex; i++) {
+            Bar bar = barSeries.getBar(i);
+            if (i >= firstSnapshotIndex) {
+                update(bar.getEndTime().toLocalDate().toEpochDay(), bar.getClosePrice().doubleValue());
+            } else {
+                step(bar.getEndTime().toLocalDate().toEpochDay(), bar.getClosePrice().doubleValue());
+            }
+        }
+        return new ArrayList<>(recent);
+    }
+
+    @Override
+    public synchronized List<SignalSnapshot> advance(BarColumns barColumns) {
+        if (!continues(barColumns)) {
+            reset();
+        }
+        int firstSnapshotIndex = barColumns.size() - 1 - timeWindow;
+        for (int i = count; i < barColumns.size(); i++) {
+            if (i >= firstSnapshotIndex) {
+                update(barColumns.epochDay(i), barColumns.close(i));
+            } else {
+                step(barColumns.epochDay(i), barColumns.close(i));
+            }
+        }
+        return new ArrayList<>(recent);
+    }
+
+    @Override
+    public synchronized void catchUp(BarColumns barColumns) {
+        int from = count == 0 ? 0 : barColumns.indexAfter(lastEpochDay);
+        int firstSnapshotIndex = barColumns.size() - 1 - timeWindow;
+        for (int i = from; i < barColumns.size(); i++) {
+            if (i >= firstSnapshotIndex) {
+                update(barColumns.epochDay(i), barColumns.close(i));
+            } else {
+                step(barColumns.epochDay(i), barColumns.close(i));
+            }
+        }
+    }
+
+    @Override
+    public synchronized List<SignalSnapshot> replay(BarColumns barColumns) {
+        int from = count == 0 ? 0 : barColumns.indexAfter(lastEpochDay);
+        List<SignalSnapshot> snapshots = new ArrayList<>(barColumns.size() - from);
+        for (int i = from; i < barColumns.size(); i++) {
+            snapshots.add(update(barColumns.epochDay(i), barColumns.close(i)));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Advances the state by one bar without creating a snapshot, for callers that only need one when
+     * {@link #isGoldenCross()}, {@link #isDeathCross()} or pending conditions call for it.
+     *
+     * @param epochDay Trading day of the bar, as days since 1970-01-01.
+     * @param value Close price of the bar.
+     */
+    public synchronized void step(long epochDay, double value) {
+
+        // Rolling sums for the simple moving averages
+        if (count >= longMaPeriod) {
+            double dropped = -closes[(count - longMaPeriod) % closes.length];
+            longSumError += roundingError(longSum, dropped);
+            longSum += dropped;
+        }
+        if (count >= shortMaPeriod) {
+            double dropped = -closes[(count - shortMaPeriod) % closes.length];
+            shortSumError += roundingError(shortSum, dropped);
+            shortSum += dropped;
+        }
+        closes[count % closes.length] = value;
+        shortSumError += roundingError(shortSum, value);
+        shortSum += value;
+        longSumError += roundingError(longSum, value);
+        longSum += value;
+        double nextShortMA = (shortSum + shortSumError) / Math.min(shortMaPeriod, count + 1);
+        double nextLongMA = (longSum + longSumError) / Math.min(longMaPeriod, count + 1);
+
+        // EMA and Wilder accumulators, seeded with the first value like ta4j does
+        if (count == 0) {
+            macdShortEma = value;
+            macdLongEma = value;
+            macdSignalEma = macdShortEma - macdLongEma;
+            averageGain = 0;
+            averageLoss = 0;
+        } else {
+            previousMacdSignal = macdSignalEma;
+            macdShortEma = ema(macdShortEma, value, macdShortMultiplier);
+            macdLongEma = ema(macdLongEma, value, macdLongMultiplier);
+            macdSignalEma = ema(macdSignalEma, macdShortEma - macdLongEma, macdSignalMultiplier);
+            averageGain = ema(averageGain, value > close ? value - close : 0, rsiMultiplier);
+            averageLoss = ema(averageLoss, value < close ? close - value : 0, rsiMultiplier);
+        }
+        double nextMacd = macdShortEma - macdLongEma;
+
+        // The first bar is its own predecessor, as ta4j returns the first value for index -1
+        previousShortMA = count == 0 ? nextShortMA : shortMA;
+        previousLongMA = count == 0 ? nextLongMA : longMA;
+        previousMacd = count == 0 ? nextMacd : macd;
+        if (count == 0) {
+            previousMacdSignal = macdSignalEma;
+        }
+
+        close = value;
+        shortMA = nextShortMA;
+        longMA = nextLongMA;
+        macd = nextMacd;
+        if (averageLoss == 0) {
+            rsi = averageGain == 0 ? 0 : 100;
+        } else {
+            rsi = 100 - 100 / (1 + averageGain / averageLoss);
+        }
+        lastEpochDay = epochDay;
+        count++;
+    }
+
+    public synchronized boolean isGoldenCross() {
+        return shortMA > longMA && previousShortMA <= previousLongMA;
+    }
+
+    public synchronized boolean isDeathCross() {
+        return shortMA < longMA && previousShortMA >= previousLongMA;
+    }
+
+    /**
+     * Indicator values at the last bar stepped over.
+     */
+    public synchronized SignalSnapshot snapshot() {
+        // The Bollinger graph uses the close price both as the middle band and as the deviation
+        double deviation = close * BBANDS_K;
+        return new SignalSnapshot(LocalDate.ofEpochDay(lastEpochDay), DoubleNum.valueOf(close),
+                DoubleNum.valueOf(shortMA), DoubleNum.valueOf(longMA), DoubleNum.valueOf(rsi),
+                DoubleNum.valueOf(macd), DoubleNum.valueOf(macdSignalEma),
+                DoubleNum.valueOf(close + deviation), DoubleNum.valueOf(close - deviation),
+                DoubleNum.valueOf(previousShortMA), DoubleNum.valueOf(previousLongMA),
+                DoubleNum.valueOf(previousMacd), DoubleNum.valueOf(previousMacdSignal),
+                DoubleNum::valueOf);
+    }
+
+    /**
+     * Writes everything needed to continue with the next bar, including the snapshots of the last bars.
+     */
+    @Override
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeInt(count);
+        out.writeLong(lastEpochDay);
+        for (double value : closes) {
+            out.writeDouble(value);
+        }
+        double[] scalars = {shortSum, shortSumError, longSum, longSumError, macdShortEma, macdLongEma, macdSignalEma,
+                averageGain, averageLoss,
+                close, shortMA, longMA, rsi, macd, previousShortMA, previousLongMA, previousMacd, previousMacdSignal};
+        for (double value : scalars) {
+            out.writeDouble(value);
+        }
+        out.writeInt(recent.size());
+        for (SignalSnapshot snapshot : recent) {
+            out.writeLong(snapshot.getDate().toEpochDay());
+            out.writeDouble(snapshot.getClose().doubleValue());
+            out.writeDouble(snapshot.getShortMA().doubleValue());
+            out.writeDouble(snapshot.getLongMA().doubleValue());
+            out.writeDouble(snapshot.getRsi().doubleValue());
+            out.writeDouble(snapshot.getMacd().doubleValue());
+            out.writeDouble(snapshot.getMacdSignal().doubleValue());
+            out.writeDouble(snapshot.getPreviousShortMA().doubleValue());
+            out.writeDouble(snapshot.getPreviousLongMA().doubleValue());
+            out.writeDouble(snapshot.getPreviousMacd().doubleValue());
+            out.writeDouble(snapshot.getPreviousMacdSignal().doubleValue());
+        }
+    }
+
+    /**
+     * Reads a state written by {@link #writeTo} with the same strategy configuration.
+     */
+    static PrimitiveSignalState readFrom(ByteBuffer in, StrategyConfig config) {
+        PrimitiveSignalState state = new PrimitiveSignalState(config);
+        state.count = in.getInt();
+        state.lastEpochDay = in.getLong();
+        for (int i = 0; i < state.closes.length; i++) {
+            state.closes[i] = in.getDouble();
+        }
+        state.shortSum = in.getDouble();
+        state.shortSumError = in.getDouble();
+        state.longSum = in.getDouble();
+        state.longSumError = in.getDouble();
+        state.macdShortEma = in.getDouble();
+        state.macdLongEma = in.getDouble();
+        state.macdSignalEma = in.getDouble();
+        state.averageGain = in.getDouble();
+        state.averageLoss = in.getDouble();
+        state.close = in.getDouble();
+        state.shortMA = in.getDouble();
+        state.longMA = in.getDouble();
+        state.rsi = in.getDouble();
+        state.macd = in.getDouble();
+        state.previousShortMA = in.getDouble();
+        state.previousLongMA = in.getDouble();
+        state.previousMacd = in.getDouble();
+        state.previousMacdSignal = in.getDouble();
+        int recentCount = in.getInt();
+        for (int i = 0; i < recentCount; i++) {
+            LocalDate date = LocalDate.ofEpochDay(in.getLong());
+            double close = in.getDouble();
+            double deviation = close * BBANDS_K;
+            state.recent.addLast(new SignalSnapshot(date, DoubleNum.valueOf(close),
+                    DoubleNum.valueOf(in.getDouble()), DoubleNum.valueOf(in.getDouble()),
+                    DoubleNum.valueOf(in.getDouble()), DoubleNum.valueOf(in.getDouble()),
+                    DoubleNum.valueOf(in.getDouble()),
+                    DoubleNum.valueOf(close + deviation), DoubleNum.valueOf(close - deviation),
+                    DoubleNum.valueOf(in.getDouble()), DoubleNum.valueOf(in.getDouble()),
+                    DoubleNum.valueOf(in.getDouble()), DoubleNum.valueOf(in.getDouble()),
+                    DoubleNum::valueOf));
+        }
+        return state;
+    }
+
+    private boolean continues(BarSeries barSeries) {
+        if (count == 0 || count - 1 > barSeries.getEndIndex()) {
+            return false;
+        }
+        Bar lastSeen = barSeries.getBar(count - 1);
+        return lastSeen.getEndTime().toLocalDate().toEpochDay() == lastEpochDay
+                && lastSeen.getClosePrice().doubleValue() == close;
+    }
+
+    private boolean continues(BarColumns barColumns) {
+        return count > 0 && count <= barColumns.size()
+                && barColumns.epochDay(count - 1) == lastEpochDay && barColumns.close(count - 1) == close;
+    }
+
+    private void reset() {
+        shortSum = 0;
+        shortSumError = 0;
+        longSum = 0;
+        longSumError = 0;
+        count = 0;
+        recent.clear();
+    }
+
+    // Rounding error of sum + value, after Neumaier
+    static double roundingError(double sum, double value) {
+        double next = sum + value;
+        return Math.abs(sum) >= Math.abs(value) ? (sum - next) + value : (value - next) + sum;
+    }
+
+    private static double ema(double previous, double value, double multiplier) {
+        return (value - previous) * multiplier + previous;
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.alert;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a universe scan: the alerts of all symbols, the symbols that failed and the run statistics.
+ */
+public class ScanResult {
+
+    private final List<Alert> alerts;
+    private final Map<String, String> failures;
+    private final ScanStatistics statistics;
+
+    public ScanResult(List<Alert> alerts, Map<String, String> failures, ScanStatistics statistics) {
+        this.alerts = alerts;
+        this.failures = failures;
+        this.statistics = statistics;
+    }
+
+    /**
+     * Alerts ordered by stock symbol, and by bar within a symbol.
+     */
+    public List<Alert> getAlerts() { return alerts; }
+
+    /**
+     * Error message per failed stock symbol, ordered by stock symbol.
+     */
+    public Map<String, String> getFailures() { return failures; }
+
+    public ScanStatistics getStatistics() { return statistics; }
+}
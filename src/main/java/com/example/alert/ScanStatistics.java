@@ -0,0 +1,106 @@
+package com.example.alert;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Throughput and latency figures of a universe scan.
+ */
+public class ScanStatistics {
+
+    private final int symbolCount;
+    private final int failedCount;
+    private final int alertCount;
+    private final Duration elapsed;
+    private final Duration p50Latency;
+    private final Duration p99Latency;
+    private final List<SymbolLatency> slowestSymbols;
+
+    public ScanStatistics(int symbolCount, int failedCount, int alertCount, Duration elapsed,
+                          Duration p50Latency, Duration p99Latency, List<SymbolLatency> slowestSymbols) {
+        this.symbolCount = symbolCount;
+        this.failedCount = failedCount;
+        this.alertCount = alertCount;
+        this.elapsed = elapsed;
+        this.p50Latency = p50Latency;
+        this.p99Latency = p99Latency;
+        this.slowestSymbols = slowestSymbols;
+    }
+
+    /**
+     * Compute the statistics of a scan.
+     *
+     * @param latencies Per-symbol analysis latencies, in any order.
+     * @param failedCount Number of symbols whose analysis failed.
+     * @param alertCount Number of alerts generated.
+     * @param elapsed Wall-clock time of the whole scan.
+     * @param slowestCount Number of slowest symbols to report.
+     */
+    public static ScanStatistics of(List<SymbolLatency> latencies, int failedCount, int alertCount,
+                                    Duration elapsed, int slowestCount) {
+        List<SymbolLatency> sorted = latencies.stream()
+                .sorted((a, b) -> Long.compare(b.getNanos(), a.getNanos()))
+                .toList();
+        return new ScanStatistics(sorted.size(), failedCount, alertCount, elapsed,
+                percentile(sorted, 50), percentile(sorted, 99),
+                sorted.subList(0, Math.min(slowestCount, sorted.size())));
+    }
+
+    // Nearest-rank percentile over latencies sorted from slowest to fastest
+    private static Duration percentile(List<SymbolLatency> slowestFirst, int percentile) {
+        if (slowestFirst.isEmpty()) {
+            return Duration.ZERO;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * slowestFirst.size());
+        return Duration.ofNanos(slowestFirst.get(slowestFirst.size() - rank).getNanos());
+    }
+
+    // Getters
+    public int getSymbolCount() { return symbolCount; }
+
+    public int getFailedCount() { return failedCount; }
+
+    public int getAlertCount() { return alertCount; }
+
+    public Duration getElapsed() { return elapsed; }
+
+    public double getSymbolsPerSecond() {
+        long nanos = elapsed.toNanos();
+        return nanos == 0 ? 0 : symbolCount * 1_000_000_000.0 / nanos;
+    }
+
+    public Duration getP50Latency() { return p50Latency; }
+
+    public Duration getP99Latency() { return p99Latency; }
+
+    public List<SymbolLatency> getSlowestSymbols() { return slowestSymbols; }
+
+    @Override
+    public String toString() {
+        return symbolCount + " symbols (" + failedCount + " failed, " + alertCount + " alerts) in "
+                + elapsed.toMillis() + " ms, " + Math.round(getSymbolsPerSecond()) + " symbols/s, p50 "
+                + p50Latency.toNanos() / 1000 + " us, p99 " + p99Latency.toNanos() / 1000 + " us";
+    }
+
+    /**
+     * Analysis latency of a single symbol.
+     */
+    public static class SymbolLatency {
+        private final String stockSymbol;
+        private final long nanos;
+
+        public SymbolLatency(String stockSymbol, long nanos) {
+            this.stockSymbol = stockSymbol;
+            this.nanos = nanos;
+        }
+
+        public String getStockSymbol() { return stockSymbol; }
+
+        public long getNanos() { return nanos; }
+
+        @Override
+        public String toString() {
+            return stockSymbol + "=" + nanos / 1000 + "us";
+        }
+    }
+}
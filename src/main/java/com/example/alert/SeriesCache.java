@@ -0,0 +1,181 @@
+package com.example.alert;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of the bar series and built {@link IndicatorGraph} of recently analyzed symbols.
+ * <p>
+ * The series are trimmed to {@link #maximumBarCount(StrategyConfig)} bars, so an entry has a fixed size and
+ * adding a bar only computes the indicator values of that bar. Entries are evicted least recently used first
+ * when the cache holds more symbols than {@code alert.cache.max-symbols} or than fit in
+ * {@code alert.cache.memory-budget}, and once they were not used for {@code alert.cache.max-idle}.
+ * <p>
+ * The cache does not serialize work on an entry; callers hold a lock per symbol while they use one.
+ */
+@Component
+public class SeriesCache {
+
+    /**
+     * Rough heap taken by one cached bar: the bar itself with {@code DecimalNum} prices and the values the
+     * indicators cached for it.
+     */
+    static final long BYTES_PER_BAR = 2048;
+
+    // The weight of the bars an EMA dropped is below e^-20 after ten periods, that of a Wilder average after twenty
+    private static final int EMA_SETTLING_PERIODS = 10;
+    private static final int WILDER_SETTLING_PERIODS = 20;
+
+    private final int maximumBarCount;
+    private final int maxEntries;
+    private final long maxIdleNanos;
+    private final LongSupplier nanoTime;
+
+    // Access ordered, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Entry> entries;
+    private long hits;
+    private long misses;
+    private long sizeEvictions;
+    private long idleEvictions;
+
+    @Autowired
+    public SeriesCache(AlertProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    SeriesCache(AlertProperties properties, MeterRegistry registry, LongSupplier nanoTime) {
+        AlertProperties.Cache cache = properties.getCache();
+        this.maximumBarCount = maximumBarCount(properties.getStrategy());
+        long budgetEntries = cache.getMemoryBudget().toBytes() / (maximumBarCount * BYTES_PER_BAR);
+        this.maxEntries = (int) Math.max(1, Math.min(cache.getMaxSymbols(), budgetEntries));
+        this.maxIdleNanos = cache.getMaxIdle().toNanos();
+        this.nanoTime = nanoTime;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > maxEntries) {
+                    sizeEvictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        FunctionCounter.builder("alert.cache.requests", this, SeriesCache::getHits)
+                .description("Lookups of cached bar series").tag("result", "hit").register(registry);
+        FunctionCounter.builder("alert.cache.requests", this, SeriesCache::getMisses)
+                .description("Lookups of cached bar series").tag("result", "miss").register(registry);
+        FunctionCounter.builder("alert.cache.evictions", this, SeriesCache::getSizeEvictions)
+                .description("Bar series evicted from the cache").tag("cause", "size").register(registry);
+        FunctionCounter.builder("alert.cache.evictions", this, SeriesCache::getIdleEvictions)
+                .description("Bar series evicted from the cache").tag("cause", "idle").register(registry);
+        Gauge.builder("alert.cache.size", this, SeriesCache::size)
+                .description("Symbols with a cached bar series").register(registry);
+    }
+
+    /**
+     * The number of bars a cached series keeps: the longest moving average plus the confirmation window, or,
+     * if longer, the bars after which the exponential averages no longer depend on the bars they dropped.
+     */
+    public static int maximumBarCount(StrategyConfig config) {
+        int movingAverages = Math.max(config.getShortMaPeriod(), config.getLongMaPeriod());
+        int macd = EMA_SETTLING_PERIODS * (Math.max(config.getMacdShortPeriod(), config.getMacdLongPeriod())
+                + config.getMacdSignalPeriod());
+        int rsi = WILDER_SETTLING_PERIODS * config.getRsiPeriod();
+        return Math.max(movingAverages, Math.max(macd, rsi)) + config.getTimeWindow() + 1;
+    }
+
+    public int getMaximumBarCount() {
+        return maximumBarCount;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Get the cached indicator graph of a symbol, or load and cache it.
+     *
+     * @param loader Builds the graph of a symbol that is not cached, on a series trimmed to
+     *               {@link #getMaximumBarCount()} bars. It runs outside the cache lock.
+     */
+    public IndicatorGraph get(String stockSymbol, Function<String, IndicatorGraph> loader) {
+        long now = nanoTime.getAsLong();
+        synchronized (this) {
+            evictIdle(now);
+            Entry entry = entries.get(stockSymbol);
+            if (entry != null) {
+                hits++;
+                entry.lastAccess = now;
+                return entry.graph;
+            }
+            misses++;
+        }
+        IndicatorGraph graph = loader.apply(stockSymbol);
+        synchronized (this) {
+            entries.put(stockSymbol, new Entry(graph, now));
+        }
+        return graph;
+    }
+
+    /**
+     * Drop the entries that were not used for {@code alert.cache.max-idle}. Lookups do this as well; the
+     * schedule frees the memory of a cache that is no longer used.
+     */
+    @Scheduled(initialDelayString = "${alert.cache.max-idle:PT30M}", fixedDelayString = "${alert.cache.max-idle:PT30M}")
+    public synchronized void evictIdle() {
+        evictIdle(nanoTime.getAsLong());
+    }
+
+    private void evictIdle(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().lastAccess < maxIdleNanos) {
+                // Later entries were used more recently
+                return;
+            }
+            iterator.remove();
+            idleEvictions++;
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getSizeEvictions() {
+        return sizeEvictions;
+    }
+
+    public synchronized long getIdleEvictions() {
+        return idleEvictions;
+    }
+
+    private static class Entry {
+        final IndicatorGraph graph;
+        long lastAccess;
+
+        Entry(IndicatorGraph graph, long lastAccess) {
+            this.graph = graph;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.alert;
+
+import org.springframework.stereotype.Component;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps an {@link IndicatorState} per symbol so that indicator values are carried over between calls.
+ */
+@Component
+public class SignalEngine {
+
+    private final Map<String, IndicatorState> states = new ConcurrentHashMap<>();
+    private final AlertProperties properties;
+
+    public SignalEngine(AlertProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Catches the symbol's state up with the bar series.
+     *
+     * @param stockSymbol The stock symbol being analyzed.
+     * @param barSeries A BarSeries object without removed bars.
+     * @return The snapshots of the last {@code timeWindow + 1} bars, oldest first.
+     */
+    public List<SignalSnapshot> advance(String stockSymbol, BarSeries barSeries) {
+        return states.computeIfAbsent(stockSymbol, symbol -> newState(numFunctionOf(barSeries))).advance(barSeries);
+    }
+
+    /**
+     * Catches the symbol's state up with the bars read from the {@link ColumnarBarStore}.
+     *
+     * @param stockSymbol The stock symbol being analyzed.
+     * @param barColumns The stored bars of the symbol.
+     * @return The snapshots of the last {@code timeWindow + 1} bars, oldest first.
+     */
+    public List<SignalSnapshot> advance(String stockSymbol, BarColumns barColumns) {
+        return states.computeIfAbsent(stockSymbol, symbol -> newState(DecimalNum::valueOf)).advance(barColumns);
+    }
+
+    /**
+     * Advances the symbol's state by the stored bars after its last bar, starting a state if the symbol has
+     * none, for a state that is missing or behind the {@link ColumnarBarStore}, as after a restart.
+     *
+     * @param stockSymbol The stock symbol the bars belong to.
+     * @param barColumns The stored bars of the symbol.
+     */
+    public void catchUp(String stockSymbol, BarColumns barColumns) {
+        states.computeIfAbsent(stockSymbol, symbol -> newState(DecimalNum::valueOf)).catchUp(barColumns);
+    }
+
+    /**
+     * Advances the symbol's state by the stored bars after its last bar, like {@link #catchUp}, for a state
+     * restored from a checkpoint that is older than the {@link ColumnarBarStore}.
+     *
+     * @param stockSymbol The stock symbol the bars belong to.
+     * @param barColumns The stored bars of the symbol.
+     * @return The snapshots of the bars the state advanced by, oldest first; none if the symbol has no state.
+     */
+    public List<SignalSnapshot> replay(String stockSymbol, BarColumns barColumns) {
+        IndicatorState state = states.get(stockSymbol);
+        return state != null ? state.replay(barColumns) : List.of();
+    }
+
+    /**
+     * Advances the symbol's state by a single bar. In decimal mode, symbols seen for the first time use
+     * {@link DecimalNum}, the default {@link Num} type of ta4j bar series.
+     *
+     * @param stockSymbol The stock symbol the bar belongs to.
+     * @param bar The next daily bar, of a later day than the last bar of the state.
+     * @return The indicator values at this bar.
+     */
+    public SignalSnapshot onBar(String stockSymbol, Bar bar) {
+        IndicatorState state = states.computeIfAbsent(stockSymbol, symbol -> newState(DecimalNum::valueOf));
+        LocalDate lastDate = state.getLastDate();
+        LocalDate date = bar.getEndTime().toLocalDate();
+        if (lastDate != null && !date.isAfter(lastDate)) {
+            throw new IllegalArgumentException("Bar of " + date + " does not follow the last bar of " + stockSymbol
+                    + " of " + lastDate);
+        }
+        return state.update(bar);
+    }
+
+    /**
+     * The date of the last bar the state of a symbol advanced by, or {@code null} if it has none.
+     */
+    public LocalDate lastDate(String stockSymbol) {
+        IndicatorState state = states.get(stockSymbol);
+        return state != null ? state.getLastDate() : null;
+    }
+
+    /**
+     * The indicator values after a bar that is still forming, without advancing the symbol's state.
+     *
+     * @param stockSymbol The stock symbol the bar belongs to.
+     * @param bar The partial bar that follows the last bar of the symbol.
+     * @return The indicator values at this bar.
+     */
+    public SignalSnapshot preview(String stockSymbol, Bar bar) {
+        IndicatorState state = states.get(stockSymbol);
+        return (state != null ? state : newState(DecimalNum::valueOf)).preview(bar);
+    }
+
+    /**
+     * Drops the state of a symbol, so that the next call rebuilds it from the first bar.
+     */
+    public void reset(String stockSymbol) {
+        states.remove(stockSymbol);
+    }
+
+    /**
+     * The symbols that have a state.
+     */
+    public Set<String> symbols() {
+        return new HashSet<>(states.keySet());
+    }
+
+    /**
+     * The states of all symbols, which is what a {@link StateCheckpoint} holds.
+     */
+    public Map<String, IndicatorState> states() {
+        return new HashMap<>(states);
+    }
+
+    /**
+     * Replaces the state of a symbol with one restored from a checkpoint. A state of the other numeric mode
+     * than the engine runs with is not restored, so that the symbol is rebuilt from its stored bars instead.
+     *
+     * @return Whether the state was restored.
+     */
+    public boolean restore(String stockSymbol, IndicatorState state) {
+        boolean primitive = properties.getEngine().getNumeric() == AlertProperties.Engine.Numeric.PRIMITIVE;
+        if (primitive != (state instanceof PrimitiveSignalState)) {
+            return false;
+        }
+        states.put(stockSymbol, state);
+        return true;
+    }
+
+    private IndicatorState newState(Function<Number, Num> numFunction) {
+        return properties.getEngine().getNumeric() == AlertProperties.Engine.Numeric.PRIMITIVE
+                ? new PrimitiveSignalState(properties.getStrategy())
+                : new SignalState(numFunction, properties.getStrategy());
+    }
+
+    /**
+     * Resolves the {@link Num} factory of a bar series without keeping a reference to the series itself.
+     */
+    static Function<Number, Num> numFunctionOf(BarSeries barSeries) {
+        return barSeries.numOf(0) instanceof DoubleNum ? DoubleNum::valueOf : DecimalNum::valueOf;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.alert;
+
+import org.ta4j.core.num.Num;
+
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Indicator values of a single bar together with the values of the bar before it, which is
+ * everything the cross and confirmation rules of {@link StockAlertService} look at.
+ */
+public class SignalSnapshot {
+    private final LocalDate date;
+    private final Num close;
+    private final Num shortMA;
+    private final Num longMA;
+    private final Num rsi;
+    private final Num macd;
+    private final Num macdSignal;
+    private final Num upperBB;
+    private final Num lowerBB;
+    private final Num previousShortMA;
+    private final Num previousLongMA;
+    private final Num previousMacd;
+    private final Num previousMacdSignal;
+    private final Function<Number, Num> numFunction;
+
+    public SignalSnapshot(LocalDate date, Num close, Num shortMA, Num longMA, Num rsi, Num macd, Num macdSignal,
+                          Num upperBB, Num lowerBB, Num previousShortMA, Num previousLongMA, Num previousMacd,
+                          Num previousMacdSignal, Function<Number, Num> numFunction) {
+        this.date = date;
+        this.close = close;
+        this.shortMA = shortMA;
+        this.longMA = longMA;
+        this.rsi = rsi;
+        this.macd = macd;
+        this.macdSignal = macdSignal;
+        this.upperBB = upperBB;
+        this.lowerBB = lowerBB;
+        this.previousShortMA = previousShortMA;
+        this.previousLongMA = previousLongMA;
+        this.previousMacd = previousMacd;
+        this.previousMacdSignal = previousMacdSignal;
+        this.numFunction = numFunction;
+    }
+
+    public boolean isGoldenCross() {
+        return shortMA.isGreaterThan(longMA) && previousShortMA.isLessThanOrEqual(previousLongMA);
+    }
+
+    public boolean isDeathCross() {
+        return shortMA.isLessThan(longMA) && previousShortMA.isGreaterThanOrEqual(previousLongMA);
+    }
+
+    public boolean isMacdBullish() {
+        return macd.isGreaterThan(macdSignal) && previousMacd.isLessThanOrEqual(previousMacdSignal);
+    }
+
+    public boolean isMacdBearish() {
+        return macd.isLessThan(macdSignal) && previousMacd.isGreaterThanOrEqual(previousMacdSignal);
+    }
+
+    /**
+     * Creates a number of the same {@link Num} type as the snapshot values.
+     */
+    public Num numOf(Number value) {
+        return numFunction.apply(value);
+    }
+
+    // Getters
+    public LocalDate getDate() { return date; }
+
+    public Num getClose() { return close; }
+
+    public Num getShortMA() { return shortMA; }
+
+    public Num getLongMA() { return longMA; }
+
+    public Num getRsi() { return rsi; }
+
+    public Num getMacd() { return macd; }
+
+    public Num getMacdSignal() { return macdSignal; }
+
+    public Num getUpperBB() { return upperBB; }
+
+    public Num getLowerBB() { return lowerBB; }
+
+    public Num getPreviousShortMA() { return previousShortMA; }
+
+    public Num getPreviousLongMA() { return previousLongMA; }
+
+    public Num getPreviousMacd() { return previousMacd; }
+
+    public Num getPreviousMacdSignal() { return previousMacdSignal; }
+}
@@ -0,0 +1,359 @@
+package com.example.alert;
+
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.num.DecimalNum;
+import org.ta4j.core.num.DoubleNum;
+import org.ta4j.core.num.Num;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Function;
+
+import static com.example.alert.StockAlertService.BBANDS_K;
+
+/**
+ * Running indicator state of a single symbol.
+ * <p>
+ * Produces the same values as the ta4j indicator graph built by {@link StockAlertService} (SMA, Wilder RSI,
+ * MACD with its EMA signal line and the Bollinger bands), using the same {@link Num} operations in the same
+ * order, but advances one bar at a time instead of recomputing the history on each call.
+ */
+public class SignalState implements IndicatorState {
+
+    private final Function<Number, Num> numFunction;
+    private final Num zero;
+    private final Num macdShortMultiplier;
+    private final Num macdLongMultiplier;
+    private final Num macdSignalMultiplier;
+    private final Num rsiMultiplier;
+    private final Num hundred;
+    private final Num one;
+    private final Num bollingerK;
+
+    private final int shortMaPeriod;
+    private final int longMaPeriod;
+    private final int windowSize;
+
+    // Last closes, enough for the longest moving average
+    private final Num[] closes;
+    private Num shortSum;
+    private Num longSum;
+    private Num macdShortEma;
+    private Num macdLongEma;
+    private Num macdSignalEma;
+    private Num averageGain;
+    private Num averageLoss;
+    private Num previousClose;
+    private Num previousShortMA;
+    private Num previousLongMA;
+    private Num previousMacd;
+    private Num previousMacdSignal;
+    private LocalDate lastDate;
+    private int count;
+
+    // Snapshots of the bars analyzeStock re-evaluates on each call
+    private final Deque<SignalSnapshot> recent;
+
+    public SignalState(Function<Number, Num> numFunction, StrategyConfig config) {
+        this.numFunction = numFunction;
+        this.shortMaPeriod = config.getShortMaPeriod();
+        this.longMaPeriod = config.getLongMaPeriod();
+        this.windowSize = config.getTimeWindow() + 1;
+        this.closes = new Num[Math.max(shortMaPeriod, longMaPeriod)];
+        this.recent = new ArrayDeque<>(windowSize);
+        this.zero = numFunction.apply(0);
+        this.macdShortMultiplier = numFunction.apply(2.0 / (config.getMacdShortPeriod() + 1));
+        this.macdLongMultiplier = numFunction.apply(2.0 / (config.getMacdLongPeriod() + 1));
+        this.macdSignalMultiplier = numFunction.apply(2.0 / (config.getMacdSignalPeriod() + 1));
+        this.rsiMultiplier = numFunction.apply(1.0 / config.getRsiPeriod());
+        this.hundred = numFunction.apply(100);
+        this.one = numFunction.apply(1);
+        this.bollingerK = numFunction.apply(BBANDS_K);
+        reset();
+    }
+
+    // Copies the running values, without the recent snapshots
+    private SignalState(SignalState state) {
+        this.numFunction = state.numFunction;
+        this.zero = state.zero;
+        this.macdShortMultiplier = state.macdShortMultiplier;
+        this.macdLongMultiplier = state.macdLongMultiplier;
+        this.macdSignalMultiplier = state.macdSignalMultiplier;
+        this.rsiMultiplier = state.rsiMultiplier;
+        this.hundred = state.hundred;
+        this.one = state.one;
+        this.bollingerK = state.bollingerK;
+        this.shortMaPeriod = state.shortMaPeriod;
+        this.longMaPeriod = state.longMaPeriod;
+        this.windowSize = state.windowSize;
+        this.closes = state.closes.clone();
+        this.shortSum = state.shortSum;
+        this.longSum = state.longSum;
+        this.macdShortEma = state.macdShortEma;
+        this.macdLongEma = state.macdLongEma;
+        this.macdSignalEma = state.macdSignalEma;
+        this.averageGain = state.averageGain;
+        this.averageLoss = state.averageLoss;
+        this.previousClose = state.previousClose;
+        this.previousShortMA = state.previousShortMA;
+        this.previousLongMA = state.previousLongMA;
+        this.previousMacd = state.previousMacd;
+        this.previousMacdSignal = state.previousMacdSignal;
+        this.lastDate = state.lastDate;
+        this.count = state.count;
+        this.recent = new ArrayDeque<>(1);
+    }
+
+    /**
+     * Advances the state by one bar. The bar must use the same {@link Num} type as this state.
+     */
+    @Override
+    public synchronized SignalSnapshot update(Bar bar) {
+        return update(bar.getEndTime().toLocalDate(), bar.getClosePrice());
+    }
+
+    @Override
+    public synchronized LocalDate getLastDate() {
+        return lastDate;
+    }
+
+    @Override
+    public synchronized SignalSnapshot preview(Bar bar) {
+        return new SignalState(this).update(bar);
+    }
+
+    private SignalSnapshot update(LocalDate date, Num close) {
+
+        // Rolling sums for the simple moving averages
+        if (count >= longMaPeriod) {
+            longSum = longSum.minus(closes[(count - longMaPeriod) % closes.length]);
+        }
+        if (count >= shortMaPeriod) {
+            shortSum = shortSum.minus(closes[(count - shortMaPeriod) % closes.length]);
+        }
+        closes[count % closes.length] = close;
+        shortSum = shortSum.plus(close);
+        longSum = longSum.plus(close);
+        Num shortMA = shortSum.dividedBy(numFunction.apply(Math.min(shortMaPeriod, count + 1)));
+        Num longMA = longSum.dividedBy(numFunction.apply(Math.min(longMaPeriod, count + 1)));
+
+        // EMA and Wilder accumulators, seeded with the first value like ta4j does
+        Num macd;
+        if (count == 0) {
+            macdShortEma = close;
+            macdLongEma = close;
+            macd = macdShortEma.minus(macdLongEma);
+            macdSignalEma = macd;
+            averageGain = zero;
+            averageLoss = zero;
+        } else {
+            macdShortEma = ema(macdShortEma, close, macdShortMultiplier);
+            macdLongEma = ema(macdLongEma, close, macdLongMultiplier);
+            macd = macdShortEma.minus(macdLongEma);
+            macdSignalEma = ema(macdSignalEma, macd, macdSignalMultiplier);
+            Num gain = close.isGreaterThan(previousClose) ? close.minus(previousClose) : zero;
+            Num loss = close.isLessThan(previousClose) ? previousClose.minus(close) : zero;
+            averageGain = ema(averageGain, gain, rsiMultiplier);
+            averageLoss = ema(averageLoss, loss, rsiMultiplier);
+        }
+
+        // The Bollinger graph uses the close price both as the middle band and as the deviation
+        Num deviation = close.multipliedBy(bollingerK);
+        Num upperBB = close.plus(deviation);
+        Num lowerBB = close.minus(deviation);
+
+        // The first bar is its own predecessor, as ta4j returns the first value for index -1
+        SignalSnapshot snapshot = new SignalSnapshot(date, close, shortMA, longMA,
+                rsi(), macd, macdSignalEma, upperBB, lowerBB,
+                count == 0 ? shortMA : previousShortMA,
+                count == 0 ? longMA : previousLongMA,
+                count == 0 ? macd : previousMacd,
+                count == 0 ? macdSignalEma : previousMacdSignal,
+                numFunction);
+
+        previousClose = close;
+        previousShortMA = shortMA;
+        previousLongMA = longMA;
+        previousMacd = macd;
+        previousMacdSignal = macdSignalEma;
+        lastDate = date;
+        count++;
+
+        if (recent.size() == windowSize) {
+            recent.removeFirst();
+        }
+        recent.addLast(snapshot);
+        return snapshot;
+    }
+
+    @Override
+    public synchronized List<SignalSnapshot> advance(BarSeries barSeries) {
+        if (!continues(barSeries)) {
+            reset();
+        }
+        for (int i = count; i <= barSeries.getEndIndex(); i++) {
+            update(barSeries.getBar(i));
+        }
+        return new ArrayList<>(recent);
+    }
+
+    @Override
+    public synchronized List<SignalSnapshot> advance(BarColumns barColumns) {
+        if (!continues(barColumns)) {
+            reset();
+        }
+        for (int i = count; i < barColumns.size(); i++) {
+            update(LocalDate.ofEpochDay(barColumns.epochDay(i)), numFunction.apply(barColumns.close(i)));
+        }
+        return new ArrayList<>(recent);
+    }
+
+    @Override
+    public synchronized void catchUp(BarColumns barColumns) {
+        int from = lastDate == null ? 0 : barColumns.indexAfter(lastDate.toEpochDay());
+        for (int i = from; i < barColumns.size(); i++) {
+            update(LocalDate.ofEpochDay(barColumns.epochDay(i)), numFunction.apply(barColumns.close(i)));
+        }
+    }
+
+    @Override
+    public synchronized List<SignalSnapshot> replay(BarColumns barColumns) {
+        int from = lastDate == null ? 0 : barColumns.indexAfter(lastDate.toEpochDay());
+        List<SignalSnapshot> snapshots = new ArrayList<>(barColumns.size() - from);
+        for (int i = from; i < barColumns.size(); i++) {
+            snapshots.add(update(LocalDate.ofEpochDay(barColumns.epochDay(i)), numFunction.apply(barColumns.close(i))));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Writes everything needed to continue with the next bar, including the snapshots of the last bars. The
+     * values are written as their decimal strings, which {@link DecimalNum} and {@link DoubleNum} read back
+     * exactly.
+     */
+    @Override
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeBoolean(zero instanceof DoubleNum);
+        out.writeInt(count);
+        if (count == 0) {
+            return;
+        }
+        out.writeLong(lastDate.toEpochDay());
+        for (int i = 0; i < Math.min(count, closes.length); i++) {
+            writeNum(out, closes[i]);
+        }
+        Num[] scalars = {shortSum, longSum, macdShortEma, macdLongEma, macdSignalEma, averageGain, averageLoss,
+                previousClose, previousShortMA, previousLongMA, previousMacd, previousMacdSignal};
+        for (Num value : scalars) {
+            writeNum(out, value);
+        }
+        out.writeInt(recent.size());
+        for (SignalSnapshot snapshot : recent) {
+            out.writeLong(snapshot.getDate().toEpochDay());
+            Num[] values = {snapshot.getClose(), snapshot.getShortMA(), snapshot.getLongMA(), snapshot.getRsi(),
+                    snapshot.getMacd(), snapshot.getMacdSignal(), snapshot.getPreviousShortMA(),
+                    snapshot.getPreviousLongMA(), snapshot.getPreviousMacd(), snapshot.getPreviousMacdSignal()};
+            for (Num value : values) {
+                writeNum(out, value);
+            }
+        }
+    }
+
+    /**
+     * Reads a state written by {@link #writeTo} with the same strategy configuration.
+     */
+    static SignalState readFrom(ByteBuffer in, StrategyConfig config) {
+        boolean doubles = in.get() != 0;
+        Function<String, Num> parse = doubles ? DoubleNum::valueOf : DecimalNum::valueOf;
+        SignalState state = new SignalState(doubles ? DoubleNum::valueOf : DecimalNum::valueOf, config);
+        int count = in.getInt();
+        if (count == 0) {
+            return state;
+        }
+        state.count = count;
+        state.lastDate = LocalDate.ofEpochDay(in.getLong());
+        for (int i = 0; i < Math.min(count, state.closes.length); i++) {
+            state.closes[i] = readNum(in, parse);
+        }
+        state.shortSum = readNum(in, parse);
+        state.longSum = readNum(in, parse);
+        state.macdShortEma = readNum(in, parse);
+        state.macdLongEma = readNum(in, parse);
+        state.macdSignalEma = readNum(in, parse);
+        state.averageGain = readNum(in, parse);
+        state.averageLoss = readNum(in, parse);
+        state.previousClose = readNum(in, parse);
+        state.previousShortMA = readNum(in, parse);
+        state.previousLongMA = readNum(in, parse);
+        state.previousMacd = readNum(in, parse);
+        state.previousMacdSignal = readNum(in, parse);
+        int recentCount = in.getInt();
+        for (int i = 0; i < recentCount; i++) {
+            LocalDate date = LocalDate.ofEpochDay(in.getLong());
+            Num close = readNum(in, parse);
+            Num deviation = close.multipliedBy(state.bollingerK);
+            state.recent.addLast(new SignalSnapshot(date, close, readNum(in, parse), readNum(in, parse),
+                    readNum(in, parse), readNum(in, parse), readNum(in, parse),
+                    close.plus(deviation), close.minus(deviation),
+                    readNum(in, parse), readNum(in, parse), readNum(in, parse), readNum(in, parse),
+                    state.numFunction));
+        }
+        return state;
+    }
+
+    private static void writeNum(DataOutput out, Num value) throws IOException {
+        byte[] bytes = value.toString().getBytes(StandardCharsets.US_ASCII);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static Num readNum(ByteBuffer in, Function<String, Num> parse) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return parse.apply(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    private boolean continues(BarSeries barSeries) {
+        if (count == 0 || count - 1 > barSeries.getEndIndex()) {
+            return false;
+        }
+        Bar lastSeen = barSeries.getBar(count - 1);
+        return lastSeen.getEndTime().toLocalDate().equals(lastDate) && lastSeen.getClosePrice().isEqual(previousClose);
+    }
+
+    private boolean continues(BarColumns barColumns) {
+        if (count == 0 || count > barColumns.size()) {
+            return false;
+        }
+        return barColumns.epochDay(count - 1) == lastDate.toEpochDay()
+                && numFunction.apply(barColumns.close(count - 1)).isEqual(previousClose);
+    }
+
+    private void reset() {
+        shortSum = zero;
+        longSum = zero;
+        count = 0;
+        lastDate = null;
+        recent.clear();
+    }
+
+    private Num rsi() {
+        if (averageLoss.isZero()) {
+            return averageGain.isZero() ? zero : hundred;
+        }
+        Num relativeStrength = averageGain.dividedBy(averageLoss);
+        return hundred.minus(hundred.dividedBy(one.plus(relativeStrength)));
+    }
+
+    private static Num ema(Num previous, Num value, Num multiplier) {
+        return value.minus(previous).multipliedBy(multiplier).plus(previous);
+    }
+}
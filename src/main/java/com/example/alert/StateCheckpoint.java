@@ -0,0 +1,224 @@
+package com.example.alert;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary checkpoint of the running indicator states and the primary conditions.
+ * <p>
+ * The file holds a header (magic, version, creation time and the strategy configuration the states were
+ * built with), then per symbol its name, the kind of its state and the {@link PrimitiveSignalState} or
+ * {@link SignalState} fields, then the conditions as
+ * symbol, type ordinal, epoch day and confirmation flag, then per symbol its name and stored bars. It is written
+ * to a temporary file and moved into place, so a crash never leaves a truncated checkpoint, and read through a
+ * memory mapping. Checkpoint files carry no bars, which stay in the {@link ColumnarBarStore}. The same format
+ * carries the state of the symbols one cluster member hands over to another, with their bars.
+ */
+public class StateCheckpoint {
+
+    private static final int MAGIC = 0x434B5054; // "CKPT"
+    private static final int VERSION = 4;
+    private static final byte PRIMITIVE_STATE = 0;
+    private static final byte NUM_STATE = 1;
+
+    private final Instant createdAt;
+    private final Map<String, IndicatorState> states;
+    private final List<PrimaryCondition> conditions;
+    private final Map<String, BarColumns> bars;
+
+    StateCheckpoint(Instant createdAt, Map<String, IndicatorState> states, List<PrimaryCondition> conditions,
+                    Map<String, BarColumns> bars) {
+        this.createdAt = createdAt;
+        this.states = states;
+        this.conditions = conditions;
+        this.bars = bars;
+    }
+
+    public Instant getCreatedAt() { return createdAt; }
+
+    public Map<String, IndicatorState> getStates() { return states; }
+
+    /**
+     * The checkpointed conditions, without ids.
+     */
+    public List<PrimaryCondition> getConditions() { return conditions; }
+
+    /**
+     * The stored bars of the symbols, copied to the heap.
+     */
+    public Map<String, BarColumns> getBars() { return bars; }
+
+    /**
+     * Write a checkpoint, replacing the previous one.
+     */
+    public static void write(Path file, StrategyConfig config, Map<String, ? extends IndicatorState> states,
+                             List<PrimaryCondition> conditions) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (OutputStream out = Files.newOutputStream(temporary)) {
+            write(out, config, states, conditions);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Write a checkpoint to a stream, which is left open.
+     */
+    public static void write(OutputStream stream, StrategyConfig config, Map<String, ? extends IndicatorState> states,
+                             List<PrimaryCondition> conditions) throws IOException {
+        write(stream, config, states, conditions, Map.of());
+    }
+
+    /**
+     * Write a checkpoint with the stored bars of the symbols to a stream, which is left open.
+     */
+    public static void write(OutputStream stream, StrategyConfig config, Map<String, ? extends IndicatorState> states,
+                             List<PrimaryCondition> conditions, Map<String, BarColumns> bars) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(Instant.now().toEpochMilli());
+        writeConfig(out, config);
+
+        out.writeInt(states.size());
+        for (Map.Entry<String, ? extends IndicatorState> entry : states.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeByte(entry.getValue() instanceof PrimitiveSignalState ? PRIMITIVE_STATE : NUM_STATE);
+            entry.getValue().writeTo(out);
+        }
+
+        out.writeInt(conditions.size());
+        for (PrimaryCondition condition : conditions) {
+            writeString(out, condition.getStockSymbol());
+            out.writeByte(condition.getConditionType().ordinal());
+            out.writeInt((int) condition.getOccurrenceDate().toEpochDay());
+            out.writeBoolean(condition.isConfirmed());
+        }
+
+        out.writeInt(bars.size());
+        for (Map.Entry<String, BarColumns> entry : bars.entrySet()) {
+            writeString(out, entry.getKey());
+            entry.getValue().writeTo(out);
+        }
+        out.flush();
+    }
+
+    /**
+     * Read a checkpoint.
+     *
+     * @param file The checkpoint file.
+     * @param config The current strategy configuration.
+     * @return The checkpoint, or null if there is none or it was written with another strategy configuration,
+     * in which case its states would not match the current indicators.
+     */
+    public static StateCheckpoint read(Path file, StrategyConfig config) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        ByteBuffer in;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return read(in, config);
+    }
+
+    /**
+     * Read a checkpoint from a buffer, for instance one received from another instance.
+     *
+     * @return The checkpoint, or null if it was written with another strategy configuration.
+     */
+    public static StateCheckpoint read(ByteBuffer in, StrategyConfig config) throws IOException {
+        if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Not a checkpoint of this version");
+        }
+        Instant createdAt = Instant.ofEpochMilli(in.getLong());
+        if (!readConfig(in).equals(config)) {
+            return null;
+        }
+
+        int stateCount = in.getInt();
+        Map<String, IndicatorState> states = new HashMap<>(stateCount * 2);
+        for (int i = 0; i < stateCount; i++) {
+            String stockSymbol = readString(in);
+            byte kind = in.get();
+            if (kind == PRIMITIVE_STATE) {
+                states.put(stockSymbol, PrimitiveSignalState.readFrom(in, config));
+            } else if (kind == NUM_STATE) {
+                states.put(stockSymbol, SignalState.readFrom(in, config));
+            } else {
+                throw new IOException("Unknown state kind " + kind + " of " + stockSymbol);
+            }
+        }
+
+        int conditionCount = in.getInt();
+        List<PrimaryCondition> conditions = new ArrayList<>(conditionCount);
+        ConditionType[] types = ConditionType.values();
+        for (int i = 0; i < conditionCount; i++) {
+            PrimaryCondition condition = new PrimaryCondition();
+            condition.setStockSymbol(readString(in));
+            condition.setConditionType(types[in.get()]);
+            condition.setOccurrenceDate(LocalDate.ofEpochDay(in.getInt()));
+            condition.setConfirmed(in.get() != 0);
+            conditions.add(condition);
+        }
+
+        int barsCount = in.getInt();
+        Map<String, BarColumns> bars = new HashMap<>(barsCount * 2);
+        for (int i = 0; i < barsCount; i++) {
+            String stockSymbol = readString(in);
+            bars.put(stockSymbol, BarColumns.readFrom(stockSymbol, in));
+        }
+        return new StateCheckpoint(createdAt, states, conditions, bars);
+    }
+
+    private static void writeConfig(DataOutputStream out, StrategyConfig config) throws IOException {
+        out.writeInt(config.getTimeWindow());
+        out.writeInt(config.getShortMaPeriod());
+        out.writeInt(config.getLongMaPeriod());
+        out.writeInt(config.getRsiPeriod());
+        out.writeInt(config.getMacdShortPeriod());
+        out.writeInt(config.getMacdLongPeriod());
+        out.writeInt(config.getMacdSignalPeriod());
+        out.writeDouble(config.getRsiWeight());
+        out.writeDouble(config.getMacdWeight());
+        out.writeDouble(config.getBollingerWeight());
+        out.writeDouble(config.getThreshold());
+    }
+
+    private static StrategyConfig readConfig(ByteBuffer in) {
+        return new StrategyConfig(in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt(),
+                in.getInt(), in.getDouble(), in.getDouble(), in.getDouble(), in.getDouble());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getShort() & 0xFFFF];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
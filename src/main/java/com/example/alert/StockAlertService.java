@@ -3,163 +3,478 @@ package com.example.alert;
 import org.apache.juli.logging.LogFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.ta4j.core.*;
 import org.ta4j.core.indicators.*;
-import org.ta4j.core.indicators.bollinger.BollingerBandsLowerIndicator;
-import org.ta4j.core.indicators.bollinger.BollingerBandsMiddleIndicator;
-import org.ta4j.core.indicators.bollinger.BollingerBandsUpperIndicator;
-import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
-import org.ta4j.core.num.Num;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 @Service
 public class StockAlertService {
 
     private static final Logger logger = LoggerFactory.getLogger(StockAlertService.class);
 
-    private static final int TIME_WINDOW = 10; // Maximum days for signal confirmation
-    private static final int SHORT_MA_PERIOD = 50;
-    private static final int LONG_MA_PERIOD = 200;
-    private static final int RSI_PERIOD = 14;
-    private static final int MACD_SHORT_PERIOD = 12;
-    private static final int MACD_LONG_PERIOD = 26;
-    private static final int MACD_SIGNAL_PERIOD = 9;
-    private static final int BBANDS_PERIOD = 20;
+    static final int BBANDS_K = 2; // ta4j's default band multiplier
 
-    // Weights for secondary conditions
-    private static final double RSI_WEIGHT = 0.3;
-    private static final double MACD_WEIGHT = 0.4;
-    private static final double BOLLINGER_WEIGHT = 0.3;
+    private final PrimaryConditionRepository primaryConditionRepository;
+    private final SignalEngine signalEngine;
+    private final AlertProperties properties;
+    private final AlertMetrics metrics;
+    private final SeriesCache seriesCache;
+    private final ColumnarBarStore columnarBarStore;
+    private final AlertDispatcher alertDispatcher;
 
-    @Autowired
-    private PrimaryConditionRepository primaryConditionRepository;
+    // Serializes runs for the same symbol, so that concurrent callers never work on the same pending conditions.
+    // A lock, not a monitor: a virtual thread waiting for the repository inside synchronized pins its carrier.
+    private final Map<String, ReentrantLock> symbolLocks = new ConcurrentHashMap<>();
+
+    public StockAlertService(PrimaryConditionRepository primaryConditionRepository, SignalEngine signalEngine,
+                             AlertProperties properties, AlertMetrics metrics, SeriesCache seriesCache,
+                             ColumnarBarStore columnarBarStore, AlertDispatcher alertDispatcher) {
+        this.primaryConditionRepository = primaryConditionRepository;
+        this.signalEngine = signalEngine;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.seriesCache = seriesCache;
+        this.columnarBarStore = columnarBarStore;
+        this.alertDispatcher = alertDispatcher;
+    }
 
     /**
-     * Analyze stock data and generate alerts for entry or exit signals.
+     * Analyze stock data and generate alerts for entry or exit signals. Like every method here that confirms
+     * alerts, it also hands them to the {@link AlertDispatcher}.
      *
      * @param barSeries A BarSeries object containing daily stock data.
      * @param stockSymbol The stock symbol being analyzed.
      * @return A list of Alert objects with signal details.
      */
     public List<Alert> analyzeStock(BarSeries barSeries, String stockSymbol) {
-        List<Alert> alerts = new ArrayList<>();
+        ReentrantLock lock = lockFor(stockSymbol);
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            List<SignalSnapshot> snapshots = windowSnapshots(barSeries, stockSymbol);
+            metrics.recordIndicators(System.nanoTime() - start);
+            return confirmWindow(snapshots, stockSymbol, start);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        // Initialize indicators
-        ClosePriceIndicator closePrice = new ClosePriceIndicator(barSeries);
-        SMAIndicator shortMA = new SMAIndicator(closePrice, SHORT_MA_PERIOD);
-        SMAIndicator longMA = new SMAIndicator(closePrice, LONG_MA_PERIOD);
-        RSIIndicator rsi = new RSIIndicator(closePrice, RSI_PERIOD);
-        MACDIndicator macd = new MACDIndicator(closePrice, MACD_SHORT_PERIOD, MACD_LONG_PERIOD);
-        EMAIndicator macdSignal = new EMAIndicator(macd, MACD_SIGNAL_PERIOD);
-        BollingerBandsMiddleIndicator middleBB = new BollingerBandsMiddleIndicator(closePrice);
-        BollingerBandsUpperIndicator upperBB = new BollingerBandsUpperIndicator(middleBB, closePrice);
-        BollingerBandsLowerIndicator lowerBB = new BollingerBandsLowerIndicator(middleBB, closePrice);
-
-        // Check conditions over the last TIME_WINDOW days
-        int endIndex = barSeries.getEndIndex();
-        int startIndex = Math.max(0, endIndex - TIME_WINDOW);
-
-        for (int i = startIndex; i <= endIndex; i++) {
-            Num close = closePrice.getValue(i);
-            Num shortMAValue = shortMA.getValue(i);
-            Num longMAValue = longMA.getValue(i);
-            Num rsiValue = rsi.getValue(i);
-            Num macdValue = macd.getValue(i);
-            Num macdSignalValue = macdSignal.getValue(i);
-            Num upperBBValue = upperBB.getValue(i);
-            Num lowerBBValue = lowerBB.getValue(i);
-
-            // Check for Golden Cross (Entry Signal)
-            if (shortMAValue.isGreaterThan(longMAValue) &&
-                    shortMA.getValue(i - 1).isLessThanOrEqual(longMA.getValue(i - 1))) {
-                savePrimaryCondition(stockSymbol, "GOLDEN_CROSS", barSeries.getBar(i).getEndTime().toLocalDate());
-            }
+    /**
+     * Analyze stock data read from the {@link ColumnarBarStore}, without materializing bars on the heap.
+     * Batch runs use primitive arithmetic regardless of {@code alert.engine.numeric}, as the store holds doubles.
+     *
+     * @param barColumns The stored daily bars of the symbol.
+     * @param stockSymbol The stock symbol being analyzed.
+     * @return A list of Alert objects with signal details.
+     */
+    public List<Alert> analyzeStock(BarColumns barColumns, String stockSymbol) {
+        ReentrantLock lock = lockFor(stockSymbol);
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            List<SignalSnapshot> snapshots = properties.getEngine().getMode() == AlertProperties.Engine.Mode.INCREMENTAL
+                    ? signalEngine.advance(stockSymbol, barColumns)
+                    : new PrimitiveSignalState(properties.getStrategy()).advance(barColumns);
+            metrics.recordIndicators(System.nanoTime() - start);
+            return confirmWindow(snapshots, stockSymbol, start);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-            // Check for Death Cross (Exit Signal)
-            if (shortMAValue.isLessThan(longMAValue) &&
-                    shortMA.getValue(i - 1).isGreaterThanOrEqual(longMA.getValue(i - 1))) {
-                savePrimaryCondition(stockSymbol, "DEATH_CROSS", barSeries.getBar(i).getEndTime().toLocalDate());
+    /**
+     * Apply the cross and confirmation rules to indicator values computed elsewhere, such as by
+     * {@link UniverseSignals} for a whole universe at once.
+     *
+     * @param stockSymbol The stock symbol being analyzed.
+     * @param snapshots The snapshots of the last {@code timeWindow + 1} bars of the symbol, oldest first.
+     * @return A list of Alert objects with signal details.
+     */
+    public List<Alert> analyzeSnapshots(String stockSymbol, List<SignalSnapshot> snapshots) {
+        ReentrantLock lock = lockFor(stockSymbol);
+        lock.lock();
+        try {
+            return confirmWindow(snapshots, stockSymbol, System.nanoTime());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add a daily bar to the cached bar series of a symbol and analyze it like
+     * {@link #analyzeStock(BarSeries, String)}, reusing the indicator values computed by earlier calls.
+     * <p>
+     * A symbol that is not in the {@link SeriesCache} starts from the most recent bars in the
+     * {@link ColumnarBarStore}, or from this bar if there are none. A new bar is appended to the store before
+     * it is added to the cached series, so a series evicted from the cache is rebuilt with it. A bar of the
+     * last cached day is taken to be in the series already.
+     *
+     * @param stockSymbol The stock symbol the bar belongs to.
+     * @param bar The next daily bar of the symbol.
+     * @return A list of Alert objects with signal details.
+     */
+    public List<Alert> analyzeBar(String stockSymbol, Bar bar) {
+        ReentrantLock lock = lockFor(stockSymbol);
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            IndicatorGraph graph = seriesCache.get(stockSymbol, this::loadGraph);
+            BarSeries barSeries = graph.getBarSeries();
+            // By day, since the bars rebuilt from the store end at midnight UTC
+            LocalDate date = bar.getEndTime().toLocalDate();
+            LocalDate lastDate = barSeries.isEmpty() ? null : barSeries.getLastBar().getEndTime().toLocalDate();
+            if (lastDate == null || date.isAfter(lastDate)) {
+                store(stockSymbol, bar);
+                barSeries.addBar(bar);
+            } else if (date.isBefore(lastDate)) {
+                throw new IllegalArgumentException("Bar of " + date + " is older than the last bar of " + stockSymbol);
             }
+            List<SignalSnapshot> snapshots = graph.window(properties.getStrategy().getTimeWindow());
+            metrics.recordIndicators(System.nanoTime() - start);
+            return confirmWindow(snapshots, stockSymbol, start);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Advance the running indicator state of a symbol by one daily bar and generate the alerts for that bar.
+     * A bar of the day of the last bar of the state, or of an earlier day, is skipped.
+     *
+     * @param stockSymbol The stock symbol the bar belongs to.
+     * @param bar The next daily bar of the symbol.
+     * @return A list of Alert objects with signal details.
+     */
+    public List<Alert> onBar(String stockSymbol, Bar bar) {
+        return onBars(stockSymbol, List.of(bar));
+    }
 
-            // Confirm Entry Signal within TIME_WINDOW
-            List<PrimaryCondition> goldenCrossConditions = primaryConditionRepository.findByStockSymbolAndConditionTypeAndOccurrenceDateAfter(
-                    stockSymbol, "GOLDEN_CROSS", barSeries.getBar(i).getEndTime().toLocalDate().minusDays(TIME_WINDOW));
-
-            for (PrimaryCondition condition : goldenCrossConditions) {
-                boolean rsiOversold = rsiValue.isLessThan(closePrice.numOf(30));
-                boolean macdBullish = macdValue.isGreaterThan(macdSignalValue) &&
-                        macd.getValue(i - 1).isLessThanOrEqual(macdSignal.getValue(i - 1));
-                boolean bollingerBreakout = close.isGreaterThan(upperBBValue);
-
-                // Weighted scoring for secondary conditions
-                double totalScore = (rsiOversold ? RSI_WEIGHT : 0) +
-                        (macdBullish ? MACD_WEIGHT : 0) +
-                        (bollingerBreakout ? BOLLINGER_WEIGHT : 0);
-
-                if (totalScore >= 0.8) { // Threshold for signal confirmation
-                    Alert alert = new Alert(
-                            "ENTRY",
-                            stockSymbol,
-                            barSeries.getBar(i).getEndTime().toLocalDate(),
-                            shortMAValue.doubleValue(),
-                            longMAValue.doubleValue(),
-                            rsiValue.doubleValue(),
-                            macdValue.doubleValue(),
-                            macdSignalValue.doubleValue(),
-                            upperBBValue.doubleValue(),
-                            "Golden Cross, RSI Oversold, MACD Bullish, Bollinger Breakout"
-                    );
-                    alerts.add(alert);
-                    primaryConditionRepository.delete(condition);
+    /**
+     * Advance the running indicator state of a symbol by daily bars and generate their alerts, reading and
+     * writing the pending conditions once for all of them. The bars are appended to the
+     * {@link ColumnarBarStore}, and a state that is missing or behind the store first catches up with it.
+     * <p>
+     * The bars are taken in day order. Bars of days up to the last bar of the state, and all but the first bar
+     * of a day, are skipped, so that resending bars does not add them to the running averages again. If a bar
+     * fails, the bars before it stay processed, with their conditions and alerts.
+     *
+     * @param stockSymbol The stock symbol the bars belong to.
+     * @param bars Daily bars of the symbol, in any order.
+     * @return A list of Alert objects with signal details.
+     */
+    public List<Alert> onBars(String stockSymbol, List<Bar> bars) {
+        List<Alert> alerts = new ArrayList<>();
+        if (bars.isEmpty()) {
+            return alerts;
+        }
+        ReentrantLock lock = lockFor(stockSymbol);
+        lock.lock();
+        try {
+            long start = System.nanoTime();
+            catchUp(stockSymbol);
+            List<Bar> newBars = newBars(stockSymbol, bars);
+            if (newBars.isEmpty()) {
+                return alerts;
+            }
+            StrategyConfig config = properties.getStrategy();
+            PendingConditions pending = loadPending(stockSymbol, newBars.get(0).getEndTime().toLocalDate(), config);
+            try {
+                for (Bar bar : newBars) {
+                    // Stored first, a state that is behind the store catches up with it on the next call
+                    columnarBarStore.append(stockSymbol, bar);
+                    long indicatorStart = System.nanoTime();
+                    SignalSnapshot snapshot = signalEngine.onBar(stockSymbol, bar);
+                    metrics.recordIndicators(System.nanoTime() - indicatorStart);
+                    evaluateTimed(snapshot, stockSymbol, pending, config, alerts);
                 }
+            } catch (RuntimeException e) {
+                // Keep the conditions of the bars the state already advanced by, so that they are not lost
+                // when the bars are sent again from the failed one on
+                flushPending(stockSymbol, pending, alerts, start);
+                throw e;
             }
+            flushPending(stockSymbol, pending, alerts, start);
+        } finally {
+            lock.unlock();
+        }
+        return alerts;
+    }
 
-            // Confirm Exit Signal within TIME_WINDOW
-            List<PrimaryCondition> deathCrossConditions = primaryConditionRepository.findByStockSymbolAndConditionTypeAndOccurrenceDateAfter(
-                    stockSymbol, "DEATH_CROSS", barSeries.getBar(i).getEndTime().toLocalDate().minusDays(TIME_WINDOW));
-
-            for (PrimaryCondition condition : deathCrossConditions) {
-                boolean rsiOverbought = rsiValue.isGreaterThan(closePrice.numOf(70));
-                boolean macdBearish = macdValue.isLessThan(macdSignalValue) &&
-                        macd.getValue(i - 1).isGreaterThanOrEqual(macdSignal.getValue(i - 1));
-                boolean bollingerBreakdown = close.isLessThan(lowerBBValue);
-
-                // Weighted scoring for secondary conditions
-                double totalScore = (rsiOverbought ? RSI_WEIGHT : 0) +
-                        (macdBearish ? MACD_WEIGHT : 0) +
-                        (bollingerBreakdown ? BOLLINGER_WEIGHT : 0);
-
-                if (totalScore >= 0.8) { // Threshold for signal confirmation
-                    Alert alert = new Alert(
-                            "EXIT",
-                            stockSymbol,
-                            barSeries.getBar(i).getEndTime().toLocalDate(),
-                            shortMAValue.doubleValue(),
-                            longMAValue.doubleValue(),
-                            rsiValue.doubleValue(),
-                            macdValue.doubleValue(),
-                            macdSignalValue.doubleValue(),
-                            lowerBBValue.doubleValue(),
-                            "Death Cross, RSI Overbought, MACD Bearish, Bollinger Breakdown"
-                    );
-                    alerts.add(alert);
-                    primaryConditionRepository.delete(condition);
-                }
+    /**
+     * Evaluate a daily bar that is still forming, against the running indicator state and the pending
+     * conditions of the symbol, without changing either. The alerts are flagged as provisional; the final
+     * bar goes through {@link #onBar} once the day closes.
+     *
+     * @param stockSymbol The stock symbol the bar belongs to.
+     * @param bar The partial daily bar that follows the last bar of the symbol.
+     * @return A list of provisional Alert objects with signal details.
+     */
+    public List<Alert> previewBar(String stockSymbol, Bar bar) {
+        List<Alert> alerts = new ArrayList<>();
+        ReentrantLock lock = lockFor(stockSymbol);
+        lock.lock();
+        try {
+            catchUp(stockSymbol);
+            StrategyConfig config = properties.getStrategy();
+            SignalSnapshot snapshot = signalEngine.preview(stockSymbol, bar);
+            PendingConditions pending = loadPending(stockSymbol, snapshot.getDate(), config);
+            evaluate(snapshot, stockSymbol, pending, config, alerts);
+        } finally {
+            lock.unlock();
+        }
+        for (Alert alert : alerts) {
+            alert.setProvisional(true);
+        }
+        return alerts;
+    }
+
+    /**
+     * Evaluate the stored bars of later days than the running state of a symbol, for a state restored from a
+     * checkpoint that is older than the {@link ColumnarBarStore}. The crosses and confirmations of those bars
+     * are recorded in the pending conditions like in {@link #onBars}; their alerts were published when the
+     * bars arrived, so they are not published again.
+     *
+     * @param stockSymbol The stock symbol whose stored bars are replayed.
+     * @return The number of replayed bars.
+     */
+    public int replayStored(String stockSymbol) {
+        ReentrantLock lock = lockFor(stockSymbol);
+        lock.lock();
+        try {
+            BarColumns barColumns = columnarBarStore.open(stockSymbol);
+            if (barColumns == null) {
+                return 0;
+            }
+            List<SignalSnapshot> snapshots = signalEngine.replay(stockSymbol, barColumns);
+            if (snapshots.isEmpty()) {
+                return 0;
+            }
+            StrategyConfig config = properties.getStrategy();
+            PendingConditions pending = loadPending(stockSymbol, snapshots.get(0).getDate(), config);
+            List<Alert> alerts = new ArrayList<>();
+            for (SignalSnapshot snapshot : snapshots) {
+                evaluate(snapshot, stockSymbol, pending, config, alerts);
             }
+            pending.flush(primaryConditionRepository);
+            return snapshots.size();
+        } finally {
+            lock.unlock();
         }
+    }
+
+    // The state of a symbol is missing after a restart without checkpoint, and behind after a bar failed
+    private void catchUp(String stockSymbol) {
+        BarColumns barColumns = columnarBarStore.open(stockSymbol);
+        if (barColumns != null) {
+            signalEngine.catchUp(stockSymbol, barColumns);
+        }
+    }
+
+    private List<Bar> newBars(String stockSymbol, List<Bar> bars) {
+        List<Bar> sorted = new ArrayList<>(bars);
+        sorted.sort(Comparator.comparing(Bar::getEndTime));
+        LocalDate lastDate = signalEngine.lastDate(stockSymbol);
+        List<Bar> newBars = new ArrayList<>(sorted.size());
+        for (Bar bar : sorted) {
+            LocalDate date = bar.getEndTime().toLocalDate();
+            if (lastDate == null || date.isAfter(lastDate)) {
+                newBars.add(bar);
+                lastDate = date;
+            }
+        }
+        if (newBars.size() < bars.size()) {
+            logger.debug("Skipped {} bars of {} of days that were already processed", bars.size() - newBars.size(),
+                    stockSymbol);
+        }
+        return newBars;
+    }
+
+    // Appends a bar unless the store already holds its day, as when the bar was also posted to /bars
+    private void store(String stockSymbol, Bar bar) {
+        BarColumns barColumns = columnarBarStore.open(stockSymbol);
+        long epochDay = bar.getEndTime().toLocalDate().toEpochDay();
+        if (barColumns == null || barColumns.size() == 0 || barColumns.epochDay(barColumns.size() - 1) < epochDay) {
+            columnarBarStore.append(stockSymbol, bar);
+        }
+    }
+
+    private IndicatorGraph loadGraph(String stockSymbol) {
+        BarSeries barSeries = new BaseBarSeries(stockSymbol);
+        barSeries.setMaximumBarCount(seriesCache.getMaximumBarCount());
+        BarColumns barColumns = columnarBarStore.open(stockSymbol);
+        if (barColumns != null) {
+            for (int i = Math.max(0, barColumns.size() - seriesCache.getMaximumBarCount()); i < barColumns.size(); i++) {
+                barSeries.addBar(new BaseBar(Duration.ofDays(1),
+                        LocalDate.ofEpochDay(barColumns.epochDay(i)).atStartOfDay(ZoneOffset.UTC), barColumns.open(i),
+                        barColumns.high(i), barColumns.low(i), barColumns.close(i), barColumns.volume(i)));
+            }
+        }
+        return new IndicatorGraph(barSeries, properties.getStrategy());
+    }
+
+    private List<Alert> confirmWindow(List<SignalSnapshot> snapshots, String stockSymbol, long start) {
+        List<Alert> alerts = new ArrayList<>();
+        if (snapshots.isEmpty()) {
+            return alerts;
+        }
+
+        // Check conditions over the last time window days
+        StrategyConfig config = properties.getStrategy();
+        PendingConditions pending = loadPending(stockSymbol, snapshots.get(0).getDate(), config);
+        for (SignalSnapshot snapshot : snapshots) {
+            evaluateTimed(snapshot, stockSymbol, pending, config, alerts);
+        }
+        flushPending(stockSymbol, pending, alerts, start);
 
         return alerts;
     }
 
-    private void savePrimaryCondition(String stockSymbol, String conditionType, LocalDate date) {
-        PrimaryCondition condition = new PrimaryCondition();
-        condition.setStockSymbol(stockSymbol);
-        condition.setConditionType(conditionType);
-        condition.setOccurrenceDate(date);
-        primaryConditionRepository.save(condition);
+    private PendingConditions loadPending(String stockSymbol, LocalDate firstDate, StrategyConfig config) {
+        long start = System.nanoTime();
+        PendingConditions pending = PendingConditions.load(primaryConditionRepository, stockSymbol, firstDate,
+                config.getTimeWindow());
+        metrics.recordQuery(System.nanoTime() - start);
+        return pending;
+    }
+
+    private void evaluateTimed(SignalSnapshot snapshot, String stockSymbol, PendingConditions pending,
+                               StrategyConfig config, List<Alert> alerts) {
+        int firstNewAlert = alerts.size();
+        long start = System.nanoTime();
+        int crosses = evaluate(snapshot, stockSymbol, pending, config, alerts);
+        metrics.recordEvaluation(crosses, alerts, firstNewAlert, System.nanoTime() - start);
+    }
+
+    private void flushPending(String stockSymbol, PendingConditions pending, List<Alert> alerts, long start) {
+        long writeStart = System.nanoTime();
+        boolean written = pending.flush(primaryConditionRepository);
+        long end = System.nanoTime();
+        if (written) {
+            metrics.recordWrite(end - writeStart);
+        }
+        metrics.recordSymbol(stockSymbol, pending.repositoryCallCount(), pending.pendingCount(), end - start);
+        // Only once the conditions behind the alerts are saved; the sinks run on threads of their own
+        alertDispatcher.publish(alerts);
+        if (logger.isDebugEnabled()) {
+            for (Alert alert : alerts) {
+                logger.debug("{}", alert);
+            }
+        }
+    }
+
+    private ReentrantLock lockFor(String stockSymbol) {
+        return symbolLocks.computeIfAbsent(stockSymbol, symbol -> new ReentrantLock());
+    }
+
+    private List<SignalSnapshot> windowSnapshots(BarSeries barSeries, String stockSymbol) {
+        // The running state assumes a series that starts at its first bar
+        if (barSeries.getRemovedBarsCount() == 0) {
+            if (properties.getEngine().getMode() == AlertProperties.Engine.Mode.INCREMENTAL) {
+                return signalEngine.advance(stockSymbol, barSeries);
+            }
+            if (properties.getEngine().getNumeric() == AlertProperties.Engine.Numeric.PRIMITIVE) {
+                return new PrimitiveSignalState(properties.getStrategy()).advance(barSeries);
+            }
+        }
+
+        StrategyConfig config = properties.getStrategy();
+        return new IndicatorGraph(barSeries, config).window(config.getTimeWindow());
+    }
+
+    /**
+     * Apply the cross and confirmation rules to one bar: record new crosses in the pending conditions, and
+     * add an alert for every pending condition the secondary conditions confirm.
+     *
+     * @return The crosses of the bar, as the {@link UniverseSignals#GOLDEN_CROSS} and
+     * {@link UniverseSignals#DEATH_CROSS} flags.
+     */
+    static int evaluate(SignalSnapshot snapshot, String stockSymbol, PendingConditions pending, StrategyConfig config,
+                         List<Alert> alerts) {
+        LocalDate date = snapshot.getDate();
+        int crosses = 0;
+
+        // Check for Golden Cross (Entry Signal)
+        if (snapshot.isGoldenCross()) {
+            pending.add(ConditionType.GOLDEN_CROSS, date);
+            crosses |= UniverseSignals.GOLDEN_CROSS;
+        }
+
+        // Check for Death Cross (Exit Signal)
+        if (snapshot.isDeathCross()) {
+            pending.add(ConditionType.DEATH_CROSS, date);
+            crosses |= UniverseSignals.DEATH_CROSS;
+        }
+
+        // Confirm Entry Signal within the time window
+        List<PrimaryCondition> goldenCrossConditions = pending.findAfter(ConditionType.GOLDEN_CROSS, date.minusDays(config.getTimeWindow()), date);
+
+        for (PrimaryCondition condition : goldenCrossConditions) {
+            boolean rsiOversold = snapshot.getRsi().isLessThan(snapshot.numOf(30));
+            boolean macdBullish = snapshot.isMacdBullish();
+            boolean bollingerBreakout = snapshot.getClose().isGreaterThan(snapshot.getUpperBB());
+
+            // Weighted scoring for secondary conditions
+            double totalScore = (rsiOversold ? config.getRsiWeight() : 0) +
+                    (macdBullish ? config.getMacdWeight() : 0) +
+                    (bollingerBreakout ? config.getBollingerWeight() : 0);
+
+            if (totalScore >= config.getThreshold()) {
+                Alert alert = new Alert(
+                        "ENTRY",
+                        stockSymbol,
+                        date,
+                        snapshot.getShortMA().doubleValue(),
+                        snapshot.getLongMA().doubleValue(),
+                        snapshot.getRsi().doubleValue(),
+                        snapshot.getMacd().doubleValue(),
+                        snapshot.getMacdSignal().doubleValue(),
+                        snapshot.getUpperBB().doubleValue(),
+                        "Golden Cross, RSI Oversold, MACD Bullish, Bollinger Breakout"
+                );
+                alerts.add(alert);
+                pending.confirm(condition);
+            }
+        }
+
+        // Confirm Exit Signal within the time window
+        List<PrimaryCondition> deathCrossConditions = pending.findAfter(ConditionType.DEATH_CROSS, date.minusDays(config.getTimeWindow()), date);
+
+        for (PrimaryCondition condition : deathCrossConditions) {
+            boolean rsiOverbought = snapshot.getRsi().isGreaterThan(snapshot.numOf(70));
+            boolean macdBearish = snapshot.isMacdBearish();
+            boolean bollingerBreakdown = snapshot.getClose().isLessThan(snapshot.getLowerBB());
+
+            // Weighted scoring for secondary conditions
+            double totalScore = (rsiOverbought ? config.getRsiWeight() : 0) +
+                    (macdBearish ? config.getMacdWeight() : 0) +
+                    (bollingerBreakdown ? config.getBollingerWeight() : 0);
+
+            if (totalScore >= config.getThreshold()) {
+                Alert alert = new Alert(
+                        "EXIT",
+                        stockSymbol,
+                        date,
+                        snapshot.getShortMA().doubleValue(),
+                        snapshot.getLongMA().doubleValue(),
+                        snapshot.getRsi().doubleValue(),
+                        snapshot.getMacd().doubleValue(),
+                        snapshot.getMacdSignal().doubleValue(),
+                        snapshot.getLowerBB().doubleValue(),
+                        "Death Cross, RSI Overbought, MACD Bearish, Bollinger Breakdown"
+                );
+                alerts.add(alert);
+                pending.confirm(condition);
+            }
+        }
+        return crosses;
     }
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.example.alert;
+
+import java.util.Objects;
+
+/**
+ * Parameters of the cross and confirmation strategy: indicator periods, the weights of the secondary
+ * conditions, the confirmation threshold and the confirmation window. Bound from {@code alert.strategy.*};
+ * the defaults are the original strategy.
+ */
+public class StrategyConfig {
+
+    private int timeWindow = 10; // Maximum days for signal confirmation
+    private int shortMaPeriod = 50;
+    private int longMaPeriod = 200;
+    private int rsiPeriod = 14;
+    private int macdShortPeriod = 12;
+    private int macdLongPeriod = 26;
+    private int macdSignalPeriod = 9;
+
+    // Weights for secondary conditions
+    private double rsiWeight = 0.3;
+    private double macdWeight = 0.4;
+    private double bollingerWeight = 0.3;
+    private double threshold = 0.8; // Threshold for signal confirmation
+
+    public StrategyConfig() {
+    }
+
+    public StrategyConfig(int timeWindow, int shortMaPeriod, int longMaPeriod, int rsiPeriod, int macdShortPeriod,
+                          int macdLongPeriod, int macdSignalPeriod, double rsiWeight, double macdWeight,
+                          double bollingerWeight, double threshold) {
+        this.timeWindow = timeWindow;
+        this.shortMaPeriod = shortMaPeriod;
+        this.longMaPeriod = longMaPeriod;
+        this.rsiPeriod = rsiPeriod;
+        this.macdShortPeriod = macdShortPeriod;
+        this.macdLongPeriod = macdLongPeriod;
+        this.macdSignalPeriod = macdSignalPeriod;
+        this.rsiWeight = rsiWeight;
+        this.macdWeight = macdWeight;
+        this.bollingerWeight = bollingerWeight;
+        this.threshold = threshold;
+    }
+
+    public StrategyConfig copy() {
+        return new StrategyConfig(timeWindow, shortMaPeriod, longMaPeriod, rsiPeriod, macdShortPeriod, macdLongPeriod,
+                macdSignalPeriod, rsiWeight, macdWeight, bollingerWeight, threshold);
+    }
+
+    // Getters and Setters
+    public int getTimeWindow() { return timeWindow; }
+    public void setTimeWindow(int timeWindow) { this.timeWindow = timeWindow; }
+
+    public int getShortMaPeriod() { return shortMaPeriod; }
+    public void setShortMaPeriod(int shortMaPeriod) { this.shortMaPeriod = shortMaPeriod; }
+
+    public int getLongMaPeriod() { return longMaPeriod; }
+    public void setLongMaPeriod(int longMaPeriod) { this.longMaPeriod = longMaPeriod; }
+
+    public int getRsiPeriod() { return rsiPeriod; }
+    public void setRsiPeriod(int rsiPeriod) { this.rsiPeriod = rsiPeriod; }
+
+    public int getMacdShortPeriod() { return macdShortPeriod; }
+    public void setMacdShortPeriod(int macdShortPeriod) { this.macdShortPeriod = macdShortPeriod; }
+
+    public int getMacdLongPeriod() { return macdLongPeriod; }
+    public void setMacdLongPeriod(int macdLongPeriod) { this.macdLongPeriod = macdLongPeriod; }
+
+    public int getMacdSignalPeriod() { return macdSignalPeriod; }
+    public void setMacdSignalPeriod(int macdSignalPeriod) { this.macdSignalPeriod = macdSignalPeriod; }
+
+    public double getRsiWeight() { return rsiWeight; }
+    public void setRsiWeight(double rsiWeight) { this.rsiWeight = rsiWeight; }
+
+    public double getMacdWeight() { return macdWeight; }
+    public void setMacdWeight(double macdWeight) { this.macdWeight = macdWeight; }
+
+    public double getBollingerWeight() { return bollingerWeight; }
+    public void setBollingerWeight(double bollingerWeight) { this.bollingerWeight = bollingerWeight; }
+
+    public double getThreshold() { return threshold; }
+    public void setThreshold(double threshold) { this.threshold = threshold; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof StrategyConfig other)) {
+            return false;
+        }
+        return timeWindow == other.timeWindow && shortMaPeriod == other.shortMaPeriod
+                && longMaPeriod == other.longMaPeriod && rsiPeriod == other.rsiPeriod
+                && macdShortPeriod == other.macdShortPeriod && macdLongPeriod == other.macdLongPeriod
+                && macdSignalPeriod == other.macdSignalPeriod && Double.compare(rsiWeight, other.rsiWeight) == 0
+                && Double.compare(macdWeight, other.macdWeight) == 0
+                && Double.compare(bollingerWeight, other.bollingerWeight) == 0
+                && Double.compare(threshold, other.threshold) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(timeWindow, shortMaPeriod, longMaPeriod, rsiPeriod, macdShortPeriod, macdLongPeriod,
+                macdSignalPeriod, rsiWeight, macdWeight, bollingerWeight, threshold);
+    }
+
+    @Override
+    public String toString() {
+        return "window=" + timeWindow + ", sma=" + shortMaPeriod + "/" + longMaPeriod + ", rsi=" + rsiPeriod
+                + ", macd=" + macdShortPeriod + "/" + macdLongPeriod + "/" + macdSignalPeriod
+                + ", weights=" + rsiWeight + "/" + macdWeight + "/" + bollingerWeight + ", threshold=" + threshold;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static com.example.alert.StockAlertService.BBANDS_K;
+
+/**
+ * Sweeps strategy configurations over stored histories and ranks them by the forward returns of their alerts.
+ * <p>
+ * Each configuration sees the same signals a {@link BacktestService} run with that configuration would produce.
+ * Symbols are loaded one at a time; every indicator series of a symbol is computed once per distinct period and
+ * shared by all configurations that use it, and the configurations are then evaluated in parallel.
+ */
+@Service
+public class StrategyOptimizer implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(StrategyOptimizer.class);
+
+    private final ForkJoinPool pool;
+
+    public StrategyOptimizer(AlertProperties properties) {
+        this.pool = new ForkJoinPool(properties.getScan().getParallelism());
+    }
+
+    /**
+     * Evaluate every configuration over the universe.
+     *
+     * @param universe Stored histories keyed by stock symbol.
+     * @param configs The configurations to evaluate, typically from a {@link ParameterSpace}.
+     * @param horizon Number of bars after an alert at which its forward return is measured.
+     * @return One result per configuration, best hit rate first, then best mean return. Configurations
+     * without any signal come last.
+     */
+    public List<OptimizationResult> optimize(Map<String, BarColumns> universe, List<StrategyConfig> configs,
+                                             int horizon) {
+        long start = System.nanoTime();
+        Accumulator[] accumulators = new Accumulator[configs.size()];
+        for (int c = 0; c < accumulators.length; c++) {
+            accumulators[c] = new Accumulator();
+        }
+
+        for (String symbol : universe.keySet().stream().sorted().toList()) {
+            BarColumns barColumns = universe.get(symbol);
+            long[] days = new long[barColumns.size()];
+            double[] closes = new double[barColumns.size()];
+            for (int i = 0; i < days.length; i++) {
+                days[i] = barColumns.epochDay(i);
+                closes[i] = barColumns.close(i);
+            }
+            IndicatorCache cache = new IndicatorCache(closes);
+            // Each task only writes the accumulator of its own configuration
+            pool.submit(() -> IntStream.range(0, configs.size()).parallel()
+                    .forEach(c -> replay(configs.get(c), days, closes, cache, horizon, accumulators[c])))
+                    .join();
+        }
+
+        List<OptimizationResult> results = new ArrayList<>(configs.size());
+        for (int c = 0; c < accumulators.length; c++) {
+            results.add(accumulators[c].toResult(configs.get(c)));
+        }
+        results.sort(Comparator.comparing((OptimizationResult result) -> result.getSignalCount() == 0)
+                .thenComparing(OptimizationResult::getHitRate, Comparator.reverseOrder())
+                .thenComparing(OptimizationResult::getMeanReturn, Comparator.reverseOrder()));
+        logger.info("Evaluated {} configurations over {} symbols in {} ms", configs.size(), universe.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+
+    /**
+     * The rules of {@link StockAlertService#evaluate} on precomputed indicator series, as
+     * {@link BacktestService} applies them to one bar after the other. Like there, the Bollinger bands are the
+     * close plus and minus {@code BBANDS_K} times the close, so the Bollinger terms never count and
+     * {@link StrategyConfig#getBollingerWeight()} has no effect on the results.
+     */
+    private static void replay(StrategyConfig config, long[] days, double[] closes, IndicatorCache cache,
+                               int horizon, Accumulator accumulator) {
+        double[] shortMA = cache.sma(config.getShortMaPeriod());
+        double[] longMA = cache.sma(config.getLongMaPeriod());
+        double[] rsi = cache.rsi(config.getRsiPeriod());
+        double[] macd = cache.macd(config.getMacdShortPeriod(), config.getMacdLongPeriod());
+        double[] macdSignal = cache.macdSignal(config.getMacdShortPeriod(), config.getMacdLongPeriod(),
+                config.getMacdSignalPeriod());
+
+        // Pending crosses in day order; only their number matters once they are inside the window
+        long[] goldenCrosses = new long[days.length];
+        long[] deathCrosses = new long[days.length];
+        int goldenHead = 0;
+        int goldenTail = 0;
+        int deathHead = 0;
+        int deathTail = 0;
+
+        for (int i = 0; i < days.length; i++) {
+            long windowStart = days[i] - config.getTimeWindow();
+            while (goldenHead < goldenTail && goldenCrosses[goldenHead] <= windowStart) {
+                goldenHead++;
+            }
+            while (deathHead < deathTail && deathCrosses[deathHead] <= windowStart) {
+                deathHead++;
+            }
+
+            // The first bar is its own predecessor, as ta4j returns the first value for index -1
+            int previous = Math.max(i - 1, 0);
+            if (shortMA[i] > longMA[i] && shortMA[previous] <= longMA[previous]) {
+                goldenCrosses[goldenTail++] = days[i];
+            }
+            if (shortMA[i] < longMA[i] && shortMA[previous] >= longMA[previous]) {
+                deathCrosses[deathTail++] = days[i];
+            }
+            if (goldenHead == goldenTail && deathHead == deathTail) {
+                continue;
+            }
+
+            // Never beyond the bands, which keeps the results equal to those of StockAlertService
+            double deviation = closes[i] * BBANDS_K;
+            if (goldenHead < goldenTail) {
+                boolean macdBullish = macd[i] > macdSignal[i] && macd[previous] <= macdSignal[previous];
+                double totalScore = (rsi[i] < 30 ? config.getRsiWeight() : 0) +
+                        (macdBullish ? config.getMacdWeight() : 0) +
+                        (closes[i] > closes[i] + deviation ? config.getBollingerWeight() : 0);
+                if (totalScore >= config.getThreshold()) {
+                    accumulator.add(goldenTail - goldenHead, forwardReturn(closes, i, horizon));
+                    goldenHead = goldenTail;
+                }
+            }
+            if (deathHead < deathTail) {
+                boolean macdBearish = macd[i] < macdSignal[i] && macd[previous] >= macdSignal[previous];
+                double totalScore = (rsi[i] > 70 ? config.getRsiWeight() : 0) +
+                        (macdBearish ? config.getMacdWeight() : 0) +
+                        (closes[i] < closes[i] - deviation ? config.getBollingerWeight() : 0);
+                if (totalScore >= config.getThreshold()) {
+                    accumulator.add(deathTail - deathHead, -forwardReturn(closes, i, horizon));
+                    deathHead = deathTail;
+                }
+            }
+        }
+    }
+
+    private static double forwardReturn(double[] closes, int index, int horizon) {
+        int target = index + horizon;
+        return target < closes.length ? closes[target] / closes[index] - 1 : Double.NaN;
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Indicator series of one symbol, computed on first use and shared between configurations.
+     */
+    private static class IndicatorCache {
+        private final double[] closes;
+        private final Map<String, double[]> series = new ConcurrentHashMap<>();
+
+        IndicatorCache(double[] closes) {
+            this.closes = closes;
+        }
+
+        double[] sma(int period) {
+            return get("SMA" + period, key -> PrimitiveIndicators.sma(closes, period));
+        }
+
+        double[] rsi(int period) {
+            return get("RSI" + period, key -> PrimitiveIndicators.rsi(closes, period));
+        }
+
+        double[] ema(int period) {
+            return get("EMA" + period, key -> PrimitiveIndicators.ema(closes, period));
+        }
+
+        double[] macd(int shortPeriod, int longPeriod) {
+            return get("MACD" + shortPeriod + "/" + longPeriod,
+                    key -> PrimitiveIndicators.macd(ema(shortPeriod), ema(longPeriod)));
+        }
+
+        double[] macdSignal(int shortPeriod, int longPeriod, int signalPeriod) {
+            return get("MACD" + shortPeriod + "/" + longPeriod + "/" + signalPeriod,
+                    key -> PrimitiveIndicators.ema(macd(shortPeriod, longPeriod), signalPeriod));
+        }
+
+        // computeIfAbsent would block other keys of the same bin while a nested series is computed, and must
+        // not be re-entered; a series computed twice by racing configurations is identical either way
+        private double[] get(String key, Function<String, double[]> compute) {
+            double[] values = series.get(key);
+            if (values == null) {
+                values = compute.apply(key);
+                double[] existing = series.putIfAbsent(key, values);
+                if (existing != null) {
+                    values = existing;
+                }
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Signal statistics of one configuration, written by a single task per symbol.
+     */
+    private static class Accumulator {
+        private int signalCount;
+        private int hits;
+        private double returnSum;
+
+        void add(int count, double directedReturn) {
+            // Signals too close to the end of the history have no forward return to measure
+            if (Double.isNaN(directedReturn)) {
+                return;
+            }
+            signalCount += count;
+            if (directedReturn > 0) {
+                hits += count;
+            }
+            returnSum += directedReturn * count;
+        }
+
+        OptimizationResult toResult(StrategyConfig config) {
+            return new OptimizationResult(config, signalCount,
+                    signalCount == 0 ? Double.NaN : (double) hits / signalCount,
+                    signalCount == 0 ? Double.NaN : returnSum / signalCount);
+        }
+    }
+}
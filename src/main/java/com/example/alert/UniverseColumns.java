@@ -0,0 +1,138 @@
+package com.example.alert;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Close prices of many symbols laid out time step by time step, for {@link UniverseSignals} to advance the
+ * indicators of all symbols together.
+ * <p>
+ * The last bars of all symbols share the last time step, so a symbol with fewer bars starts later. Symbols are
+ * ordered by bar count, longest first, which makes the symbols that have a bar at any time step a prefix of
+ * the order; each time step is stored as one contiguous row of those symbols. A loop over the symbols of a row
+ * then reads and writes consecutive array elements without branches, which the JIT can compile to SIMD
+ * instructions.
+ */
+public class UniverseColumns {
+
+    private final List<String> symbols;
+    private final BarColumns[] barColumns;
+    private final int[] starts;
+    private final int[] rowOffsets;
+    private final int[] rowLengths;
+    private final double[] closes;
+
+    private UniverseColumns(List<String> symbols, BarColumns[] barColumns, int[] starts, int[] rowOffsets,
+                            int[] rowLengths, double[] closes) {
+        this.symbols = symbols;
+        this.barColumns = barColumns;
+        this.starts = starts;
+        this.rowOffsets = rowOffsets;
+        this.rowLengths = rowLengths;
+        this.closes = closes;
+    }
+
+    /**
+     * Copy the close prices of the symbols that have at least one bar.
+     */
+    public static UniverseColumns of(Map<String, BarColumns> universe) {
+        List<BarColumns> ordered = new ArrayList<>();
+        for (BarColumns columns : universe.values()) {
+            if (columns != null && columns.size() > 0) {
+                ordered.add(columns);
+            }
+        }
+        ordered.sort(Comparator.comparingInt(BarColumns::size).reversed()
+                .thenComparing(BarColumns::getStockSymbol));
+
+        int symbolCount = ordered.size();
+        int steps = symbolCount == 0 ? 0 : ordered.get(0).size();
+        List<String> symbols = new ArrayList<>(symbolCount);
+        int[] starts = new int[symbolCount];
+        int[] rowLengths = new int[steps];
+        long barCount = 0;
+        for (int s = 0; s < symbolCount; s++) {
+            BarColumns columns = ordered.get(s);
+            symbols.add(columns.getStockSymbol());
+            starts[s] = steps - columns.size();
+            rowLengths[starts[s]]++;
+            barCount += columns.size();
+        }
+        if (barCount > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many bars for one block: " + barCount);
+        }
+        int[] rowOffsets = new int[steps];
+        int offset = 0;
+        for (int t = 0; t < steps; t++) {
+            // Symbols starting at this step join the ones already running
+            rowLengths[t] += t == 0 ? 0 : rowLengths[t - 1];
+            rowOffsets[t] = offset;
+            offset += rowLengths[t];
+        }
+
+        double[] closes = new double[offset];
+        for (int s = 0; s < symbolCount; s++) {
+            BarColumns columns = ordered.get(s);
+            for (int i = 0; i < columns.size(); i++) {
+                closes[rowOffsets[starts[s] + i] + s] = columns.close(i);
+            }
+        }
+        return new UniverseColumns(symbols, ordered.toArray(new BarColumns[0]), starts, rowOffsets, rowLengths,
+                closes);
+    }
+
+    /**
+     * The symbols, longest history first; the index of a symbol in this list is its index everywhere else.
+     */
+    public List<String> getSymbols() {
+        return symbols;
+    }
+
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    /**
+     * Number of time steps, which is the bar count of the longest symbol.
+     */
+    public int steps() {
+        return rowLengths.length;
+    }
+
+    /**
+     * The time step of the first bar of a symbol.
+     */
+    public int start(int symbol) {
+        return starts[symbol];
+    }
+
+    /**
+     * Offset of the row of a time step in {@link #closes()}.
+     */
+    public int rowOffset(int step) {
+        return rowOffsets[step];
+    }
+
+    /**
+     * Number of symbols that have a bar at a time step, which are the first ones of the order.
+     */
+    public int rowLength(int step) {
+        return step < 0 ? 0 : rowLengths[step];
+    }
+
+    /**
+     * The close prices, row after row.
+     */
+    double[] closes() {
+        return closes;
+    }
+
+    /**
+     * The trading day of a symbol at a time step, as days since 1970-01-01.
+     */
+    public long epochDay(int symbol, int step) {
+        return barColumns[symbol].epochDay(step - starts[symbol]);
+    }
+}
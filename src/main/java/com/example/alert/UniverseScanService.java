@@ -0,0 +1,256 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Service;
+import org.ta4j.core.BarSeries;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Runs {@link StockAlertService#analyzeStock} over a whole universe of symbols on a bounded worker pool, or, for
+ * universes read from the {@link ColumnarBarStore}, computes the indicators of blocks of symbols together with
+ * {@link UniverseSignals}.
+ * <p>
+ * With virtual threads (see {@link WorkerThreads}) every scan forks its tasks into an executor of its own and
+ * shuts it down before it returns, so that no task outlives the scan that started it, as in a structured
+ * concurrency scope. Interrupting the scan cancels all its tasks.
+ */
+@Service
+public class UniverseScanService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(UniverseScanService.class);
+
+    private final StockAlertService stockAlertService;
+    private final PrimaryConditionRepository primaryConditionRepository;
+    private final AlertProperties properties;
+    private final WorkerThreads workerThreads;
+    // Shared by all scans on platform threads, null with virtual threads
+    private final ExecutorService executor;
+    private final int slowestSymbolCount;
+
+    public UniverseScanService(StockAlertService stockAlertService,
+                               PrimaryConditionRepository primaryConditionRepository, AlertProperties properties,
+                               WorkerThreads workerThreads) {
+        this.stockAlertService = stockAlertService;
+        this.primaryConditionRepository = primaryConditionRepository;
+        this.properties = properties;
+        this.workerThreads = workerThreads;
+        this.slowestSymbolCount = properties.getScan().getSlowestSymbols();
+        this.executor = workerThreads.isVirtual() ? null
+                : workerThreads.newExecutor("alert-scan-", properties.getScan().getParallelism());
+    }
+
+    /**
+     * Analyze every symbol of a universe in parallel. A failing symbol is reported in the result and does not
+     * affect the other symbols.
+     *
+     * @param universe BarSeries objects containing daily stock data, keyed by stock symbol.
+     * @return The alerts ordered by stock symbol, the failed symbols and the run statistics.
+     */
+    public ScanResult scanUniverse(Map<String, BarSeries> universe) {
+        List<String> symbols = new ArrayList<>(universe.keySet());
+        Collections.sort(symbols);
+
+        long start = System.nanoTime();
+        ExecutorService scope = openScope();
+        List<SymbolScan> scans = new ArrayList<>(symbols.size());
+        try {
+            List<Future<SymbolScan>> futures = new ArrayList<>(symbols.size());
+            for (String symbol : symbols) {
+                BarSeries barSeries = universe.get(symbol);
+                futures.add(scope.submit(() -> scanSymbol(symbol, barSeries)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                scans.add(await(futures, i, symbols.get(i)));
+            }
+        } finally {
+            closeScope(scope);
+        }
+        return result(scans, start);
+    }
+
+    /**
+     * Analyze every symbol of a universe read from the {@link ColumnarBarStore}, with the same alerts as
+     * {@link StockAlertService#analyzeStock(BarColumns, String)} in batch mode.
+     * <p>
+     * The symbols are split into blocks of up to {@code alert.scan.block-size}, one per worker at a time. The
+     * indicators of a block are computed in one pass by {@link UniverseSignals}; only symbols with a cross in
+     * their confirmation window or with stored conditions go on to the confirmation rules and the repository.
+     *
+     * @param universe The stored daily bars, keyed by stock symbol.
+     * @return The alerts ordered by stock symbol, the failed symbols and the run statistics.
+     */
+    public ScanResult scanColumns(Map<String, BarColumns> universe) {
+        List<String> symbols = new ArrayList<>(universe.keySet());
+        Collections.sort(symbols);
+
+        long start = System.nanoTime();
+        Set<String> conditionSymbols = new HashSet<>(primaryConditionRepository.findSymbols());
+        int parallelism = properties.getScan().getParallelism();
+        int blockSize = Math.max(1, Math.min(properties.getScan().getBlockSize(),
+                (symbols.size() + parallelism - 1) / parallelism));
+        ExecutorService scope = openScope();
+        List<SymbolScan> scans = new ArrayList<>(symbols.size());
+        try {
+            List<List<String>> blocks = new ArrayList<>();
+            List<Future<List<SymbolScan>>> futures = new ArrayList<>();
+            for (int from = 0; from < symbols.size(); from += blockSize) {
+                List<String> block = symbols.subList(from, Math.min(from + blockSize, symbols.size()));
+                blocks.add(block);
+                futures.add(scope.submit(() -> scanBlock(block, universe, conditionSymbols)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                scans.addAll(awaitBlock(futures, i, blocks.get(i)));
+            }
+        } finally {
+            closeScope(scope);
+        }
+        return result(scans, start);
+    }
+
+    private ExecutorService openScope() {
+        return executor != null ? executor : workerThreads.newExecutor("alert-scan-", 0);
+    }
+
+    private void closeScope(ExecutorService scope) {
+        if (scope != executor) {
+            scope.shutdownNow();
+        }
+    }
+
+    private ScanResult result(List<SymbolScan> scans, long start) {
+        List<Alert> alerts = new ArrayList<>();
+        Map<String, String> failures = new LinkedHashMap<>();
+        List<ScanStatistics.SymbolLatency> latencies = new ArrayList<>(scans.size());
+        for (SymbolScan scan : scans) {
+            latencies.add(new ScanStatistics.SymbolLatency(scan.symbol, scan.nanos));
+            if (scan.error != null) {
+                failures.put(scan.symbol, scan.error);
+            } else {
+                alerts.addAll(scan.alerts);
+            }
+        }
+
+        ScanStatistics statistics = ScanStatistics.of(latencies, failures.size(), alerts.size(),
+                Duration.ofNanos(System.nanoTime() - start), slowestSymbolCount);
+        logger.info("Universe scan finished: {}", statistics);
+        return new ScanResult(alerts, failures, statistics);
+    }
+
+    private List<SymbolScan> scanBlock(List<String> symbols, Map<String, BarColumns> universe,
+                                       Set<String> conditionSymbols) {
+        long start = System.nanoTime();
+        List<SymbolScan> scans = new ArrayList<>(symbols.size());
+        UniverseSignals signals;
+        try {
+            Map<String, BarColumns> block = new HashMap<>();
+            for (String symbol : symbols) {
+                block.put(symbol, universe.get(symbol));
+            }
+            signals = UniverseSignals.compute(UniverseColumns.of(block), properties.getStrategy());
+        } catch (RuntimeException e) {
+            logger.warn("Indicators of a block of {} symbols from {} failed", symbols.size(), symbols.get(0), e);
+            for (String symbol : symbols) {
+                scans.add(new SymbolScan(symbol, List.of(), String.valueOf(e), 0));
+            }
+            return scans;
+        }
+        // The indicators of a block cost the same for each of its symbols
+        long indicatorNanos = (System.nanoTime() - start) / symbols.size();
+
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> ordered = signals.getColumns().getSymbols();
+        for (int i = 0; i < ordered.size(); i++) {
+            indexes.put(ordered.get(i), i);
+        }
+        for (String symbol : symbols) {
+            long symbolStart = System.nanoTime();
+            Integer index = indexes.get(symbol);
+            try {
+                List<Alert> alerts = index == null || !signals.hasCross(index) && !conditionSymbols.contains(symbol)
+                        ? List.of() : stockAlertService.analyzeSnapshots(symbol, signals.snapshots(index));
+                scans.add(new SymbolScan(symbol, alerts, null, indicatorNanos + System.nanoTime() - symbolStart));
+            } catch (RuntimeException e) {
+                logger.warn("Analysis of {} failed", symbol, e);
+                scans.add(new SymbolScan(symbol, List.of(), String.valueOf(e),
+                        indicatorNanos + System.nanoTime() - symbolStart));
+            }
+        }
+        return scans;
+    }
+
+    private SymbolScan scanSymbol(String symbol, BarSeries barSeries) {
+        long start = System.nanoTime();
+        try {
+            List<Alert> alerts = stockAlertService.analyzeStock(barSeries, symbol);
+            return new SymbolScan(symbol, alerts, null, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            logger.warn("Analysis of {} failed", symbol, e);
+            return new SymbolScan(symbol, List.of(), String.valueOf(e), System.nanoTime() - start);
+        }
+    }
+
+    private static SymbolScan await(List<Future<SymbolScan>> futures, int index, String symbol) {
+        try {
+            return futures.get(index).get();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Universe scan interrupted", e);
+        } catch (ExecutionException e) {
+            // Errors are not caught by scanSymbol, isolate them like any other failure
+            return new SymbolScan(symbol, List.of(), String.valueOf(e.getCause()), 0);
+        }
+    }
+
+    private static List<SymbolScan> awaitBlock(List<Future<List<SymbolScan>>> futures, int index,
+                                               List<String> symbols) {
+        try {
+            return futures.get(index).get();
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Universe scan interrupted", e);
+        } catch (ExecutionException e) {
+            List<SymbolScan> scans = new ArrayList<>(symbols.size());
+            for (String symbol : symbols) {
+                scans.add(new SymbolScan(symbol, List.of(), String.valueOf(e.getCause()), 0));
+            }
+            return scans;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class SymbolScan {
+        private final String symbol;
+        private final List<Alert> alerts;
+        private final String error;
+        private final long nanos;
+
+        SymbolScan(String symbol, List<Alert> alerts, String error, long nanos) {
+            this.symbol = symbol;
+            this.alerts = alerts;
+            this.error = error;
+            this.nanos = nanos;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.alert;
+
+import org.ta4j.core.num.DoubleNum;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.alert.StockAlertService.BBANDS_K;
+
+/**
+ * Indicator values and rule flags of the confirmation window of every symbol in a {@link UniverseColumns}
+ * block, computed in one pass over its rows.
+ * <p>
+ * The recurrences are those of {@link PrimitiveSignalState}, evaluated for all running symbols of a time step
+ * before moving on to the next step, so the values match {@link PrimitiveSignalState#advance(BarColumns)}
+ * exactly. Each indicator is a loop over a row with a few primitive arrays indexed by symbol, instead of a
+ * chain of indicator objects per symbol. Only the steps of the confirmation window produce snapshots and
+ * flags; the steps before it only carry the running sums and averages forward.
+ */
+public class UniverseSignals {
+
+    /** The short moving average crossed above the long one. */
+    public static final int GOLDEN_CROSS = 1;
+    /** The short moving average crossed below the long one. */
+    public static final int DEATH_CROSS = 1 << 1;
+    /** The secondary conditions score at least the threshold for an entry, which only RSI and MACD count for. */
+    public static final int ENTRY_CONFIRMED = 1 << 2;
+    /** The secondary conditions score at least the threshold for an exit, which only RSI and MACD count for. */
+    public static final int EXIT_CONFIRMED = 1 << 3;
+
+    private final UniverseColumns columns;
+    private final int windowStart;
+    private final int windowLength;
+    private final int symbolCount;
+
+    // Window step w of symbol s is at index w * symbolCount + s
+    private final double[] close;
+    private final double[] shortMA;
+    private final double[] longMA;
+    private final double[] rsi;
+    private final double[] macd;
+    private final double[] macdSignal;
+    private final double[] previousShortMA;
+    private final double[] previousLongMA;
+    private final double[] previousMacd;
+    private final double[] previousMacdSignal;
+    private final byte[] flags;
+
+    private UniverseSignals(UniverseColumns columns, int windowStart) {
+        this.columns = columns;
+        this.windowStart = windowStart;
+        this.windowLength = columns.steps() - windowStart;
+        this.symbolCount = columns.symbolCount();
+        int size = windowLength * symbolCount;
+        this.close = new double[size];
+        this.shortMA = new double[size];
+        this.longMA = new double[size];
+        this.rsi = new double[size];
+        this.macd = new double[size];
+        this.macdSignal = new double[size];
+        this.previousShortMA = new double[size];
+        this.previousLongMA = new double[size];
+        this.previousMacd = new double[size];
+        this.previousMacdSignal = new double[size];
+        this.flags = new byte[size];
+    }
+
+    /**
+     * Advance the indicators of all symbols from their first bar to the last time step.
+     */
+    public static UniverseSignals compute(UniverseColumns columns, StrategyConfig config) {
+        int steps = columns.steps();
+        int symbolCount = columns.symbolCount();
+        UniverseSignals signals = new UniverseSignals(columns,
+                Math.max(0, steps - 1 - config.getTimeWindow()));
+        int shortMaPeriod = config.getShortMaPeriod();
+        int longMaPeriod = config.getLongMaPeriod();
+        double macdShortMultiplier = 2.0 / (config.getMacdShortPeriod() + 1);
+        double macdLongMultiplier = 2.0 / (config.getMacdLongPeriod() + 1);
+        double macdSignalMultiplier = 2.0 / (config.getMacdSignalPeriod() + 1);
+        double rsiMultiplier = 1.0 / config.getRsiPeriod();
+
+        double[] closes = columns.closes();
+        double[] shortSum = new double[symbolCount];
+        double[] shortSumError = new double[symbolCount];
+        double[] longSum = new double[symbolCount];
+        double[] longSumError = new double[symbolCount];
+        double[] macdShortEma = new double[symbolCount];
+        double[] macdLongEma = new double[symbolCount];
+        double[] macdSignalEma = new double[symbolCount];
+        double[] averageGain = new double[symbolCount];
+        double[] averageLoss = new double[symbolCount];
+        double[] currentShortMA = new double[symbolCount];
+        double[] currentLongMA = new double[symbolCount];
+
+        for (int t = 0; t < steps; t++) {
+            int row = columns.rowOffset(t);
+            int length = columns.rowLength(t);
+            // Symbols below this index had a bar before this step, the others start here
+            int running = columns.rowLength(t - 1);
+            boolean inWindow = t >= signals.windowStart;
+            int window = (t - signals.windowStart) * symbolCount;
+
+            // Rolling sums of the simple moving averages, compensated like PrimitiveSignalState does
+            if (t >= longMaPeriod) {
+                int oldRow = columns.rowOffset(t - longMaPeriod);
+                int oldLength = columns.rowLength(t - longMaPeriod);
+                for (int s = 0; s < oldLength; s++) {
+                    longSumError[s] += PrimitiveSignalState.roundingError(longSum[s], -closes[oldRow + s]);
+                    longSum[s] -= closes[oldRow + s];
+                }
+            }
+            if (t >= shortMaPeriod) {
+                int oldRow = columns.rowOffset(t - shortMaPeriod);
+                int oldLength = columns.rowLength(t - shortMaPeriod);
+                for (int s = 0; s < oldLength; s++) {
+                    shortSumError[s] += PrimitiveSignalState.roundingError(shortSum[s], -closes[oldRow + s]);
+                    shortSum[s] -= closes[oldRow + s];
+                }
+            }
+            for (int s = 0; s < length; s++) {
+                shortSumError[s] += PrimitiveSignalState.roundingError(shortSum[s], closes[row + s]);
+                shortSum[s] += closes[row + s];
+                longSumError[s] += PrimitiveSignalState.roundingError(longSum[s], closes[row + s]);
+                longSum[s] += closes[row + s];
+            }
+
+            if (inWindow) {
+                for (int s = 0; s < running; s++) {
+                    signals.previousMacd[window + s] = macdShortEma[s] - macdLongEma[s];
+                    signals.previousMacdSignal[window + s] = macdSignalEma[s];
+                }
+            }
+
+            // EMA and Wilder accumulators of the running symbols
+            if (running > 0) {
+                int previousRow = columns.rowOffset(t - 1);
+                for (int s = 0; s < running; s++) {
+                    double value = closes[row + s];
+                    double previousClose = closes[previousRow + s];
+                    macdShortEma[s] = (value - macdShortEma[s]) * macdShortMultiplier + macdShortEma[s];
+                    macdLongEma[s] = (value - macdLongEma[s]) * macdLongMultiplier + macdLongEma[s];
+                    macdSignalEma[s] = (macdShortEma[s] - macdLongEma[s] - macdSignalEma[s]) * macdSignalMultiplier
+                            + macdSignalEma[s];
+                    averageGain[s] = (Math.max(value - previousClose, 0) - averageGain[s]) * rsiMultiplier
+                            + averageGain[s];
+                    averageLoss[s] = (Math.max(previousClose - value, 0) - averageLoss[s]) * rsiMultiplier
+                            + averageLoss[s];
+                }
+            }
+
+            // Seeded with the first value like ta4j does
+            for (int s = running; s < length; s++) {
+                double value = closes[row + s];
+                macdShortEma[s] = value;
+                macdLongEma[s] = value;
+                macdSignalEma[s] = macdShortEma[s] - macdLongEma[s];
+                averageGain[s] = 0;
+                averageLoss[s] = 0;
+                if (inWindow) {
+                    // The first bar is its own predecessor
+                    signals.previousMacd[window + s] = macdShortEma[s] - macdLongEma[s];
+                    signals.previousMacdSignal[window + s] = macdSignalEma[s];
+                }
+            }
+
+            // Averages are only needed from the step before the window on
+            if (t >= signals.windowStart - 1) {
+                if (inWindow) {
+                    for (int s = 0; s < running; s++) {
+                        signals.previousShortMA[window + s] = currentShortMA[s];
+                        signals.previousLongMA[window + s] = currentLongMA[s];
+                    }
+                }
+                for (int s = 0; s < length; s++) {
+                    int count = t - columns.start(s);
+                    currentShortMA[s] = (shortSum[s] + shortSumError[s]) / Math.min(shortMaPeriod, count + 1);
+                    currentLongMA[s] = (longSum[s] + longSumError[s]) / Math.min(longMaPeriod, count + 1);
+                }
+                if (inWindow) {
+                    for (int s = running; s < length; s++) {
+                        signals.previousShortMA[window + s] = currentShortMA[s];
+                        signals.previousLongMA[window + s] = currentLongMA[s];
+                    }
+                    signals.record(window, row, length, closes, currentShortMA, currentLongMA, macdShortEma,
+                            macdLongEma, macdSignalEma, averageGain, averageLoss, config);
+                }
+            }
+        }
+        return signals;
+    }
+
+    private void record(int window, int row, int length, double[] closes, double[] currentShortMA,
+                        double[] currentLongMA, double[] macdShortEma, double[] macdLongEma, double[] macdSignalEma,
+                        double[] averageGain, double[] averageLoss, StrategyConfig config) {
+        for (int s = 0; s < length; s++) {
+            int i = window + s;
+            close[i] = closes[row + s];
+            shortMA[i] = currentShortMA[s];
+            longMA[i] = currentLongMA[s];
+            macd[i] = macdShortEma[s] - macdLongEma[s];
+            macdSignal[i] = macdSignalEma[s];
+            if (averageLoss[s] == 0) {
+                rsi[i] = averageGain[s] == 0 ? 0 : 100;
+            } else {
+                rsi[i] = 100 - 100 / (1 + averageGain[s] / averageLoss[s]);
+            }
+
+            // Same rules and scoring as StockAlertService.evaluate, whose Bollinger bands use the close as the
+            // deviation: a close is never beyond them, so the Bollinger weight never counts towards a score
+            int flag = 0;
+            if (shortMA[i] > longMA[i] && previousShortMA[i] <= previousLongMA[i]) {
+                flag |= GOLDEN_CROSS;
+            }
+            if (shortMA[i] < longMA[i] && previousShortMA[i] >= previousLongMA[i]) {
+                flag |= DEATH_CROSS;
+            }
+            double deviation = close[i] * BBANDS_K;
+            double entryScore = (rsi[i] < 30 ? config.getRsiWeight() : 0)
+                    + (macd[i] > macdSignal[i] && previousMacd[i] <= previousMacdSignal[i] ? config.getMacdWeight() : 0)
+                    + (close[i] > close[i] + deviation ? config.getBollingerWeight() : 0);
+            if (entryScore >= config.getThreshold()) {
+                flag |= ENTRY_CONFIRMED;
+            }
+            double exitScore = (rsi[i] > 70 ? config.getRsiWeight() : 0)
+                    + (macd[i] < macdSignal[i] && previousMacd[i] >= previousMacdSignal[i] ? config.getMacdWeight() : 0)
+                    + (close[i] < close[i] - deviation ? config.getBollingerWeight() : 0);
+            if (exitScore >= config.getThreshold()) {
+                flag |= EXIT_CONFIRMED;
+            }
+            flags[i] = (byte) flag;
+        }
+    }
+
+    public UniverseColumns getColumns() {
+        return columns;
+    }
+
+    /**
+     * The flags of a symbol at one bar of its confirmation window.
+     *
+     * @param symbol Index of the symbol in {@link UniverseColumns#getSymbols()}.
+     * @param bar Index of the bar within the last {@code timeWindow + 1} bars of the symbol.
+     */
+    public int flags(int symbol, int bar) {
+        return flags[(firstStep(symbol) + bar - windowStart) * symbolCount + symbol];
+    }
+
+    /**
+     * Number of bars of a symbol in the confirmation window.
+     */
+    public int windowSize(int symbol) {
+        return columns.steps() - firstStep(symbol);
+    }
+
+    /**
+     * Whether a symbol has a golden or death cross in its confirmation window, without which a scan can only
+     * produce alerts for the symbol from conditions stored earlier.
+     */
+    public boolean hasCross(int symbol) {
+        for (int bar = 0; bar < windowSize(symbol); bar++) {
+            if ((flags(symbol, bar) & (GOLDEN_CROSS | DEATH_CROSS)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The snapshots of the confirmation window of a symbol, oldest first, equal to those of
+     * {@link PrimitiveSignalState#advance(BarColumns)}.
+     */
+    public List<SignalSnapshot> snapshots(int symbol) {
+        List<SignalSnapshot> snapshots = new ArrayList<>(windowSize(symbol));
+        for (int t = firstStep(symbol); t < columns.steps(); t++) {
+            int i = (t - windowStart) * symbolCount + symbol;
+            double deviation = close[i] * BBANDS_K;
+            snapshots.add(new SignalSnapshot(LocalDate.ofEpochDay(columns.epochDay(symbol, t)),
+                    DoubleNum.valueOf(close[i]), DoubleNum.valueOf(shortMA[i]), DoubleNum.valueOf(longMA[i]),
+                    DoubleNum.valueOf(rsi[i]), DoubleNum.valueOf(macd[i]), DoubleNum.valueOf(macdSignal[i]),
+                    DoubleNum.valueOf(close[i] + deviation), DoubleNum.valueOf(close[i] - deviation),
+                    DoubleNum.valueOf(previousShortMA[i]), DoubleNum.valueOf(previousLongMA[i]),
+                    DoubleNum.valueOf(previousMacd[i]), DoubleNum.valueOf(previousMacdSignal[i]),
+                    DoubleNum::valueOf));
+        }
+        return snapshots;
+    }
+
+    private int firstStep(int symbol) {
+        return Math.max(windowStart, columns.start(symbol));
+    }
+}
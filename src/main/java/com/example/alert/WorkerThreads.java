@@ -0,0 +1,66 @@
+package com.example.alert;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the worker executors of the scan and ingest services, on platform or virtual threads.
+ * <p>
+ * Virtual threads are used when {@code spring.threads.virtual.enabled=true} and the application runs on Java 21
+ * or later, the same condition under which Spring Boot moves Tomcat request handling and scheduled tasks to
+ * virtual threads. On Java 17 the property is ignored with a warning.
+ */
+@Component
+public class WorkerThreads {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerThreads.class);
+
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+        if (!virtual && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            logger.warn("Virtual threads need Java 21, workers run on platform threads on Java {}",
+                    Runtime.version().feature());
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Create an executor that runs each task on a virtual thread of its own, or, on platform threads, a pool of
+     * daemon threads.
+     *
+     * @param name Prefix of the thread names.
+     * @param parallelism Number of platform threads; virtual threads are not limited.
+     */
+    public ExecutorService newExecutor(String name, int parallelism) {
+        if (virtual) {
+            // Executors.newThreadPerTaskExecutor is Java 21 API; a pool without idle threads starts a thread
+            // per task the same way
+            ThreadFactory factory = new VirtualThreadTaskExecutor(name).getVirtualThreadFactory();
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    factory);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, name + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
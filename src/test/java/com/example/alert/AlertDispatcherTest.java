@@ -0,0 +1,89 @@
+package com.example.alert;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AlertDispatcherTest {
+
+    @Test
+    public void testBatchesBySize() {
+        AlertProperties properties = new AlertProperties();
+        properties.getSink().setBatchSize(3);
+        properties.getSink().setMaxDelay(Duration.ofHours(1));
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher(Map.of("sizes", alerts -> batchSizes.add(alerts.size())),
+                new SimpleMeterRegistry(), properties);
+        try {
+            dispatcher.publish(alerts(7));
+
+            assertTrue(dispatcher.flush(Duration.ofSeconds(5)));
+            assertEquals(List.of(3, 3, 1), batchSizes);
+        } finally {
+            dispatcher.destroy();
+        }
+    }
+
+    @Test
+    public void testSlowSinkDropsWithoutBlocking() throws Exception {
+        AlertProperties properties = new AlertProperties();
+        properties.getSink().setBatchSize(1);
+        properties.getSink().setQueueCapacity(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Alert> slowAlerts = new CopyOnWriteArrayList<>();
+        List<Alert> fastAlerts = new CopyOnWriteArrayList<>();
+        AlertDispatcher dispatcher = new AlertDispatcher(Map.of("fast", fastAlerts::addAll), registry, properties);
+        AlertDispatcher.Subscription subscription = dispatcher.subscribe("slow", alerts -> {
+            writing.countDown();
+            release.await();
+            slowAlerts.addAll(alerts);
+        });
+        try {
+            dispatcher.publish(alerts(1));
+            assertTrue(writing.await(5, TimeUnit.SECONDS));
+            // Two fit in the queue behind the batch being written. They go one at a time so that the fast sink,
+            // whose queue is just as small, keeps up
+            for (Alert alert : alerts(4)) {
+                int written = fastAlerts.size();
+                dispatcher.publish(List.of(alert));
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (fastAlerts.size() == written && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+            }
+            assertEquals(2, registry.get("alert.sink.dropped").tag("sink", "slow").counter().count());
+            assertEquals(0, registry.get("alert.sink.dropped").tag("sink", "fast").counter().count());
+
+            release.countDown();
+            assertTrue(dispatcher.flush(Duration.ofSeconds(5)));
+            assertEquals(3, slowAlerts.size());
+            assertEquals(5, fastAlerts.size());
+        } finally {
+            release.countDown();
+            subscription.close();
+            dispatcher.destroy();
+        }
+    }
+
+    private static List<Alert> alerts(int count) {
+        List<Alert> alerts = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            alerts.add(new Alert("ENTRY", "SINK", LocalDate.of(2000, 1, 3).plusDays(i), 1, 2, 30, 0.1, 0.2, 3,
+                    "Golden Cross"));
+        }
+        return alerts;
+    }
+}
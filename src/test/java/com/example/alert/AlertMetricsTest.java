@@ -0,0 +1,52 @@
+package com.example.alert;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AlertMetricsTest {
+
+    @Test
+    public void testOnlySlowSymbolsAreTagged() {
+        AlertProperties properties = new AlertProperties();
+        properties.getMetrics().setSlowSymbolThreshold(Duration.ofMillis(10));
+        properties.getMetrics().setMaxSlowSymbols(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AlertMetrics metrics = new AlertMetrics(registry, properties);
+
+        metrics.recordSymbol("FAST", 1, 0, Duration.ofMillis(1).toNanos());
+        metrics.recordSymbol("SLOW1", 2, 3, Duration.ofMillis(20).toNanos());
+        metrics.recordSymbol("SLOW1", 1, 3, Duration.ofMillis(1).toNanos());
+        metrics.recordSymbol("SLOW2", 1, 0, Duration.ofMillis(30).toNanos());
+        metrics.recordSymbol("SLOW3", 1, 0, Duration.ofMillis(40).toNanos());
+
+        assertEquals(5, registry.get("alert.symbol").timer().count());
+        assertEquals(6, registry.get("alert.repository.calls").summary().totalAmount());
+        assertNull(registry.find("alert.symbol.slow").tag("symbol", "FAST").timer());
+        assertEquals(2, registry.get("alert.symbol.slow").tag("symbol", "SLOW1").timer().count(),
+                "A tagged symbol keeps recording once it was slow");
+        assertNotNull(registry.find("alert.symbol.slow").tag("symbol", "SLOW2").timer());
+        assertNull(registry.find("alert.symbol.slow").tag("symbol", "SLOW3").timer(), "The number of tags is bounded");
+    }
+
+    @Test
+    public void testCrossesAreTakenFromTheEvaluation() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AlertMetrics metrics = new AlertMetrics(registry, new AlertProperties());
+
+        metrics.recordEvaluation(UniverseSignals.GOLDEN_CROSS, List.of(), 0, 1);
+        metrics.recordEvaluation(0, List.of(), 0, 1);
+        metrics.recordEvaluation(UniverseSignals.DEATH_CROSS, List.of(), 0, 1);
+        metrics.recordEvaluation(UniverseSignals.DEATH_CROSS, List.of(), 0, 1);
+
+        assertEquals(4, registry.get("alert.evaluation").timer().count());
+        assertEquals(1, registry.get("alert.crosses").tag("type", "GOLDEN_CROSS").counter().count());
+        assertEquals(2, registry.get("alert.crosses").tag("type", "DEATH_CROSS").counter().count());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AlertTest {
+
+    @Test
+    public void testToStringMatchesFormattedValues() {
+        double[] values = {0, 1, 105.125, 99.994, 99.996, -3.5, -0.25, 1234567.891, 0.07, Double.NaN};
+        for (double value : values) {
+            Alert alert = new Alert("ENTRY", "TEST", LocalDate.of(2023, 10, 7), value, value, value, value, value,
+                    value, "Golden Cross");
+            String expected = String.format(Locale.ROOT, "%s SIGNAL on %s for %s: Short MA = %.2f, Long MA = %.2f, RSI = %.2f, MACD = %.2f, Bollinger = %.2f. Reasoning: %s",
+                    "ENTRY", LocalDate.of(2023, 10, 7), "TEST", value, value, value, value, value, "Golden Cross");
+            assertEquals(expected, alert.toString());
+        }
+    }
+}
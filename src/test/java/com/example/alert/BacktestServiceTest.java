@@ -0,0 +1,74 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ta4j.core.BarSeries;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BacktestServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final BacktestService backtestService = new BacktestService(new AlertProperties());
+
+    @AfterEach
+    public void tearDown() {
+        backtestService.destroy();
+    }
+
+    @Test
+    public void testUniverseBacktestIsOrderedAndCoversHistory() {
+        AlertProperties properties = new AlertProperties();
+        properties.getBarStore().setDirectory(directory.toString());
+        ColumnarBarStore store = new ColumnarBarStore(properties);
+        for (String symbol : List.of("CCC", "AAA", "BBB")) {
+            BarSeries barSeries = SyntheticBarSeries.create(symbol, 5000, symbol.hashCode());
+            for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+                store.append(symbol, barSeries.getBar(i));
+            }
+        }
+
+        BacktestReport report = backtestService.backtestUniverse(store.openAll());
+        store.destroy();
+
+        assertEquals(List.of("AAA", "BBB", "CCC"),
+                report.getResults().stream().map(BacktestResult::getStockSymbol).toList());
+        report.getResults().forEach(result -> assertEquals(5000, result.getBarCount()));
+        assertTrue(report.getFailures().isEmpty());
+        assertEquals(6, report.getSummaries().size(), "One summary per signal type and horizon");
+    }
+
+    @Test
+    public void testForwardReturnSummary() {
+        Alert entry = new Alert("ENTRY", "TEST", LocalDate.of(2023, 10, 7), 0, 0, 0, 0, 0, 0, "");
+        Alert exit = new Alert("EXIT", "TEST", LocalDate.of(2023, 11, 7), 0, 0, 0, 0, 0, 0, "");
+        BacktestResult result = new BacktestResult("TEST", 100, List.of(
+                new BacktestSignal(entry, 10, new double[]{0.05}),
+                new BacktestSignal(entry, 20, new double[]{-0.01}),
+                new BacktestSignal(entry, 99, new double[]{Double.NaN}),
+                new BacktestSignal(exit, 40, new double[]{-0.02})));
+
+        ForwardReturnSummary entries = ForwardReturnSummary.of("ENTRY", 5, 0, List.of(result));
+        assertEquals(2, entries.getCount(), "Signals without a full horizon are left out");
+        assertEquals(0.02, entries.getMeanReturn(), 1e-12);
+        assertEquals(0.5, entries.getHitRate(), 1e-12);
+
+        ForwardReturnSummary exits = ForwardReturnSummary.of("EXIT", 5, 0, List.of(result));
+        assertEquals(1.0, exits.getHitRate(), 1e-12, "A falling price confirms an exit");
+    }
+
+    @Test
+    public void testEmptyUniverse() {
+        BacktestReport report = backtestService.backtestUniverse(Map.of());
+        assertTrue(report.getResults().isEmpty());
+    }
+}
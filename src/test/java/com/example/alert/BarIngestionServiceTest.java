@@ -0,0 +1,283 @@
+package com.example.alert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A MACD cross alone reaches the threshold, so the synthetic bars produce alerts
+@SpringBootTest(properties = {"alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+        "alert.strategy.threshold=0.4", "alert.ingest.chunk-size=50", "alert.ingest.max-pending-chunks=2"})
+@AutoConfigureMockMvc
+public class BarIngestionServiceTest {
+
+    @Autowired
+    private BarIngestionService barIngestionService;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private AlertFeed alertFeed;
+
+    @Autowired
+    private AlertDispatcher alertDispatcher;
+
+    @Autowired
+    private SignalEngine signalEngine;
+
+    @Autowired
+    private ColumnarBarStore columnarBarStore;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PrimaryConditionRepository primaryConditionRepository;
+
+    @Autowired
+    private AlertProperties properties;
+
+    @Autowired
+    private AlertMetrics metrics;
+
+    @Autowired
+    private SeriesCache seriesCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    @Test
+    public void testIngestMatchesBarByBarProcessing() throws Exception {
+        BarSeries first = SyntheticBarSeries.create("ING1", 1000, 1);
+        BarSeries second = SyntheticBarSeries.create("ING2", 1000, 2);
+        StringBuilder csv = new StringBuilder("symbol,date,open,high,low,close,volume\n");
+        for (int i = 0; i < 1000; i++) {
+            appendCsv(csv, "ING1", first.getBar(i));
+            appendCsv(csv, "ING2", second.getBar(i));
+        }
+        csv.append("ING1,not-a-date,1,1,1,1,1\n");
+
+        IngestResult result = barIngestionService.ingest(new StringReader(csv.toString()),
+                BarIngestionService.Format.CSV);
+
+        assertEquals(2000, result.getBarCount());
+        assertEquals(2, result.getSymbolCount());
+        assertEquals(1, result.getRejectedCount());
+        assertTrue(result.getRejectedLines().get(0).startsWith("2002: "));
+        assertTrue(result.getFailures().isEmpty());
+
+        // The same bars fed one at a time under other symbols
+        List<Alert> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.addAll(stockAlertService.onBar("SEQ1", first.getBar(i)));
+            expected.addAll(stockAlertService.onBar("SEQ2", second.getBar(i)));
+        }
+        assertTrue(result.getAlertCount() > 0, "The strategy should confirm some alerts");
+        assertTrue(alertDispatcher.flush(Duration.ofSeconds(10)));
+        assertEquals(expected.size(), result.getAlertCount());
+        assertEquals(expected.stream().filter(alert -> alert.getStockSymbol().equals("SEQ1")).count(),
+                alertFeed.find("ING1", null, null, null, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testResentBarsAreSkipped() throws Exception {
+        BarSeries barSeries = SyntheticBarSeries.create("RES", 600, 5);
+        // Neighbouring days swapped, within the chunks of 50 bars
+        StringBuilder first = new StringBuilder();
+        for (int i = 0; i < 400; i += 2) {
+            appendCsv(first, "RES", barSeries.getBar(i + 1));
+            appendCsv(first, "RES", barSeries.getBar(i));
+        }
+        StringBuilder rest = new StringBuilder();
+        for (int i = 350; i < 600; i++) {
+            appendCsv(rest, "RES", barSeries.getBar(i));
+        }
+
+        IngestResult sent = barIngestionService.ingest(new StringReader(first.toString()),
+                BarIngestionService.Format.CSV);
+        IngestResult resent = barIngestionService.ingest(new StringReader(first.toString()),
+                BarIngestionService.Format.CSV);
+        IngestResult overlapping = barIngestionService.ingest(new StringReader(rest.toString()),
+                BarIngestionService.Format.CSV);
+
+        List<Alert> expected = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            expected.addAll(stockAlertService.onBar("REF", barSeries.getBar(i)));
+        }
+        assertTrue(expected.size() > 0, "The strategy should confirm some alerts");
+        assertTrue(sent.getFailures().isEmpty() && resent.getFailures().isEmpty()
+                && overlapping.getFailures().isEmpty());
+        assertEquals(0, resent.getAlertCount());
+        assertEquals(expected.size(), sent.getAlertCount() + overlapping.getAlertCount());
+        assertTrue(alertDispatcher.flush(Duration.ofSeconds(10)));
+        List<Alert> actual = alertFeed.find("RES", null, null, null, Integer.MAX_VALUE);
+        assertEquals(expected.stream().map(alert -> alert.getSignalType() + alert.getDate()).sorted().toList(),
+                actual.stream().map(alert -> alert.getSignalType() + alert.getDate()).sorted().toList());
+    }
+
+    @Test
+    public void testStateCatchesUpWithStoredBars() throws Exception {
+        BarSeries barSeries = SyntheticBarSeries.create("STO", 600, 6);
+        StringBuilder first = new StringBuilder();
+        StringBuilder rest = new StringBuilder();
+        for (int i = 0; i < 600; i++) {
+            appendCsv(i < 400 ? first : rest, "STO", barSeries.getBar(i));
+        }
+
+        barIngestionService.ingest(new StringReader(first.toString()), BarIngestionService.Format.CSV);
+        // As after a restart without checkpoint
+        signalEngine.reset("STO");
+        IngestResult result = barIngestionService.ingest(new StringReader(rest.toString()),
+                BarIngestionService.Format.CSV);
+
+        List<Alert> expected = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            List<Alert> alerts = stockAlertService.onBar("STOREF", barSeries.getBar(i));
+            if (i >= 400) {
+                expected.addAll(alerts);
+            }
+        }
+        assertEquals(600, columnarBarStore.open("STO").size());
+        assertEquals(expected.size(), result.getAlertCount());
+    }
+
+    @Test
+    public void testFailedChunkStopsLaterChunksOfItsSymbol() throws Exception {
+        BarSeries barSeries = SyntheticBarSeries.create("OK", 120, 7);
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            appendCsv(csv, "OK", barSeries.getBar(i));
+            // The bar store rejects the symbol
+            appendCsv(csv, "../BAD", barSeries.getBar(i));
+        }
+
+        IngestResult result = barIngestionService.ingest(new StringReader(csv.toString()),
+                BarIngestionService.Format.CSV);
+
+        assertEquals(List.of("../BAD"), List.copyOf(result.getFailures().keySet()));
+        assertTrue(result.getFailures().get("../BAD").contains("Invalid stock symbol"),
+                result.getFailures().get("../BAD"));
+        assertEquals(120, columnarBarStore.open("OK").size());
+    }
+
+    @Test
+    public void testFailedChunkDoesNotStopTheChunksOfAnotherRequest() throws Exception {
+        CountDownLatch failing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // Fails the first chunk of the symbol once the test lets it
+        StockAlertService failingService = new StockAlertService(primaryConditionRepository, signalEngine,
+                properties, metrics, seriesCache, columnarBarStore, alertDispatcher) {
+            @Override
+            public List<Alert> onBars(String stockSymbol, List<Bar> bars) {
+                if (failing.getCount() > 0) {
+                    failing.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("Feed interrupted");
+                }
+                return super.onBars(stockSymbol, bars);
+            }
+        };
+        BarIngestionService ingestionService = new BarIngestionService(failingService, objectMapper, properties,
+                workerThreads);
+        try {
+            BarSeries barSeries = SyntheticBarSeries.create("OVL", 120, 8);
+            StringBuilder csv = new StringBuilder();
+            for (int i = 0; i < 120; i++) {
+                appendCsv(csv, "OVL", barSeries.getBar(i));
+            }
+            // A single chunk, which takes one of the two slots for pending chunks
+            String firstCsv = csv.substring(0, csv.indexOf("OVL," + barSeries.getBar(50).getEndTime().toLocalDate()));
+
+            CompletableFuture<IngestResult> first = CompletableFuture.supplyAsync(
+                    () -> ingest(ingestionService, firstCsv));
+            assertTrue(failing.await(10, TimeUnit.SECONDS));
+            // The second request submits its first chunk behind the failing one, then waits for a free slot
+            CompletableFuture<IngestResult> second = new CompletableFuture<>();
+            Thread secondThread = new Thread(() -> second.complete(ingest(ingestionService, csv)));
+            secondThread.start();
+            for (int i = 0; secondThread.getState() != Thread.State.WAITING; i++) {
+                assertTrue(i < 10_000, "The second request should wait for a free slot");
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals(List.of("OVL"), List.copyOf(first.get(10, TimeUnit.SECONDS).getFailures().keySet()));
+            IngestResult resent = second.get(10, TimeUnit.SECONDS);
+            assertTrue(resent.getFailures().isEmpty(), String.valueOf(resent.getFailures()));
+            assertEquals(120, columnarBarStore.open("OVL").size());
+        } finally {
+            ingestionService.destroy();
+        }
+    }
+
+    @Test
+    public void testEndpoints() throws Exception {
+        BarSeries barSeries = SyntheticBarSeries.create("HTTP", 500, 3);
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            Bar bar = barSeries.getBar(i);
+            ndjson.append("{\"symbol\":\"HTTP\",\"date\":\"").append(bar.getEndTime().toLocalDate())
+                    .append("\",\"open\":").append(bar.getOpenPrice())
+                    .append(",\"high\":").append(bar.getHighPrice())
+                    .append(",\"low\":").append(bar.getLowPrice())
+                    .append(",\"close\":").append(bar.getClosePrice())
+                    .append(",\"volume\":").append(bar.getVolume()).append("}\n");
+        }
+        ndjson.append("{\"symbol\":\"HTTP\"}\n");
+
+        mockMvc.perform(post("/bars").contentType("application/x-ndjson").content(ndjson.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.barCount").value(500))
+                .andExpect(jsonPath("$.rejectedCount").value(1));
+
+        assertTrue(alertDispatcher.flush(Duration.ofSeconds(10)));
+        int alertCount = alertFeed.find("HTTP", "ENTRY", null, null, Integer.MAX_VALUE).size();
+        mockMvc.perform(get("/alerts").param("symbol", "HTTP").param("type", "ENTRY").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(alertCount));
+    }
+
+    private static IngestResult ingest(BarIngestionService ingestionService, CharSequence csv) {
+        try {
+            return ingestionService.ingest(new StringReader(csv.toString()), BarIngestionService.Format.CSV);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void appendCsv(StringBuilder csv, String symbol, Bar bar) {
+        csv.append(symbol).append(',').append(bar.getEndTime().toLocalDate())
+                .append(',').append(bar.getOpenPrice())
+                .append(',').append(bar.getHighPrice())
+                .append(',').append(bar.getLowPrice())
+                .append(',').append(bar.getClosePrice())
+                .append(',').append(bar.getVolume()).append('\n');
+    }
+}
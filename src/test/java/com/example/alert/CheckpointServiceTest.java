@@ -0,0 +1,81 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.ta4j.core.BarSeries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A MACD cross alone reaches the threshold, so the synthetic bars produce alerts
+@SpringBootTest(properties = {"alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+        "alert.strategy.threshold=0.4", "alert.checkpoint.enabled=true",
+        "alert.checkpoint.file=${java.io.tmpdir}/alert-tests/${random.uuid}/checkpoint.bin"})
+public class CheckpointServiceTest {
+
+    @Autowired
+    private CheckpointService checkpointService;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private SignalEngine signalEngine;
+
+    @Autowired
+    private PrimaryConditionRepository primaryConditionRepository;
+
+    @Test
+    public void testRestoredStateContinuesWithTheNextBars() {
+        // As after a crash, the bars since the checkpoint are only in the bar store
+        assertContinuesAfterRestore("RST", false);
+    }
+
+    @Test
+    public void testConditionsOfBarsAfterTheCheckpointAreRecordedAgain() {
+        // As after a restart with the in-memory database, which loses the conditions since the checkpoint
+        assertContinuesAfterRestore("RSTDB", true);
+    }
+
+    private void assertContinuesAfterRestore(String stockSymbol, boolean clearDatabase) {
+        // Crosses between the checkpoint and the restart are confirmed by the bars after it
+        BarSeries barSeries = SyntheticBarSeries.create(stockSymbol, 700, 10);
+        for (int i = 0; i < 425; i++) {
+            stockAlertService.onBar(stockSymbol, barSeries.getBar(i));
+        }
+        checkpointService.checkpoint();
+        for (int i = 425; i < 430; i++) {
+            stockAlertService.onBar(stockSymbol, barSeries.getBar(i));
+        }
+
+        signalEngine.reset(stockSymbol);
+        if (clearDatabase) {
+            primaryConditionRepository.deleteAllInBatch();
+        }
+        assertTrue(checkpointService.restore() >= 1);
+        assertEquals(barSeries.getBar(429).getEndTime().toLocalDate(), signalEngine.lastDate(stockSymbol));
+
+        List<String> actual = new ArrayList<>();
+        for (int i = 430; i < 700; i++) {
+            stockAlertService.onBar(stockSymbol, barSeries.getBar(i)).forEach(alert -> actual.add(describe(alert)));
+        }
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 700; i++) {
+            List<Alert> alerts = stockAlertService.onBar(stockSymbol + "REF", barSeries.getBar(i));
+            if (i >= 430) {
+                alerts.forEach(alert -> expected.add(describe(alert)));
+            }
+        }
+        assertTrue(expected.size() > 0, "The strategy should confirm some alerts");
+        assertEquals(expected, actual);
+    }
+
+    private static String describe(Alert alert) {
+        return alert.getSignalType() + " " + alert.getDate() + " " + alert.getShortMAValue() + " "
+                + alert.getRsiValue();
+    }
+}
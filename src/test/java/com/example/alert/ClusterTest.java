@@ -0,0 +1,142 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.ServerSocket;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A coordinator and two members in this JVM, each an application context with its own web server, database
+ * and bar store, running with the default decimal engine.
+ */
+public class ClusterTest {
+
+    private static final int SYMBOLS = 20;
+    private static final int BARS = 600;
+
+    private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+    @AfterEach
+    public void tearDown() {
+        // Members first, so that they can still leave
+        for (int i = contexts.size() - 1; i >= 0; i--) {
+            contexts.get(i).close();
+        }
+    }
+
+    @Test
+    public void testSymbolsFollowTheirOwnerAcrossJoinAndLeave() throws Exception {
+        int coordinatorPort = freePort();
+        ConfigurableApplicationContext coordinator = start(coordinatorPort, "alert.cluster.role=coordinator");
+        ClusterCoordinator clusterCoordinator = coordinator.getBean(ClusterCoordinator.class);
+        String coordinatorUrl = "http://localhost:" + coordinatorPort;
+        List<BarSeries> universe = new ArrayList<>();
+        for (int i = 0; i < SYMBOLS; i++) {
+            universe.add(SyntheticBarSeries.create("CL" + i, BARS, i));
+        }
+
+        ConfigurableApplicationContext first = startMember(coordinatorUrl);
+        IngestResult beforeJoin = clusterCoordinator.route(csv(universe, 0, 300), BarIngestionService.Format.CSV);
+        ConfigurableApplicationContext second = startMember(coordinatorUrl);
+        assertEquals(2, clusterCoordinator.getMembers().size());
+        IngestResult afterJoin = clusterCoordinator.route(csv(universe, 300, 450), BarIngestionService.Format.CSV);
+        assertEquals(SYMBOLS * 150, afterJoin.getBarCount());
+        assertEquals(SYMBOLS, afterJoin.getSymbolCount());
+
+        // Only the owner of a symbol holds its state and stored bars, which continued from the bars before the join
+        ConsistentHashRing ring = new ConsistentHashRing(clusterCoordinator.getMembers(),
+                coordinator.getBean(AlertProperties.class).getCluster().getVirtualNodes());
+        LocalDate lastDate = universe.get(0).getBar(449).getEndTime().toLocalDate();
+        int secondSymbols = 0;
+        for (BarSeries barSeries : universe) {
+            String symbol = barSeries.getName();
+            boolean ownedBySecond = ring.ownerOf(symbol).equals(advertisedUrl(second));
+            ConfigurableApplicationContext owner = ownedBySecond ? second : first;
+            ConfigurableApplicationContext other = ownedBySecond ? first : second;
+            assertEquals(lastDate, owner.getBean(SignalEngine.class).lastDate(symbol), symbol);
+            assertNull(other.getBean(SignalEngine.class).lastDate(symbol), symbol);
+            assertEquals(450, owner.getBean(ColumnarBarStore.class).open(symbol).size(), symbol);
+            assertNull(other.getBean(ColumnarBarStore.class).open(symbol), symbol);
+            secondSymbols += ownedBySecond ? 1 : 0;
+        }
+        assertTrue(secondSymbols > 0 && secondSymbols < SYMBOLS, "The join should move some symbols");
+
+        second.close();
+        assertEquals(List.of(advertisedUrl(first)), clusterCoordinator.getMembers());
+        for (BarSeries barSeries : universe) {
+            assertEquals(lastDate, first.getBean(SignalEngine.class).lastDate(barSeries.getName()));
+            assertEquals(450, first.getBean(ColumnarBarStore.class).open(barSeries.getName()).size());
+        }
+        IngestResult afterLeave = clusterCoordinator.route(csv(universe, 450, BARS), BarIngestionService.Format.CSV);
+
+        // The same bars on a single instance
+        StockAlertService reference = coordinator.getBean(StockAlertService.class);
+        int expected = 0;
+        for (BarSeries barSeries : universe) {
+            for (int i = 0; i < BARS; i++) {
+                expected += reference.onBar("REF" + barSeries.getName(), barSeries.getBar(i)).size();
+            }
+        }
+        assertTrue(expected > 0, "The strategy should confirm some alerts");
+        assertTrue(beforeJoin.getFailures().isEmpty() && afterJoin.getFailures().isEmpty()
+                && afterLeave.getFailures().isEmpty());
+        assertEquals(expected, beforeJoin.getAlertCount() + afterJoin.getAlertCount() + afterLeave.getAlertCount());
+    }
+
+    private ConfigurableApplicationContext startMember(String coordinatorUrl) throws IOException {
+        int port = freePort();
+        return start(port, "alert.cluster.role=member", "alert.cluster.coordinator-url=" + coordinatorUrl,
+                "alert.cluster.advertised-url=http://localhost:" + port);
+    }
+
+    // A MACD cross alone reaches the threshold, so the synthetic bars produce alerts
+    private ConfigurableApplicationContext start(int port, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AlertApplication.class)
+                .properties("server.port=" + port, "spring.main.banner-mode=off",
+                        "alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+                        "alert.strategy.threshold=0.4")
+                .properties(properties)
+                .run();
+        contexts.add(context);
+        return context;
+    }
+
+    private static String advertisedUrl(ConfigurableApplicationContext member) {
+        return member.getBean(ClusterMember.class).getAdvertisedUrl();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static StringReader csv(List<BarSeries> universe, int from, int to) {
+        StringBuilder csv = new StringBuilder("symbol,date,open,high,low,close,volume\n");
+        for (int i = from; i < to; i++) {
+            for (BarSeries barSeries : universe) {
+                Bar bar = barSeries.getBar(i);
+                csv.append(barSeries.getName()).append(',').append(bar.getEndTime().toLocalDate())
+                        .append(',').append(bar.getOpenPrice())
+                        .append(',').append(bar.getHighPrice())
+                        .append(',').append(bar.getLowPrice())
+                        .append(',').append(bar.getClosePrice())
+                        .append(',').append(bar.getVolume()).append('\n');
+            }
+        }
+        return new StringReader(csv.toString());
+    }
+}
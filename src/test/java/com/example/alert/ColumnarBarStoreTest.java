@@ -0,0 +1,108 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ta4j.core.BarSeries;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class ColumnarBarStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private ColumnarBarStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = newStore();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.destroy();
+    }
+
+    private ColumnarBarStore newStore() {
+        AlertProperties properties = new AlertProperties();
+        properties.getBarStore().setDirectory(directory.toString());
+        properties.getBarStore().setInitialCapacity(64);
+        return new ColumnarBarStore(properties);
+    }
+
+    @Test
+    public void testAppendGrowAndReopen() {
+        BarSeries barSeries = SyntheticBarSeries.create("TEST", 1000, 3);
+        for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+            store.append("TEST", barSeries.getBar(i));
+        }
+        BarColumns before = store.open("TEST");
+        store.destroy();
+
+        store = newStore();
+        BarColumns barColumns = store.open("TEST");
+        assertEquals(1000, barColumns.size());
+        assertEquals(1000, before.size());
+        for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+            assertEquals(barSeries.getBar(i).getEndTime().toLocalDate().toEpochDay(), barColumns.epochDay(i));
+            assertEquals(barSeries.getBar(i).getClosePrice().doubleValue(), barColumns.close(i));
+            assertEquals(barSeries.getBar(i).getVolume().doubleValue(), barColumns.volume(i));
+            assertEquals(barColumns.close(i), before.close(i), "Views opened before growing stay valid");
+        }
+        assertEquals(1000, store.openAll().get("TEST").size());
+    }
+
+    @Test
+    public void testAppendRejectsOutOfOrderDays() {
+        store.append("TEST", 19000, 1, 2, 0.5, 1.5, 100);
+        assertThrows(IllegalArgumentException.class, () -> store.append("TEST", 19000, 1, 2, 0.5, 1.5, 100));
+    }
+
+    @Test
+    public void testSymbolsDoNotKeepFilesOpen() throws Exception {
+        Path descriptors = Path.of("/proc/self/fd");
+        assumeTrue(Files.isDirectory(descriptors), "Needs /proc to count open files");
+        long before;
+        try (Stream<Path> files = Files.list(descriptors)) {
+            before = files.count();
+        }
+        // Every symbol grows past the initial capacity once
+        for (int symbol = 0; symbol < 500; symbol++) {
+            for (int day = 0; day < 65; day++) {
+                store.append("SYM" + symbol, 19000 + day, 1, 2, 0.5, 1.5, 100);
+            }
+        }
+        try (Stream<Path> files = Files.list(descriptors)) {
+            assertTrue(files.count() - before < 50, "Open files grow with the number of symbols");
+        }
+        assertEquals(65, store.open("SYM499").size());
+    }
+
+    @Test
+    public void testStoredBarsProduceSameSnapshotsAsBarSeries() {
+        BarSeries barSeries = SyntheticBarSeries.create("TEST", 500, 11);
+        for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+            store.append("TEST", barSeries.getBar(i));
+        }
+
+        List<SignalSnapshot> expected = new PrimitiveSignalState(new StrategyConfig()).advance(barSeries);
+        List<SignalSnapshot> actual = new PrimitiveSignalState(new StrategyConfig()).advance(store.open("TEST"));
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+            assertEquals(expected.get(i).getLongMA().doubleValue(), actual.get(i).getLongMA().doubleValue());
+            assertEquals(expected.get(i).getRsi().doubleValue(), actual.get(i).getRsi().doubleValue());
+        }
+    }
+}
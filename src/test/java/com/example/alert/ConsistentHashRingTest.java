@@ -0,0 +1,75 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsistentHashRingTest {
+
+    private static final int SYMBOLS = 20_000;
+
+    private static final List<String> MEMBERS = List.of("http://localhost:8081", "http://localhost:8082",
+            "http://localhost:8083", "http://localhost:8084");
+
+    @Test
+    public void testSymbolsAreSpreadEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, 256);
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < SYMBOLS; i++) {
+            counts.merge(ring.ownerOf(symbol(i)), 1, Integer::sum);
+        }
+
+        assertEquals(MEMBERS.size(), counts.size());
+        int mean = SYMBOLS / MEMBERS.size();
+        for (int count : counts.values()) {
+            assertTrue(Math.abs(count - mean) < mean * 0.2, "Unbalanced partition of " + count + " symbols");
+        }
+    }
+
+    @Test
+    public void testOnlySymbolsOfTheChangedMemberMove() {
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, 256);
+        String newMember = "http://localhost:8085";
+        ConsistentHashRing joined = ring.with(newMember);
+        ConsistentHashRing left = ring.without(MEMBERS.get(0));
+
+        int movedOnJoin = 0;
+        int movedOnLeave = 0;
+        for (int i = 0; i < SYMBOLS; i++) {
+            String owner = ring.ownerOf(symbol(i));
+            if (!owner.equals(joined.ownerOf(symbol(i)))) {
+                assertEquals(newMember, joined.ownerOf(symbol(i)));
+                movedOnJoin++;
+            }
+            if (!owner.equals(left.ownerOf(symbol(i)))) {
+                assertEquals(MEMBERS.get(0), owner);
+                movedOnLeave++;
+            }
+        }
+
+        // About a fifth of the symbols go to the new member, and a quarter leave with the removed one
+        assertTrue(Math.abs(movedOnJoin - SYMBOLS / 5) < SYMBOLS / 25, movedOnJoin + " symbols moved on join");
+        assertTrue(Math.abs(movedOnLeave - SYMBOLS / 4) < SYMBOLS / 20, movedOnLeave + " symbols moved on leave");
+    }
+
+    @Test
+    public void testOwnersDependOnlyOnTheMembers() {
+        ConsistentHashRing ring = new ConsistentHashRing(MEMBERS, 256);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of(MEMBERS.get(3), MEMBERS.get(1),
+                MEMBERS.get(0), MEMBERS.get(2)), 256);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(ring.ownerOf(symbol(i)), reordered.ownerOf(symbol(i)));
+        }
+        assertNull(new ConsistentHashRing(List.of(), 256).ownerOf("AAPL"));
+    }
+
+    private static String symbol(int i) {
+        return "SYM" + i;
+    }
+}
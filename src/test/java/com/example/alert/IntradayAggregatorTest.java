@@ -0,0 +1,154 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+        "alert.strategy.threshold=0.4", "alert.intraday.hourly=true", "alert.intraday.provisional-interval=PT10M",
+        "alert.intraday.close-cron=-"})
+public class IntradayAggregatorTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/New_York");
+    private static final int MINUTES = 60;
+
+    @Autowired
+    private IntradayAggregator intradayAggregator;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private AlertFeed alertFeed;
+
+    @Autowired
+    private AlertDispatcher alertDispatcher;
+
+    @Test
+    public void testMinuteBarsMatchDailyBars() {
+        BarSeries barSeries = SyntheticBarSeries.create("DAY", 400, 4);
+        AtomicInteger hourlyBars = new AtomicInteger();
+        intradayAggregator.addHourlyListener((symbol, bar) -> {
+            if (symbol.equals("MIN")) {
+                hourlyBars.incrementAndGet();
+            }
+        });
+
+        List<Alert> expected = new ArrayList<>();
+        for (int i = 0; i < barSeries.getBarCount(); i++) {
+            Bar bar = barSeries.getBar(i);
+            addMinuteBars("MIN", bar);
+            expected.addAll(stockAlertService.onBar("DAY", bar));
+        }
+        intradayAggregator.close("MIN");
+
+        assertTrue(expected.size() > 0, "The strategy should confirm some alerts");
+        assertTrue(alertDispatcher.flush(Duration.ofSeconds(10)));
+        assertEquals(expected.size(), alertFeed.find("MIN", null, null, null, Integer.MAX_VALUE).size());
+        // 09:30 to 09:59 and 10:00 to 10:29 each day
+        assertEquals(2 * barSeries.getBarCount(), hourlyBars.get());
+    }
+
+    @Test
+    public void testRejectsMinuteBarsOfClosedDay() {
+        long epochSecond = LocalDate.of(2001, 3, 5).atTime(9, 30).atZone(ZONE).toEpochSecond();
+        intradayAggregator.onMinuteBar("LATE", epochSecond, 10, 11, 9, 10, 100);
+        intradayAggregator.close("LATE");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> intradayAggregator.onMinuteBar("LATE", epochSecond + 60, 10, 11, 9, 10, 100));
+    }
+
+    @Test
+    public void testFailedCloseKeepsTheDayOpen() {
+        // The bar store rejects the symbol, so the daily bar fails in StockAlertService
+        long epochSecond = LocalDate.of(2001, 3, 5).atTime(9, 30).atZone(ZONE).toEpochSecond();
+        intradayAggregator.onMinuteBar("../FAIL", epochSecond, 10, 11, 9, 10, 100);
+        assertThrows(IllegalArgumentException.class, () -> intradayAggregator.close("../FAIL"));
+
+        // The daily bar is not lost: the day still takes minute bars and the next close tries the bar again
+        intradayAggregator.onMinuteBar("../FAIL", epochSecond + 60, 10, 11, 9, 10, 100);
+        assertThrows(IllegalArgumentException.class, () -> intradayAggregator.close("../FAIL"));
+    }
+
+    @Test
+    public void testProvisionalSignalIsPushedOncePerDay() throws Exception {
+        BarSeries barSeries = SyntheticBarSeries.create("PRVREF", 400, 5);
+        List<String> provisional = new CopyOnWriteArrayList<>();
+        AlertDispatcher.Subscription subscription = alertDispatcher.subscribe("provisional", alerts -> {
+            for (Alert alert : alerts) {
+                if (alert.isProvisional() && alert.getStockSymbol().equals("PRV")) {
+                    provisional.add(alert.getDate() + " " + alert.getSignalType());
+                }
+            }
+        });
+        try {
+            // Every minute closes at the close of the day, so each provisional evaluation sees the final close
+            StringBuilder csv = new StringBuilder("symbol,time,open,high,low,close,volume\n");
+            Set<String> expected = new HashSet<>();
+            int closedAlertCount = 0;
+            for (int i = 0; i < barSeries.getBarCount(); i++) {
+                Bar bar = barSeries.getBar(i);
+                long start = bar.getEndTime().toLocalDate().atTime(9, 30).atZone(ZONE).toEpochSecond();
+                for (int minute = 0; minute < MINUTES; minute++) {
+                    csv.append("PRV,").append(Instant.ofEpochSecond(start + minute * 60L).atZone(ZONE)
+                                    .toOffsetDateTime())
+                            .append(',').append(bar.getOpenPrice()).append(',').append(bar.getHighPrice())
+                            .append(',').append(bar.getLowPrice()).append(',').append(bar.getClosePrice())
+                            .append(",10\n");
+                }
+                List<Alert> alerts = stockAlertService.onBar("PRVREF", bar);
+                alerts.forEach(alert -> expected.add(alert.getDate() + " " + alert.getSignalType()));
+                // The last day is still forming at the end of the request
+                closedAlertCount += i < barSeries.getEndIndex() ? alerts.size() : 0;
+            }
+            csv.append("PRV,not-a-time,1,1,1,1,1\n");
+
+            IngestResult result = intradayAggregator.ingest(new StringReader(csv.toString()),
+                    BarIngestionService.Format.CSV);
+            assertTrue(alertDispatcher.flush(Duration.ofSeconds(10)));
+
+            assertTrue(expected.size() > 0, "The strategy should confirm some alerts");
+            assertEquals(new HashSet<>(provisional).size(), provisional.size(),
+                    "A signal was pushed more than once on the same day: " + provisional);
+            assertEquals(expected, new HashSet<>(provisional));
+            assertEquals(barSeries.getBarCount() * MINUTES, result.getBarCount());
+            assertEquals(1, result.getRejectedCount());
+            assertEquals(closedAlertCount + provisional.size(), result.getAlertCount());
+        } finally {
+            subscription.close();
+        }
+    }
+
+    // The open and the extremes in the first minute, the close and the volume in the last one
+    private void addMinuteBars(String stockSymbol, Bar bar) {
+        long start = bar.getEndTime().toLocalDate().atTime(9, 30).atZone(ZONE).toEpochSecond();
+        double open = bar.getOpenPrice().doubleValue();
+        double close = bar.getClosePrice().doubleValue();
+        intradayAggregator.onMinuteBar(stockSymbol, start, open, bar.getHighPrice().doubleValue(),
+                bar.getLowPrice().doubleValue(), open, 0);
+        for (int minute = 1; minute < MINUTES - 1; minute++) {
+            intradayAggregator.onMinuteBar(stockSymbol, start + minute * 60L, open, open, open, open, 0);
+        }
+        intradayAggregator.onMinuteBar(stockSymbol, start + (MINUTES - 1) * 60L, close, close, close, close,
+                bar.getVolume().doubleValue());
+    }
+}
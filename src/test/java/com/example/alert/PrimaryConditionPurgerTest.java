@@ -0,0 +1,91 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.ta4j.core.Bar;
+import org.ta4j.core.BarSeries;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A MACD cross alone reaches the threshold, so the synthetic bars produce alerts
+@SpringBootTest(properties = {"alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+        "alert.strategy.threshold=0.4"})
+public class PrimaryConditionPurgerTest {
+
+    @Autowired
+    private PrimaryConditionPurger purger;
+
+    @Autowired
+    private PrimaryConditionRepository primaryConditionRepository;
+
+    @Autowired
+    private ColumnarBarStore columnarBarStore;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @BeforeEach
+    public void setUp() {
+        primaryConditionRepository.deleteAll();
+    }
+
+    @Test
+    public void testPurgeDeletesConditionsOutsideTheWindowOfTheirSymbol() {
+        // Long past, so a purge relative to today would delete everything
+        LocalDate lastBar = LocalDate.of(2024, 3, 1);
+        primaryConditionRepository.applyChanges(List.of(
+                condition("LATE", lastBar.minusDays(40), false),
+                condition("LATE", lastBar.minusDays(30), true),
+                condition("LATE", lastBar.minusDays(29), false),
+                condition("LATE", lastBar, false),
+                condition("AHEAD", lastBar.minusDays(5), false),
+                condition("AHEAD", lastBar, false),
+                condition("AHEAD", lastBar.plusDays(1), false)), List.of());
+        // The bars of AHEAD went on for three weeks after its last condition; the window of its last eleven
+        // bars starts ten days after lastBar
+        for (int day = -30; day <= 20; day++) {
+            columnarBarStore.append("AHEAD", lastBar.plusDays(day).toEpochDay(), 1, 2, 0.5, 1.5, 100);
+        }
+
+        assertEquals(4, purger.purge());
+        // Without stored bars the window is taken as twenty days
+        assertEquals(List.of(lastBar.minusDays(29), lastBar), occurrenceDates("LATE"));
+        assertEquals(List.of(lastBar.plusDays(1)), occurrenceDates("AHEAD"));
+        assertEquals(0, purger.purge());
+    }
+
+    @Test
+    public void testRerunAfterPurgeConfirmsNothingAgain() {
+        // A death cross on the first bar of the last window of 440 bars, confirmed three bars later
+        BarSeries barSeries = SyntheticBarSeries.create("PRG", 440, 10);
+        List<Bar> bars = new ArrayList<>();
+        for (int i = 0; i < barSeries.getBarCount(); i++) {
+            bars.add(barSeries.getBar(i));
+        }
+        assertTrue(stockAlertService.onBars("PRG", bars).size() > 0, "The strategy should confirm some alerts");
+
+        assertTrue(purger.purge() > 0);
+        assertEquals(List.of(), stockAlertService.analyzeStock(barSeries, "PRG"));
+    }
+
+    private List<LocalDate> occurrenceDates(String stockSymbol) {
+        return primaryConditionRepository.findByStockSymbolAndOccurrenceDateAfter(stockSymbol, LocalDate.of(2000, 1, 1))
+                .stream().map(PrimaryCondition::getOccurrenceDate).sorted().toList();
+    }
+
+    private static PrimaryCondition condition(String stockSymbol, LocalDate date, boolean confirmed) {
+        PrimaryCondition condition = new PrimaryCondition();
+        condition.setStockSymbol(stockSymbol);
+        condition.setConditionType(ConditionType.GOLDEN_CROSS);
+        condition.setOccurrenceDate(date);
+        condition.setConfirmed(confirmed);
+        return condition;
+    }
+}
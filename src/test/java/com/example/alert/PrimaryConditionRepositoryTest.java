@@ -0,0 +1,116 @@
+package com.example.alert;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.ta4j.core.BarSeries;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A MACD cross alone reaches the threshold, so the synthetic bars produce alerts
+@SpringBootTest(properties = {"alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+        "alert.strategy.threshold=0.4"})
+public class PrimaryConditionRepositoryTest {
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private PrimaryConditionRepository primaryConditionRepository;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    public void setUp() {
+        primaryConditionRepository.deleteAll();
+    }
+
+    @Test
+    public void testRerunIsIdempotent() {
+        BarSeries barSeries = SyntheticBarSeries.create("RERUN", 600, 7);
+        int alertCount = 0;
+        for (int end = 50; end <= 600; end++) {
+            alertCount += stockAlertService.analyzeStock(barSeries.getSubSeries(0, end), "RERUN").size();
+        }
+        long rowCount = primaryConditionRepository.count();
+        assertTrue(alertCount > 0, "The strategy should confirm some alerts");
+
+        // Every window was already evaluated, so nothing is recorded or confirmed again
+        DistributionSummary repositoryCalls = registry.get("alert.repository.calls").summary();
+        long runCount = repositoryCalls.count();
+        double callCount = repositoryCalls.totalAmount();
+        int rerunAlertCount = 0;
+        for (int end = 50; end <= 600; end += 25) {
+            rerunAlertCount += stockAlertService.analyzeStock(barSeries.getSubSeries(0, end), "RERUN").size();
+        }
+        assertEquals(0, rerunAlertCount);
+        assertEquals(rowCount, primaryConditionRepository.count());
+        // Only the load, there is nothing to write
+        assertEquals(23, repositoryCalls.count() - runCount);
+        assertEquals(23, repositoryCalls.totalAmount() - callCount);
+    }
+
+    @Test
+    public void testInsertMissingConfirmsStoredConditions() {
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        primaryConditionRepository.save(condition("UPSERT", date, false));
+
+        assertEquals(1, primaryConditionRepository.insertMissing(
+                List.of(condition("UPSERT", date, true), condition("UPSERT", date.plusDays(1), false))));
+        assertEquals(2, primaryConditionRepository.count());
+        assertEquals(List.of(date.plusDays(1)), primaryConditionRepository
+                .findPending("UPSERT", ConditionType.GOLDEN_CROSS, date.minusDays(1))
+                .stream().map(PrimaryCondition::getOccurrenceDate).toList());
+    }
+
+    @Test
+    public void testConcurrentInsertMissingStoresEachConditionOnce() throws Exception {
+        List<PrimaryCondition> conditions = new ArrayList<>();
+        for (int day = 0; day < 200; day++) {
+            conditions.add(condition("RACE", LocalDate.of(2024, 1, 1).plusDays(day), false));
+        }
+        int threadCount = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return primaryConditionRepository.insertMissing(conditions);
+                }));
+            }
+            start.countDown();
+            int inserted = 0;
+            for (Future<Integer> result : results) {
+                inserted += result.get();
+            }
+            assertEquals(conditions.size(), inserted);
+            assertEquals(conditions.size(), primaryConditionRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PrimaryCondition condition(String stockSymbol, LocalDate date, boolean confirmed) {
+        PrimaryCondition condition = new PrimaryCondition();
+        condition.setStockSymbol(stockSymbol);
+        condition.setConditionType(ConditionType.GOLDEN_CROSS);
+        condition.setOccurrenceDate(date);
+        condition.setConfirmed(confirmed);
+        return condition;
+    }
+}
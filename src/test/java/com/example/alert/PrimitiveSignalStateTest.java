@@ -0,0 +1,71 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.num.Num;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PrimitiveSignalStateTest {
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void testPrimitiveStateMatchesDecimalState() {
+        BarSeries barSeries = SyntheticBarSeries.create("Long History", 25_000, 7);
+
+        SignalState decimal = new SignalState(barSeries::numOf, new StrategyConfig());
+        PrimitiveSignalState primitive = new PrimitiveSignalState(new StrategyConfig());
+        for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+            SignalSnapshot expected = decimal.update(barSeries.getBar(i));
+            SignalSnapshot actual = primitive.update(barSeries.getBar(i));
+
+            assertClose(expected.getShortMA(), actual.getShortMA(), "short MA", i);
+            assertClose(expected.getLongMA(), actual.getLongMA(), "long MA", i);
+            assertClose(expected.getRsi(), actual.getRsi(), "RSI", i);
+            assertClose(expected.getMacd(), actual.getMacd(), "MACD", i);
+            assertClose(expected.getMacdSignal(), actual.getMacdSignal(), "MACD signal", i);
+
+            // Everything the ENTRY/EXIT rules look at must agree
+            assertEquals(expected.isGoldenCross(), actual.isGoldenCross(), "golden cross at bar " + i);
+            assertEquals(expected.isDeathCross(), actual.isDeathCross(), "death cross at bar " + i);
+            assertEquals(expected.isMacdBullish(), actual.isMacdBullish(), "MACD bullish at bar " + i);
+            assertEquals(expected.isMacdBearish(), actual.isMacdBearish(), "MACD bearish at bar " + i);
+            assertEquals(expected.getRsi().isLessThan(expected.numOf(30)), actual.getRsi().isLessThan(actual.numOf(30)),
+                    "RSI oversold at bar " + i);
+            assertEquals(expected.getRsi().isGreaterThan(expected.numOf(70)), actual.getRsi().isGreaterThan(actual.numOf(70)),
+                    "RSI overbought at bar " + i);
+            assertEquals(expected.getClose().isGreaterThan(expected.getUpperBB()), actual.getClose().isGreaterThan(actual.getUpperBB()),
+                    "Bollinger breakout at bar " + i);
+            assertEquals(expected.getClose().isLessThan(expected.getLowerBB()), actual.getClose().isLessThan(actual.getLowerBB()),
+                    "Bollinger breakdown at bar " + i);
+        }
+    }
+
+    @Test
+    public void testShortPeriodLongerThanLongPeriod() {
+        BarSeries barSeries = SyntheticBarSeries.create("Long Short", 600, 8);
+        StrategyConfig config = new StrategyConfig();
+        config.setShortMaPeriod(50);
+        config.setLongMaPeriod(20);
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(barSeries);
+        SMAIndicator shortMA = new SMAIndicator(closePrice, config.getShortMaPeriod());
+        SMAIndicator longMA = new SMAIndicator(closePrice, config.getLongMaPeriod());
+
+        PrimitiveSignalState primitive = new PrimitiveSignalState(config);
+        for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+            SignalSnapshot actual = primitive.update(barSeries.getBar(i));
+            assertClose(shortMA.getValue(i), actual.getShortMA(), "short MA", i);
+            assertClose(longMA.getValue(i), actual.getLongMA(), "long MA", i);
+        }
+    }
+
+    private static void assertClose(Num expected, Num actual, String name, int index) {
+        double difference = Math.abs(expected.doubleValue() - actual.doubleValue());
+        assertTrue(difference <= TOLERANCE * Math.max(1, Math.abs(expected.doubleValue())),
+                name + " differs at bar " + index + ": " + expected + " != " + actual);
+    }
+}
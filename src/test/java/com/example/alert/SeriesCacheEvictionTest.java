@@ -0,0 +1,52 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.ta4j.core.BarSeries;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// A MACD cross alone reaches the threshold, so the synthetic bars produce alerts
+@SpringBootTest(properties = {"alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+        "alert.strategy.threshold=0.4", "alert.cache.max-symbols=1"})
+public class SeriesCacheEvictionTest {
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private SeriesCache seriesCache;
+
+    @Test
+    public void testEvictedSeriesIsRebuiltWithTheAnalyzedBars() {
+        BarSeries barSeries = SyntheticBarSeries.create("EVI", 600, 10);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            List<Alert> alerts = stockAlertService.analyzeBar("EVIREF", barSeries.getBar(i));
+            if (i >= 400) {
+                alerts.forEach(alert -> expected.add(alert.getSignalType() + " " + alert.getDate()));
+            }
+        }
+
+        for (int i = 0; i < 400; i++) {
+            stockAlertService.analyzeBar("EVI", barSeries.getBar(i));
+        }
+        // Evicts EVI, the only symbol the cache holds
+        stockAlertService.analyzeBar("OTHER", barSeries.getBar(0));
+        long evictions = seriesCache.getSizeEvictions();
+        List<String> actual = new ArrayList<>();
+        for (int i = 400; i < 600; i++) {
+            stockAlertService.analyzeBar("EVI", barSeries.getBar(i))
+                    .forEach(alert -> actual.add(alert.getSignalType() + " " + alert.getDate()));
+        }
+
+        assertEquals(evictions + 1, seriesCache.getSizeEvictions());
+        assertTrue(expected.size() > 0, "The strategy should confirm some alerts");
+        assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.alert;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBarSeries;
+import org.ta4j.core.num.Num;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class SeriesCacheTest {
+
+    @Test
+    public void testEvictsBySizeAndIdleTime() {
+        AlertProperties properties = new AlertProperties();
+        properties.getCache().setMaxSymbols(2);
+        properties.getCache().setMaxIdle(Duration.ofMinutes(1));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AtomicLong now = new AtomicLong();
+        SeriesCache cache = new SeriesCache(properties, registry, now::get);
+
+        IndicatorGraph first = cache.get("A", symbol -> graph(symbol, properties));
+        cache.get("B", symbol -> graph(symbol, properties));
+        assertSame(first, cache.get("A", symbol -> graph(symbol, properties)));
+        // B is the least recently used entry
+        cache.get("C", symbol -> graph(symbol, properties));
+        assertEquals(2, cache.size());
+        cache.get("A", symbol -> graph(symbol, properties));
+
+        now.addAndGet(Duration.ofSeconds(90).toNanos());
+        cache.get("B", symbol -> graph(symbol, properties));
+        assertEquals(1, cache.size());
+
+        assertEquals(2, cache.getHits());
+        assertEquals(4, cache.getMisses());
+        assertEquals(1, cache.getSizeEvictions());
+        assertEquals(2, cache.getIdleEvictions());
+        assertEquals(2, registry.get("alert.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("alert.cache.size").gauge().value());
+    }
+
+    @Test
+    public void testMemoryBudgetLimitsEntries() {
+        AlertProperties properties = new AlertProperties();
+        int barCount = SeriesCache.maximumBarCount(properties.getStrategy());
+        properties.getCache().setMemoryBudget(DataSize.ofBytes(3 * barCount * SeriesCache.BYTES_PER_BAR));
+        SeriesCache cache = new SeriesCache(properties, new SimpleMeterRegistry());
+
+        assertEquals(3, cache.getMaxEntries());
+    }
+
+    @Test
+    public void testTrimmedSeriesMatchesFullHistory() {
+        StrategyConfig config = new StrategyConfig();
+        BarSeries full = SyntheticBarSeries.create("FULL", 1500, 7);
+        BarSeries trimmed = new BaseBarSeries("TRIMMED");
+        trimmed.setMaximumBarCount(SeriesCache.maximumBarCount(config));
+        IndicatorGraph cached = new IndicatorGraph(trimmed, config);
+        for (int i = 0; i < full.getBarCount(); i++) {
+            trimmed.addBar(full.getBar(i));
+            cached.window(config.getTimeWindow());
+        }
+
+        List<SignalSnapshot> expected = new IndicatorGraph(full, config).window(config.getTimeWindow());
+        List<SignalSnapshot> actual = cached.window(config.getTimeWindow());
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+            assertClose(expected.get(i).getShortMA(), actual.get(i).getShortMA());
+            assertClose(expected.get(i).getLongMA(), actual.get(i).getLongMA());
+            assertClose(expected.get(i).getRsi(), actual.get(i).getRsi());
+            assertClose(expected.get(i).getMacd(), actual.get(i).getMacd());
+            assertClose(expected.get(i).getMacdSignal(), actual.get(i).getMacdSignal());
+        }
+    }
+
+    private static IndicatorGraph graph(String stockSymbol, AlertProperties properties) {
+        return new IndicatorGraph(new BaseBarSeries(stockSymbol), properties.getStrategy());
+    }
+
+    private static void assertClose(Num expected, Num actual) {
+        assertEquals(expected.doubleValue(), actual.doubleValue(), 1e-6);
+    }
+}
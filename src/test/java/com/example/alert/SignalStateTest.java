@@ -0,0 +1,52 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.indicators.EMAIndicator;
+import org.ta4j.core.indicators.MACDIndicator;
+import org.ta4j.core.indicators.RSIIndicator;
+import org.ta4j.core.indicators.SMAIndicator;
+import org.ta4j.core.indicators.helpers.ClosePriceIndicator;
+import org.ta4j.core.num.Num;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SignalStateTest {
+
+    @Test
+    public void testRunningStateMatchesIndicatorGraph() {
+        assertMatchesIndicatorGraph(new StrategyConfig());
+    }
+
+    @Test
+    public void testShortPeriodLongerThanLongPeriod() {
+        StrategyConfig config = new StrategyConfig();
+        config.setShortMaPeriod(50);
+        config.setLongMaPeriod(20);
+        assertMatchesIndicatorGraph(config);
+    }
+
+    private static void assertMatchesIndicatorGraph(StrategyConfig config) {
+        BarSeries barSeries = SyntheticBarSeries.create("Random Walk", 600, 42);
+        ClosePriceIndicator closePrice = new ClosePriceIndicator(barSeries);
+        SMAIndicator shortMA = new SMAIndicator(closePrice, config.getShortMaPeriod());
+        SMAIndicator longMA = new SMAIndicator(closePrice, config.getLongMaPeriod());
+        RSIIndicator rsi = new RSIIndicator(closePrice, config.getRsiPeriod());
+        MACDIndicator macd = new MACDIndicator(closePrice, config.getMacdShortPeriod(), config.getMacdLongPeriod());
+        EMAIndicator macdSignal = new EMAIndicator(macd, config.getMacdSignalPeriod());
+
+        SignalState state = new SignalState(barSeries::numOf, config);
+        for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+            SignalSnapshot snapshot = state.update(barSeries.getBar(i));
+            assertEqual(shortMA.getValue(i), snapshot.getShortMA(), "short MA", i);
+            assertEqual(longMA.getValue(i), snapshot.getLongMA(), "long MA", i);
+            assertEqual(rsi.getValue(i), snapshot.getRsi(), "RSI", i);
+            assertEqual(macd.getValue(i), snapshot.getMacd(), "MACD", i);
+            assertEqual(macdSignal.getValue(i), snapshot.getMacdSignal(), "MACD signal", i);
+        }
+    }
+
+    private static void assertEqual(Num expected, Num actual, String name, int index) {
+        assertTrue(expected.isEqual(actual), name + " differs at bar " + index + ": " + expected + " != " + actual);
+    }
+}
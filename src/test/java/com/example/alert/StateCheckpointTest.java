@@ -0,0 +1,127 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.num.DecimalNum;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StateCheckpointTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRestoredStateContinuesLikeTheOriginal() throws Exception {
+        StrategyConfig config = new StrategyConfig();
+        BarSeries barSeries = SyntheticBarSeries.create("CKPT", 1500, 11);
+        PrimitiveSignalState original = new PrimitiveSignalState(config);
+        original.advance(barSeries.getSubSeries(0, 1000));
+
+        PrimaryCondition condition = new PrimaryCondition();
+        condition.setStockSymbol("CKPT");
+        condition.setConditionType(ConditionType.DEATH_CROSS);
+        condition.setOccurrenceDate(LocalDate.of(2002, 9, 1));
+        condition.setConfirmed(true);
+
+        Path file = directory.resolve("checkpoint.bin");
+        StateCheckpoint.write(file, config, Map.of("CKPT", original), List.of(condition));
+        StateCheckpoint checkpoint = StateCheckpoint.read(file, config);
+
+        PrimaryCondition restoredCondition = checkpoint.getConditions().get(0);
+        assertEquals(ConditionType.DEATH_CROSS, restoredCondition.getConditionType());
+        assertEquals(LocalDate.of(2002, 9, 1), restoredCondition.getOccurrenceDate());
+        assertTrue(restoredCondition.isConfirmed());
+
+        // Both states only process the bars after the checkpoint and must agree exactly
+        List<SignalSnapshot> expected = original.advance(barSeries);
+        List<SignalSnapshot> actual = checkpoint.getStates().get("CKPT").advance(barSeries);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+            assertEquals(expected.get(i).getShortMA().doubleValue(), actual.get(i).getShortMA().doubleValue());
+            assertEquals(expected.get(i).getLongMA().doubleValue(), actual.get(i).getLongMA().doubleValue());
+            assertEquals(expected.get(i).getRsi().doubleValue(), actual.get(i).getRsi().doubleValue());
+            assertEquals(expected.get(i).getMacdSignal().doubleValue(), actual.get(i).getMacdSignal().doubleValue());
+            assertEquals(expected.get(i).isGoldenCross(), actual.get(i).isGoldenCross());
+        }
+    }
+
+    @Test
+    public void testRestoredDecimalStateContinuesExactly() throws Exception {
+        StrategyConfig config = new StrategyConfig();
+        BarSeries barSeries = SyntheticBarSeries.create("DEC", 1500, 12);
+        SignalState original = new SignalState(DecimalNum::valueOf, config);
+        original.advance(barSeries.getSubSeries(0, 1000));
+        SignalState empty = new SignalState(DecimalNum::valueOf, config);
+
+        Path file = directory.resolve("checkpoint.bin");
+        StateCheckpoint.write(file, config, Map.of("DEC", original, "NEW", empty), List.of());
+        StateCheckpoint checkpoint = StateCheckpoint.read(file, config);
+        assertNull(checkpoint.getStates().get("NEW").getLastDate());
+
+        // The restored values are the same decimals, so the states agree to the last digit
+        List<SignalSnapshot> expected = original.advance(barSeries);
+        List<SignalSnapshot> actual = checkpoint.getStates().get("DEC").advance(barSeries);
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate(), actual.get(i).getDate());
+            assertEquals(expected.get(i).getShortMA(), actual.get(i).getShortMA());
+            assertEquals(expected.get(i).getLongMA(), actual.get(i).getLongMA());
+            assertEquals(expected.get(i).getRsi(), actual.get(i).getRsi());
+            assertEquals(expected.get(i).getMacdSignal(), actual.get(i).getMacdSignal());
+            assertEquals(expected.get(i).getUpperBB(), actual.get(i).getUpperBB());
+        }
+    }
+
+    @Test
+    public void testPrimitiveAndDecimalStatesShareAFile() throws Exception {
+        StrategyConfig config = new StrategyConfig();
+        BarSeries barSeries = SyntheticBarSeries.create("MIX", 1200, 13);
+        PrimitiveSignalState primitive = new PrimitiveSignalState(config);
+        primitive.advance(barSeries.getSubSeries(0, 900));
+        SignalState decimal = new SignalState(DecimalNum::valueOf, config);
+        decimal.advance(barSeries.getSubSeries(0, 800));
+
+        Path file = directory.resolve("checkpoint.bin");
+        StateCheckpoint.write(file, config, Map.of("PRIM", primitive, "DEC", decimal), List.of());
+        StateCheckpoint checkpoint = StateCheckpoint.read(file, config);
+
+        IndicatorState restoredPrimitive = checkpoint.getStates().get("PRIM");
+        IndicatorState restoredDecimal = checkpoint.getStates().get("DEC");
+        assertTrue(restoredPrimitive instanceof PrimitiveSignalState);
+        assertTrue(restoredDecimal instanceof SignalState);
+        assertEquals(primitive.getLastDate(), restoredPrimitive.getLastDate());
+        assertEquals(decimal.getLastDate(), restoredDecimal.getLastDate());
+
+        List<SignalSnapshot> expectedPrimitive = primitive.advance(barSeries);
+        List<SignalSnapshot> actualPrimitive = restoredPrimitive.advance(barSeries);
+        List<SignalSnapshot> expectedDecimal = decimal.advance(barSeries);
+        List<SignalSnapshot> actualDecimal = restoredDecimal.advance(barSeries);
+        for (int i = 0; i < expectedPrimitive.size(); i++) {
+            assertEquals(expectedPrimitive.get(i).getLongMA().doubleValue(),
+                    actualPrimitive.get(i).getLongMA().doubleValue());
+            assertEquals(expectedDecimal.get(i).getLongMA(), actualDecimal.get(i).getLongMA());
+            assertEquals(expectedDecimal.get(i).getMacdSignal(), actualDecimal.get(i).getMacdSignal());
+        }
+    }
+
+    @Test
+    public void testCheckpointOfAnotherStrategyIsIgnored() throws Exception {
+        Path file = directory.resolve("checkpoint.bin");
+        StateCheckpoint.write(file, new StrategyConfig(), Map.of(), List.of());
+
+        StrategyConfig changed = new StrategyConfig();
+        changed.setLongMaPeriod(100);
+        assertNull(StateCheckpoint.read(file, changed));
+        assertNull(StateCheckpoint.read(directory.resolve("missing.bin"), changed));
+    }
+}
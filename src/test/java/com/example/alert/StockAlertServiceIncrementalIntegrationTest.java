@@ -0,0 +1,10 @@
+package com.example.alert;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the {@link StockAlertServiceIntegrationTest} scenarios with the running indicator state.
+ */
+@SpringBootTest(properties = "alert.engine.mode=incremental")
+public class StockAlertServiceIncrementalIntegrationTest extends StockAlertServiceIntegrationTest {
+}
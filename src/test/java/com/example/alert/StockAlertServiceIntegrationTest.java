@@ -7,17 +7,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.stereotype.Service;
+import org.springframework.test.context.TestPropertySource;
 import org.ta4j.core.BarSeries;
 import org.ta4j.core.BaseBar;
 import org.ta4j.core.BaseBarSeries;
 
 import java.time.Duration;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 @SpringBootTest
+// A MACD cross alone reaches the threshold; inherited by the subclasses that run the scenarios in other modes
+@TestPropertySource(properties = "alert.strategy.threshold=0.4")
 public class StockAlertServiceIntegrationTest {
 
     private static final Logger logger = LoggerFactory.getLogger(StockAlertServiceIntegrationTest.class);
@@ -66,13 +70,19 @@ public class StockAlertServiceIntegrationTest {
         alerts.forEach(alert -> logger.info("Generated Alert: {}", alert));
 
         // Verify that the Golden Cross was saved in the database
-        List<PrimaryCondition> goldenCrossConditions = primaryConditionRepository.findByStockSymbolAndConditionTypeAndOccurrenceDateAfter(
-                "TEST", "GOLDEN_CROSS", ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
-        assertEquals(0, goldenCrossConditions.size(), "Golden Cross should be removed after confirmation");
+        List<PrimaryCondition> goldenCrossConditions = primaryConditionRepository.findPending(
+                "TEST", ConditionType.GOLDEN_CROSS, ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
+        assertEquals(0, goldenCrossConditions.size(), "Golden Cross should no longer be pending after confirmation");
 
         // Verify that an ENTRY SIGNAL alert was generated
         assertEquals(1, alerts.size(), "One alert should be generated for the Golden Cross");
         assertEquals("ENTRY", alerts.get(0).getSignalType(), "Alert should indicate an entry signal");
+
+        // Verify that the confirmed Golden Cross is kept, so that analyzing the same bars again does not confirm it again
+        assertTrue(primaryConditionRepository.findByStockSymbolAndOccurrenceDateAfter(
+                        "TEST", ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate()).stream()
+                        .anyMatch(condition -> condition.getConditionType() == ConditionType.GOLDEN_CROSS && condition.isConfirmed()),
+                "Golden Cross should be kept as confirmed");
     }
 
     @Test
@@ -88,13 +98,19 @@ public class StockAlertServiceIntegrationTest {
         alerts.forEach(alert -> logger.info("Generated Alert: {}", alert));
 
         // Verify that the Death Cross was saved in the database
-        List<PrimaryCondition> deathCrossConditions = primaryConditionRepository.findByStockSymbolAndConditionTypeAndOccurrenceDateAfter(
-                "TEST", "DEATH_CROSS", ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
-        assertEquals(0, deathCrossConditions.size(), "Death Cross should be removed after confirmation");
+        List<PrimaryCondition> deathCrossConditions = primaryConditionRepository.findPending(
+                "TEST", ConditionType.DEATH_CROSS, ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
+        assertEquals(0, deathCrossConditions.size(), "Death Cross should no longer be pending after confirmation");
 
         // Verify that an EXIT SIGNAL alert was generated
         assertEquals(1, alerts.size(), "One alert should be generated for the Death Cross");
         assertEquals("EXIT", alerts.get(0).getSignalType(), "Alert should indicate an exit signal");
+
+        // Verify that the confirmed Death Cross is kept, so that analyzing the same bars again does not confirm it again
+        assertTrue(primaryConditionRepository.findByStockSymbolAndOccurrenceDateAfter(
+                        "TEST", ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate()).stream()
+                        .anyMatch(condition -> condition.getConditionType() == ConditionType.DEATH_CROSS && condition.isConfirmed()),
+                "Death Cross should be kept as confirmed");
     }
 
     @Test
@@ -110,8 +126,8 @@ public class StockAlertServiceIntegrationTest {
         alerts.forEach(alert -> logger.info("Generated Alert: {}", alert));
 
         // Verify that the Golden Cross was saved in the database
-        List<PrimaryCondition> goldenCrossConditions = primaryConditionRepository.findByStockSymbolAndConditionTypeAndOccurrenceDateAfter(
-                "TEST", "GOLDEN_CROSS", ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
+        List<PrimaryCondition> goldenCrossConditions = primaryConditionRepository.findPending(
+                "TEST", ConditionType.GOLDEN_CROSS, ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
         assertEquals(1, goldenCrossConditions.size(), "Golden Cross should remain in the database");
 
         // Verify that no alert was generated
@@ -133,11 +149,28 @@ public class StockAlertServiceIntegrationTest {
         alerts.forEach(alert -> logger.info("Generated Alert: {}", alert));
 
         // Verify that the Golden Cross was removed from the database due to time window expiry
-        List<PrimaryCondition> goldenCrossConditions = primaryConditionRepository.findByStockSymbolAndConditionTypeAndOccurrenceDateAfter(
-                "TEST", "GOLDEN_CROSS", ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
+        List<PrimaryCondition> goldenCrossConditions = primaryConditionRepository.findPending(
+                "TEST", ConditionType.GOLDEN_CROSS, ZonedDateTime.of(2023, 10, 1, 0, 0, 0, 0, java.time.ZoneOffset.UTC).toLocalDate());
         assertEquals(0, goldenCrossConditions.size(), "Golden Cross should be removed after time window expiry");
 
         // Verify that no alert was generated
         assertEquals(0, alerts.size(), "No alert should be generated if time window expires");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLongHistoryCrossesAndConfirms() {
+        // 400 bars, so that both moving averages are complete before the crosses of bars 213 and 369
+        BarSeries history = SyntheticBarSeries.create("LONG", 400, 73);
+
+        // Analyze stock data once per new bar
+        List<String> alerts = new ArrayList<>();
+        for (int end = 200; end <= history.getBarCount(); end++) {
+            for (Alert alert : stockAlertService.analyzeStock(history.getSubSeries(0, end), "LONG")) {
+                alerts.add(alert.getDate() + " " + alert.getSignalType());
+            }
+        }
+
+        // The same alerts with the ta4j indicators, the running decimal state and the primitive state
+        assertEquals(List.of("2000-08-03 ENTRY", "2001-01-06 EXIT"), alerts);
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.alert;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the {@link StockAlertServiceIntegrationTest} scenarios on primitive double arithmetic.
+ */
+@SpringBootTest(properties = "alert.engine.numeric=primitive")
+public class StockAlertServicePrimitiveIntegrationTest extends StockAlertServiceIntegrationTest {
+}
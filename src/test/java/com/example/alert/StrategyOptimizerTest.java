@@ -0,0 +1,98 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ta4j.core.BarSeries;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class StrategyOptimizerTest {
+
+    @TempDir
+    Path directory;
+
+    private ColumnarBarStore store;
+    private Map<String, BarColumns> universe;
+    private final StrategyOptimizer optimizer = new StrategyOptimizer(new AlertProperties());
+
+    @BeforeEach
+    public void setUp() {
+        AlertProperties properties = new AlertProperties();
+        properties.getBarStore().setDirectory(directory.toString());
+        store = new ColumnarBarStore(properties);
+        for (String symbol : List.of("AAA", "BBB", "CCC")) {
+            BarSeries barSeries = SyntheticBarSeries.create(symbol, 3000, symbol.hashCode());
+            for (int i = 0; i <= barSeries.getEndIndex(); i++) {
+                store.append(symbol, barSeries.getBar(i));
+            }
+        }
+        universe = store.openAll();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        optimizer.destroy();
+        store.destroy();
+    }
+
+    @Test
+    public void testSignalsMatchBacktest() {
+        // A MACD cross alone reaches this threshold, so alerts are confirmed despite the Bollinger bands
+        AlertProperties properties = new AlertProperties();
+        StrategyConfig config = properties.getStrategy();
+        config.setShortMaPeriod(10);
+        config.setLongMaPeriod(30);
+        config.setThreshold(0.4);
+        properties.getBacktest().setHorizons(new int[]{20});
+        BacktestService backtestService = new BacktestService(properties);
+
+        int signalCount = 0;
+        int hits = 0;
+        for (BacktestResult result : backtestService.backtestUniverse(universe).getResults()) {
+            for (BacktestSignal signal : result.getSignals()) {
+                double forwardReturn = signal.getForwardReturn(0);
+                if (Double.isNaN(forwardReturn)) {
+                    continue;
+                }
+                signalCount++;
+                if (signal.getAlert().getSignalType().equals("ENTRY") ? forwardReturn > 0 : forwardReturn < 0) {
+                    hits++;
+                }
+            }
+        }
+        backtestService.destroy();
+
+        OptimizationResult result = optimizer.optimize(universe, List.of(config), 20).get(0);
+        assertTrue(signalCount > 0, "The configuration should confirm some alerts");
+        assertEquals(signalCount, result.getSignalCount());
+        assertEquals((double) hits / signalCount, result.getHitRate(), 1e-12);
+    }
+
+    @Test
+    public void testResultsAreRanked() {
+        List<StrategyConfig> configs = new ParameterSpace()
+                .shortMaPeriods(5, 10, 50)
+                .longMaPeriods(20, 30)
+                .thresholds(0.7, 0.8)
+                .grid();
+        assertEquals(8, configs.size(), "Combinations with a short period above the long one are left out");
+
+        List<OptimizationResult> results = optimizer.optimize(universe, configs, 5);
+        assertEquals(configs.size(), results.size());
+        for (int i = 1; i < results.size(); i++) {
+            OptimizationResult previous = results.get(i - 1);
+            OptimizationResult current = results.get(i);
+            if (current.getSignalCount() > 0) {
+                assertTrue(previous.getSignalCount() > 0, "Configurations without signals come last");
+                assertTrue(previous.getHitRate() >= current.getHitRate());
+            }
+        }
+    }
+}
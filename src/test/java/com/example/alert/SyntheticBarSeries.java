@@ -0,0 +1,33 @@
+package com.example.alert;
+
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeries;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+/**
+ * Reproducible random-walk daily bars for tests.
+ */
+class SyntheticBarSeries {
+
+    private SyntheticBarSeries() {
+    }
+
+    static BarSeries create(String name, int barCount, long seed) {
+        BarSeries barSeries = new BaseBarSeries(name);
+        Random random = new Random(seed);
+        ZonedDateTime endTime = ZonedDateTime.of(2000, 1, 3, 0, 0, 0, 0, ZoneOffset.UTC);
+        double close = 100;
+        for (int i = 0; i < barCount; i++) {
+            double open = close;
+            close = Math.max(1, Math.round(close * (1 + random.nextGaussian() * 0.02) * 100) / 100.0);
+            barSeries.addBar(new BaseBar(Duration.ofDays(1), endTime.plusDays(i), open,
+                    Math.max(open, close) + 0.5, Math.min(open, close) - 0.5, close, 1000 + random.nextInt(1000)));
+        }
+        return barSeries;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.ta4j.core.BarSeries;
+import org.ta4j.core.BaseBar;
+import org.ta4j.core.BaseBarSeries;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"alert.strategy.short-ma-period=10", "alert.strategy.long-ma-period=30",
+        "alert.strategy.threshold=0.7"})
+public class UniverseScanServiceTest {
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private UniverseScanService universeScanService;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private PrimaryConditionRepository primaryConditionRepository;
+
+    @BeforeEach
+    public void setUp() {
+        primaryConditionRepository.deleteAll();
+    }
+
+    @Test
+    public void testFailingSymbolIsIsolated() {
+        Map<String, BarSeries> universe = new HashMap<>();
+        for (String symbol : List.of("CCC", "AAA", "BBB")) {
+            universe.put(symbol, createSeries(symbol, 300));
+        }
+        universe.put("BAD", null);
+
+        ScanResult result = universeScanService.scanUniverse(universe);
+
+        assertEquals(List.of("BAD"), List.copyOf(result.getFailures().keySet()), "Only the broken symbol should fail");
+        assertEquals(4, result.getStatistics().getSymbolCount(), "Every symbol should be accounted for");
+        assertEquals(1, result.getStatistics().getFailedCount());
+        assertTrue(result.getStatistics().getP99Latency().compareTo(result.getStatistics().getP50Latency()) >= 0,
+                "p99 latency should not be below p50 latency");
+        assertTrue(result.getStatistics().getSlowestSymbols().size() <= 4);
+    }
+
+    @Test
+    public void testColumnScanMatchesPerSymbolAnalysis() {
+        AlertProperties properties = new AlertProperties();
+        properties.getBarStore().setDirectory(directory.toString());
+        ColumnarBarStore store = new ColumnarBarStore(properties);
+        try {
+            List<BarSeries> series = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                series.add(SyntheticBarSeries.create("SYM" + i, 300 + 5 * i, i));
+            }
+            // One end-of-day scan per day, each over the bars stored up to that day
+            List<Map<String, BarColumns>> days = new ArrayList<>();
+            for (int day = 0; day < 400; day++) {
+                for (BarSeries barSeries : series) {
+                    int index = barSeries.getBarCount() - 400 + day;
+                    if (index >= 0) {
+                        store.append(barSeries.getName(), barSeries.getBar(index));
+                    }
+                }
+                if (day >= 300) {
+                    days.add(store.openAll());
+                }
+            }
+
+            List<String> scanned = new ArrayList<>();
+            for (Map<String, BarColumns> universe : days) {
+                ScanResult result = universeScanService.scanColumns(universe);
+                assertTrue(result.getFailures().isEmpty());
+                result.getAlerts().forEach(alert -> scanned.add(alert.toString()));
+            }
+            List<String> scannedConditions = conditions();
+
+            primaryConditionRepository.deleteAll();
+            List<String> analyzed = new ArrayList<>();
+            for (Map<String, BarColumns> universe : days) {
+                universe.forEach((symbol, barColumns) -> stockAlertService.analyzeStock(barColumns, symbol)
+                        .forEach(alert -> analyzed.add(alert.toString())));
+            }
+
+            assertEquals(analyzed, scanned);
+            assertEquals(conditions(), scannedConditions);
+            assertTrue(scannedConditions.size() > 0, "The scans should have recorded crosses");
+        } finally {
+            store.destroy();
+        }
+    }
+
+    private List<String> conditions() {
+        List<String> conditions = new ArrayList<>();
+        for (PrimaryCondition condition : primaryConditionRepository.findAll()) {
+            conditions.add(condition.getStockSymbol() + " " + condition.getConditionType() + " "
+                    + condition.getOccurrenceDate() + " " + condition.isConfirmed());
+        }
+        conditions.sort(null);
+        return conditions;
+    }
+
+    private static BarSeries createSeries(String symbol, int barCount) {
+        BarSeries barSeries = new BaseBarSeries(symbol);
+        ZonedDateTime endTime = ZonedDateTime.of(2023, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < barCount; i++) {
+            double close = 100 + 10 * Math.sin(i / 15.0);
+            barSeries.addBar(new BaseBar(Duration.ofDays(1), endTime.plusDays(i), close, close + 1, close - 1, close, 1000));
+        }
+        return barSeries;
+    }
+}
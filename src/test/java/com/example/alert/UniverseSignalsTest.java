@@ -0,0 +1,86 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.ta4j.core.BarSeries;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UniverseSignalsTest {
+
+    private static final int SYMBOLS = 40;
+
+    @TempDir
+    Path directory;
+
+    private ColumnarBarStore store;
+
+    @BeforeEach
+    public void setUp() {
+        AlertProperties properties = new AlertProperties();
+        properties.getBarStore().setDirectory(directory.toString());
+        store = new ColumnarBarStore(properties);
+        for (int i = 0; i < SYMBOLS; i++) {
+            // Histories longer and shorter than the moving averages and the confirmation window
+            BarSeries barSeries = SyntheticBarSeries.create("SYM" + i, i < 4 ? 12 - 3 * i : 600 - 13 * i, i);
+            for (int j = 0; j <= barSeries.getEndIndex(); j++) {
+                store.append("SYM" + i, barSeries.getBar(j));
+            }
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    public void testMatchesRunningStatePerSymbol() {
+        StrategyConfig config = new StrategyConfig();
+        config.setShortMaPeriod(10);
+        config.setLongMaPeriod(30);
+        config.setThreshold(0.7);
+        Map<String, BarColumns> universe = store.openAll();
+        UniverseSignals signals = UniverseSignals.compute(UniverseColumns.of(universe), config);
+
+        List<String> symbols = signals.getColumns().getSymbols();
+        assertEquals(SYMBOLS, symbols.size());
+        int crosses = 0;
+        for (int s = 0; s < symbols.size(); s++) {
+            List<SignalSnapshot> expected = new PrimitiveSignalState(config).advance(universe.get(symbols.get(s)));
+            List<SignalSnapshot> actual = signals.snapshots(s);
+            assertEquals(expected.size(), actual.size(), symbols.get(s));
+            for (int i = 0; i < expected.size(); i++) {
+                SignalSnapshot e = expected.get(i);
+                SignalSnapshot a = actual.get(i);
+                // Same recurrences in the same order, so the values must agree exactly
+                assertEquals(e.getDate(), a.getDate());
+                assertEquals(e.getShortMA().doubleValue(), a.getShortMA().doubleValue());
+                assertEquals(e.getLongMA().doubleValue(), a.getLongMA().doubleValue());
+                assertEquals(e.getRsi().doubleValue(), a.getRsi().doubleValue());
+                assertEquals(e.getMacd().doubleValue(), a.getMacd().doubleValue());
+                assertEquals(e.getMacdSignal().doubleValue(), a.getMacdSignal().doubleValue());
+                assertEquals(e.getPreviousShortMA().doubleValue(), a.getPreviousShortMA().doubleValue());
+                assertEquals(e.getPreviousMacdSignal().doubleValue(), a.getPreviousMacdSignal().doubleValue());
+                assertEquals(e.isGoldenCross(), (signals.flags(s, i) & UniverseSignals.GOLDEN_CROSS) != 0);
+                assertEquals(e.isDeathCross(), (signals.flags(s, i) & UniverseSignals.DEATH_CROSS) != 0);
+                // With the default weights, only RSI and MACD together reach the threshold
+                assertEquals(e.getRsi().doubleValue() < 30 && e.isMacdBullish(),
+                        (signals.flags(s, i) & UniverseSignals.ENTRY_CONFIRMED) != 0);
+                assertEquals(e.getRsi().doubleValue() > 70 && e.isMacdBearish(),
+                        (signals.flags(s, i) & UniverseSignals.EXIT_CONFIRMED) != 0);
+                if (e.isGoldenCross() || e.isDeathCross()) {
+                    crosses++;
+                }
+            }
+        }
+        assertTrue(crosses > 0, "The window should contain crosses to compare");
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.alert;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.ta4j.core.BarSeries;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Records the {@code jdk.VirtualThreadPinned} JFR events while many more virtual threads than the Hikari pool
+ * has connections load and write their pending conditions, so that they queue for connections and block inside
+ * the H2 driver.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+// A MACD cross alone reaches the threshold, so the synthetic bars produce alerts
+@SpringBootTest(properties = {"spring.threads.virtual.enabled=true", "alert.strategy.short-ma-period=10",
+        "alert.strategy.long-ma-period=30", "alert.strategy.threshold=0.4"})
+public class VirtualThreadPinningTest {
+
+    private static final int SYMBOLS = 200;
+
+    @Autowired
+    private StockAlertService stockAlertService;
+
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testRepositoryPathDoesNotPinVirtualThreads() throws Exception {
+        assertTrue(workerThreads.isVirtual());
+        List<BarSeries> universe = new ArrayList<>();
+        for (int i = 0; i < SYMBOLS; i++) {
+            universe.add(SyntheticBarSeries.create("PIN" + i, 300, i));
+        }
+
+        Path file = directory.resolve("pinned.jfr");
+        int alertCount = 0;
+        try (Recording recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            ExecutorService executor = workerThreads.newExecutor("pin-", 1);
+            try {
+                List<Future<Integer>> futures = new ArrayList<>();
+                for (BarSeries barSeries : universe) {
+                    futures.add(executor.submit(() -> {
+                        int count = 0;
+                        // Every window loads and flushes the conditions of the symbol
+                        for (int end = 250; end <= barSeries.getBarCount(); end += 10) {
+                            count += stockAlertService.analyzeStock(barSeries.getSubSeries(0, end),
+                                    barSeries.getName()).size();
+                        }
+                        return count;
+                    }));
+                }
+                for (Future<Integer> future : futures) {
+                    alertCount += future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<String> pinned = new ArrayList<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            StringBuilder stack = new StringBuilder(event.getDuration().toNanos() / 1000 + " us");
+            if (event.getStackTrace() != null) {
+                for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                    stack.append("\n  at ").append(frame.getMethod().getType().getName()).append('.')
+                            .append(frame.getMethod().getName());
+                }
+            }
+            pinned.add(stack.toString());
+        }
+        assertTrue(alertCount > 0, "The strategy should confirm some alerts");
+        assertEquals(List.of(), pinned);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.alert;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkerThreadsTest {
+
+    @Test
+    public void testVirtualThreadsOnlyWhenEnabledOnJava21() throws Exception {
+        assertFalse(new WorkerThreads(new MockEnvironment()).isVirtual());
+
+        WorkerThreads workerThreads = new WorkerThreads(new MockEnvironment()
+                .withProperty("spring.threads.virtual.enabled", "true"));
+        assertEquals(Runtime.version().feature() >= 21, workerThreads.isVirtual());
+
+        ExecutorService executor = workerThreads.newExecutor("worker-", 2);
+        try {
+            Future<String> name = executor.submit(() -> Thread.currentThread().getName());
+            assertTrue(name.get().startsWith("worker-"), name.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}